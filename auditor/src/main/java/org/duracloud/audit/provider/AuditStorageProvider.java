@@ -23,6 +23,7 @@ import org.duracloud.common.util.UserUtil;
 import org.duracloud.storage.domain.RetrievedContent;
 import org.duracloud.storage.domain.StorageProviderType;
 import org.duracloud.storage.provider.StorageProvider;
+import org.duracloud.storage.util.SpaceChangeTracker;
 
 /**
  * A StorageProvider decorator class which passes through calls from a target
@@ -42,6 +43,7 @@ public class AuditStorageProvider implements StorageProvider {
     private TaskQueue taskQueue;
     private ReadLogger readLogger;
     private WriteLogger writeLogger;
+    private SpaceChangeTracker spaceChangeTracker;
 
     public AuditStorageProvider(StorageProvider target,
                                 String account,
@@ -60,6 +62,13 @@ public class AuditStorageProvider implements StorageProvider {
         this.writeLogger = new WriteLogger();
     }
 
+    /**
+     * @param spaceChangeTracker to be notified of each write to a space
+     */
+    public void setSpaceChangeTracker(SpaceChangeTracker spaceChangeTracker) {
+        this.spaceChangeTracker = spaceChangeTracker;
+    }
+
     /*
      * Intended to be used for testing
      */
@@ -101,6 +110,10 @@ public class AuditStorageProvider implements StorageProvider {
         Task writeTask = task.writeTask();
         taskQueue.put(writeTask);
         writeLogger.log(writeTask);
+
+        if (null != spaceChangeTracker) {
+            spaceChangeTracker.spaceChanged(storeId, spaceId);
+        }
     }
 
     /*
@@ -0,0 +1,38 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.benchmark;
+
+import java.util.Random;
+
+/**
+ * Generates the synthetic data used by the benchmarks. A fixed seed is used
+ * so that each run operates on the same data.
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 20121017L;
+
+    private BenchmarkData() {
+        // Ensures no instances are made of this class
+    }
+
+    static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(SEED).nextBytes(data);
+        return data;
+    }
+
+    static String md5Of(int index) {
+        return String.format("%032x", (long) index * 0x9E3779B97F4A7C15L);
+    }
+
+    static String contentIdOf(int index) {
+        return "dir-" + (index % 100) + "/content-item-" + index + ".dat";
+    }
+
+}
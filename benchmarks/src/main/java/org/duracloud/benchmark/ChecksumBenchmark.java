@@ -0,0 +1,57 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.duracloud.common.util.ChecksumUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures checksum generation over in-memory content of various sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksumBenchmark {
+
+    @Param({"1024", "1048576", "16777216"})
+    private int size;
+
+    @Param({"MD5", "SHA-256"})
+    private String algorithm;
+
+    private byte[] content;
+    private ChecksumUtil checksumUtil;
+
+    @Setup
+    public void setup() {
+        content = BenchmarkData.randomBytes(size);
+        checksumUtil = new ChecksumUtil(ChecksumUtil.Algorithm.fromString(algorithm));
+    }
+
+    @Benchmark
+    public String generateChecksumFromStream() {
+        return checksumUtil.generateChecksum(new ByteArrayInputStream(content));
+    }
+
+}
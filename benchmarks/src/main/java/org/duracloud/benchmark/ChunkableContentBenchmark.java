@@ -0,0 +1,68 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.duracloud.chunk.ChunkableContent;
+import org.duracloud.chunk.manifest.ChunksManifest;
+import org.duracloud.chunk.stream.ChunkInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures splitting content into chunks, reading each chunk fully as the
+ * chunk uploader does, and building the resulting chunks manifest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChunkableContentBenchmark {
+
+    private static final int CONTENT_SIZE = 64 * 1000 * 1000;
+
+    @Param({"1000000", "8000000", "32000000"})
+    private long maxChunkSize;
+
+    private byte[] content;
+
+    @Setup
+    public void setup() {
+        content = BenchmarkData.randomBytes(CONTENT_SIZE);
+    }
+
+    @Benchmark
+    public ChunksManifest iterateChunks() throws IOException {
+        ChunkableContent chunkable =
+            new ChunkableContent("content-id",
+                                 new ByteArrayInputStream(content),
+                                 content.length,
+                                 maxChunkSize);
+        for (ChunkInputStream chunk : chunkable) {
+            IOUtils.copy(chunk, NullOutputStream.INSTANCE);
+        }
+        return chunkable.finalizeManifest();
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.duracloud.common.util.IOUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures copying in-memory content to a stream and to a temporary file,
+ * with and without gzip compression.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IOUtilBenchmark {
+
+    @Param({"1024", "1048576", "16777216"})
+    private int size;
+
+    private byte[] content;
+
+    @Setup
+    public void setup() {
+        content = BenchmarkData.randomBytes(size);
+    }
+
+    @Benchmark
+    public void copy() {
+        IOUtil.copy(new ByteArrayInputStream(content), NullOutputStream.INSTANCE);
+    }
+
+    @Benchmark
+    public long writeStreamToFile() {
+        return writeToFile(false);
+    }
+
+    @Benchmark
+    public long writeStreamToFileGzip() {
+        return writeToFile(true);
+    }
+
+    private long writeToFile(boolean gzip) {
+        File file = IOUtil.writeStreamToFile(new ByteArrayInputStream(content), gzip);
+        long length = file.length();
+        file.delete();
+        return length;
+    }
+
+}
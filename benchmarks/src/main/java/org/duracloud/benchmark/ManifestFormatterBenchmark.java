@@ -0,0 +1,86 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.duracloud.common.constant.ManifestFormat;
+import org.duracloud.manifest.ManifestFormatter;
+import org.duracloud.manifest.impl.ManifestFormatterFactory;
+import org.duracloud.mill.db.model.ManifestItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures writing and parsing manifest items in each manifest format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ManifestFormatterBenchmark {
+
+    private static final int ITEMS = 10000;
+
+    @Param({"TSV", "BAGIT", "EXTENDED_TSV"})
+    private ManifestFormat format;
+
+    private ManifestFormatter formatter;
+    private List<ManifestItem> items;
+    private List<String> lines;
+
+    @Setup
+    public void setup() {
+        formatter = new ManifestFormatterFactory().create(format);
+        items = new ArrayList<>(ITEMS);
+        lines = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            ManifestItem item = new ManifestItem();
+            item.setSpaceId("space-id");
+            item.setContentId(BenchmarkData.contentIdOf(i));
+            item.setContentChecksum(BenchmarkData.md5Of(i));
+            item.setContentSize(String.valueOf(i * 1024L));
+            item.setContentMimetype("application/octet-stream");
+            items.add(item);
+            lines.add(formatter.formatLine(item));
+        }
+    }
+
+    @Benchmark
+    public int writeItems() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(ITEMS * 128);
+        for (ManifestItem item : items) {
+            formatter.writeManifestItemToOutput(item, output);
+        }
+        return output.size();
+    }
+
+    @Benchmark
+    public void parseLines(Blackhole blackhole) throws ParseException {
+        for (String line : lines) {
+            blackhole.consume(formatter.parseLine(line));
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.duracloud.common.error.ManifestVerifyException;
+import org.duracloud.common.util.bulk.ManifestVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the comparison of two matching manifest files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ManifestVerifierBenchmark {
+
+    @Param({"1000", "100000"})
+    private int entries;
+
+    private File manifest0;
+    private File manifest1;
+
+    @Setup
+    public void setup() throws IOException {
+        manifest0 = writeManifest("manifest0-");
+        manifest1 = writeManifest("manifest1-");
+    }
+
+    private File writeManifest(String prefix) throws IOException {
+        File file = File.createTempFile(prefix, ".txt");
+        try (BufferedWriter writer =
+                 Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < entries; i++) {
+                writer.write(BenchmarkData.md5Of(i));
+                writer.write(ManifestVerifier.DELIM);
+                writer.write(BenchmarkData.contentIdOf(i));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    @TearDown
+    public void tearDown() {
+        manifest0.delete();
+        manifest1.delete();
+    }
+
+    @Benchmark
+    public ManifestVerifier verify() throws ManifestVerifyException {
+        ManifestVerifier verifier = new ManifestVerifier(manifest0, manifest1);
+        verifier.verify();
+        return verifier;
+    }
+
+}
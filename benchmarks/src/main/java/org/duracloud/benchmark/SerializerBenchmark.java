@@ -0,0 +1,85 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.duracloud.common.json.JaxbJsonSerializer;
+import org.duracloud.reportdata.storage.StorageReportInfo;
+import org.duracloud.reportdata.storage.serialize.StorageReportInfoSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures serialization and deserialization of a JAXB-annotated object
+ * with the XmlSerializer (with schema validation) and the
+ * JaxbJsonSerializer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializerBenchmark {
+
+    private StorageReportInfoSerializer xmlSerializer;
+    private JaxbJsonSerializer<StorageReportInfo> jsonSerializer;
+    private StorageReportInfo info;
+    private String xml;
+    private String json;
+
+    @Setup
+    public void setup() throws IOException {
+        xmlSerializer = new StorageReportInfoSerializer();
+        jsonSerializer = new JaxbJsonSerializer<>(StorageReportInfo.class);
+
+        info = new StorageReportInfo();
+        info.setStatus("In Progress");
+        info.setStartTime(1350000000000L);
+        info.setCurrentCount(12345);
+        info.setFinalCount(67890);
+        info.setCompletionTime(1350003600000L);
+        info.setEstimatedCompletionTime(1350007200000L);
+        info.setNextScheduledStartTime(1350604800000L);
+        info.setError("none");
+
+        xml = xmlSerializer.serialize(info);
+        json = jsonSerializer.serialize(info);
+    }
+
+    @Benchmark
+    public String serializeXml() {
+        return xmlSerializer.serialize(info);
+    }
+
+    @Benchmark
+    public StorageReportInfo deserializeXml() {
+        return xmlSerializer.deserialize(xml);
+    }
+
+    @Benchmark
+    public String serializeJson() throws IOException {
+        return jsonSerializer.serialize(info);
+    }
+
+    @Benchmark
+    public StorageReportInfo deserializeJson() throws IOException {
+        return jsonSerializer.deserialize(json);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+
+import org.duracloud.client.SpaceListingReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures parsing of the space listing XML returned by DuraStore, as done
+ * by the ContentStoreImpl when listing space contents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpaceListingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int items;
+
+    private byte[] listing;
+
+    @Setup
+    public void setup() {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xml.append("<space id=\"space-id\">\n");
+        for (int i = 0; i < items; i++) {
+            xml.append("  <item>")
+               .append(BenchmarkData.contentIdOf(i))
+               .append("</item>\n");
+        }
+        xml.append("</space>");
+        listing = xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void readContentIds(Blackhole blackhole)
+        throws XMLStreamException, IOException {
+        try (SpaceListingReader reader =
+                 new SpaceListingReader(new ByteArrayInputStream(listing))) {
+            String contentId = reader.nextContentId();
+            while (null != contentId) {
+                blackhole.consume(contentId);
+                contentId = reader.nextContentId();
+            }
+        }
+    }
+
+}
@@ -7,19 +7,32 @@
  */
 package org.duracloud.chunk.writer;
 
+import static org.duracloud.common.util.ChecksumUtil.Algorithm.MD5;
+
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.DigestInputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.duracloud.chunk.ChunkableContent;
 import org.duracloud.chunk.error.ContentNotAddedException;
 import org.duracloud.chunk.error.NotFoundException;
@@ -43,6 +56,11 @@ import org.slf4j.LoggerFactory;
  * content to the Duracloud storeclient interface. Warning: this class is NOT
  * thread-safe.
  *
+ * Chunks are read from the source content one at a time, and are staged in
+ * memory (or in a temp file, if larger than maxBufferedChunkSize) while their
+ * MD5 is computed. Up to maxInFlightChunks chunks are staged and uploaded
+ * concurrently, on threads from a pool shared by all writers.
+ *
  * @author Andrew Woods
  * Date: Feb 5, 2010
  */
@@ -52,8 +70,9 @@ public class DuracloudContentWriter implements ContentWriter {
 
     private ContentStore contentStore;
     private String username;
-    private Set<String> existingSpaces = new HashSet<String>();
-    private List<AddContentResult> results = new ArrayList<AddContentResult>();
+    private Set<String> existingSpaces = ConcurrentHashMap.newKeySet();
+    private List<AddContentResult> results =
+        Collections.synchronizedList(new ArrayList<AddContentResult>());
     private ChecksumUtil checksumUtil = new ChecksumUtil(ChecksumUtil.Algorithm.MD5);
 
     // if true, skip writing results and throw exception when errors occur
@@ -65,9 +84,33 @@ public class DuracloudContentWriter implements ContentWriter {
     private static int DEFAULT_MAX_RETRIES = 4;  //actual attempts will always equal MAX_RETRIES+1
     private static int DEFAULT_WAIT_IN_MS_BETWEEN_RETRIES = 1000;
 
+    private static int DEFAULT_MAX_IN_FLIGHT_CHUNKS = 1;
+    private static long DEFAULT_MAX_BUFFERED_CHUNK_SIZE = 64 * 1000 * 1000; // 64-MB
+
+    // Shared by all writers; the number of threads in use is bounded by the
+    // in-flight limit of each write, and idle threads are discarded
+    private static final ExecutorService UPLOAD_POOL =
+        Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "chunk-upload-" +
+                                                     count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
     private int maxRetries = DEFAULT_MAX_RETRIES;
     private int waitInMsBetweenRetries = DEFAULT_MAX_RETRIES;
 
+    // max number of chunks staged or being uploaded at any one time
+    private int maxInFlightChunks = DEFAULT_MAX_IN_FLIGHT_CHUNKS;
+
+    // chunks larger than this are staged in a temp file rather than in memory
+    private long maxBufferedChunkSize = DEFAULT_MAX_BUFFERED_CHUNK_SIZE;
+
     public DuracloudContentWriter(ContentStore contentStore, String username) {
         this(contentStore,
              username,
@@ -112,6 +155,42 @@ public class DuracloudContentWriter implements ContentWriter {
         return this.maxRetries;
     }
 
+    public int getMaxInFlightChunks() {
+        return maxInFlightChunks;
+    }
+
+    /**
+     * Sets the number of chunks of a single content item which may be
+     * uploaded concurrently. This also caps the number of chunk buffers
+     * (in memory or temp files) held at any one time.
+     *
+     * @param maxInFlightChunks number of concurrent chunk uploads, at least 1
+     */
+    public void setMaxInFlightChunks(int maxInFlightChunks) {
+        if (maxInFlightChunks < 1) {
+            throw new IllegalArgumentException(
+                "Max in-flight chunks must be at least 1: " + maxInFlightChunks);
+        }
+        this.maxInFlightChunks = maxInFlightChunks;
+    }
+
+    public long getMaxBufferedChunkSize() {
+        return maxBufferedChunkSize;
+    }
+
+    /**
+     * @param maxBufferedChunkSize size (in bytes) of the largest chunk which
+     *                             will be staged in memory rather than in a
+     *                             temp file
+     */
+    public void setMaxBufferedChunkSize(long maxBufferedChunkSize) {
+        if (maxBufferedChunkSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                "Max buffered chunk size cannot exceed " + Integer.MAX_VALUE);
+        }
+        this.maxBufferedChunkSize = maxBufferedChunkSize;
+    }
+
     public List<AddContentResult> getResults() {
         return results;
     }
@@ -149,10 +228,50 @@ public class DuracloudContentWriter implements ContentWriter {
         createSpaceIfNotExist(spaceId);
         boolean errorsExist = false;
         results.clear();
-        for (ChunkInputStream chunk : chunkable) {
-            writeChunk(spaceId, chunk);
-            if (errorsExist = errorsExist()) {
-                break;
+
+        Semaphore inFlight = new Semaphore(maxInFlightChunks);
+        List<Future<?>> uploads = new ArrayList<>();
+        List<StagedChunk> stagedChunks = new ArrayList<>();
+        boolean complete = false;
+        try {
+            for (ChunkInputStream chunk : chunkable) {
+                acquire(inFlight);
+                checkUploads(uploads, false);
+                if (errorsExist = errorsExist()) {
+                    inFlight.release();
+                    break;
+                }
+
+                StagedChunk stagedChunk;
+                try {
+                    stagedChunk = stageChunk(chunk);
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+
+                stagedChunks.add(stagedChunk);
+                uploads.add(UPLOAD_POOL.submit(() -> {
+                    try {
+                        writeChunk(spaceId, stagedChunk);
+                    } finally {
+                        stagedChunk.release();
+                        inFlight.release();
+                    }
+                }));
+            }
+            checkUploads(uploads, true);
+            errorsExist = errorsExist();
+            complete = true;
+        } finally {
+            if (!complete) {
+                // Stop the remaining uploads of this content item
+                for (Future<?> upload : uploads) {
+                    upload.cancel(true);
+                }
+                for (StagedChunk stagedChunk : stagedChunks) {
+                    stagedChunk.release();
+                }
             }
         }
 
@@ -182,72 +301,108 @@ public class DuracloudContentWriter implements ContentWriter {
 
     protected boolean errorsExist() {
         boolean containsErrors = false;
-        for (AddContentResult result : this.results) {
-            if (result.getState().equals(AddContentResult.State.ERROR)) {
-                containsErrors = true;
-                break;
+        synchronized (this.results) {
+            for (AddContentResult result : this.results) {
+                if (result.getState().equals(AddContentResult.State.ERROR)) {
+                    containsErrors = true;
+                    break;
+                }
             }
         }
         return containsErrors;
     }
 
-    /*
-     * Writes chunk to DuraCloud if it does not already exist in DuraCloud with a
-     * matching checksum. Retry failed transfers.
-     */
-    private void writeChunk(String spaceId, ChunkInputStream chunk)
-        throws NotFoundException {
-        // Write chunk as a temp file
-        String chunkId = chunk.getChunkId();
-        File chunkFile = IOUtil.writeStreamToFile(chunk);
-
+    private void acquire(Semaphore semaphore) {
         try {
-            String chunkChecksum = getChunkChecksum(chunkFile);
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DuraCloudRuntimeException("Interrupted while writing chunks", e);
+        }
+    }
 
-            // Write chunk if it is not already in storage (or jumpstart is enabled)
-            if (jumpStart || !chunkInStorage(spaceId, chunkId, chunkChecksum)) {
+    /*
+     * Rethrows the failure of any chunk upload. If wait is true, blocks until
+     * all uploads are complete, otherwise only completed uploads are checked.
+     */
+    private void checkUploads(List<Future<?>> uploads, boolean wait) {
+        for (Future<?> upload : uploads) {
+            if (wait || upload.isDone()) {
                 try {
-                    createRetrier().execute(new Retriable() {
-                        private int attempt = 0;
-
-                        @Override
-                        public Object retry() throws Exception {
-                            attempt++;
-                            try (InputStream chunkStream = new FileInputStream(chunkFile)) {
-                                ChunkInputStream chunkFileStream =
-                                    new ChunkInputStream(chunkId,
-                                                         chunkStream,
-                                                         chunkFile.length(),
-                                                         chunk.md5Preserved());
-                                writeSingle(spaceId, chunkChecksum, chunkFileStream, attempt == getMaxRetries() + 1);
-                            }
-                            return "";
-                        }
-                    });
-
-                } catch (Exception e) {
-                    String err = "Failed to store chunk with ID " + chunkId +
-                                 " in space " + spaceId + " after " + getMaxRetries() +
-                                 " attempts. Last error: " + e.getMessage();
-                    throw new DuraCloudRuntimeException(err, e);
+                    upload.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DuraCloudRuntimeException("Interrupted while writing chunks", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new DuraCloudRuntimeException(cause.getMessage(), cause);
                 }
             }
-        } finally {
-            if (null != chunkFile && chunkFile.exists()) {
-                FileUtils.deleteQuietly(chunkFile);
+        }
+    }
+
+    /*
+     * Reads a chunk fully, into memory or into a temp file depending on its
+     * size, computing its checksum along the way.
+     */
+    private StagedChunk stageChunk(ChunkInputStream chunk) {
+        String chunkId = chunk.getChunkId();
+        DigestInputStream digestStream = ChecksumUtil.wrapStream(chunk, MD5);
+        StagedChunk stagedChunk = new StagedChunk(chunkId, chunk.md5Preserved());
+        if (chunk.getChunkSize() <= maxBufferedChunkSize) {
+            byte[] buffer = new byte[(int) chunk.getChunkSize()];
+            try {
+                stagedChunk.setBytes(buffer, IOUtils.read(digestStream, buffer));
+            } catch (IOException e) {
+                throw new DuraCloudRuntimeException("Unable to read chunk " + chunkId +
+                                                    " due to: " + e.getMessage(), e);
             }
+        } else {
+            stagedChunk.setFile(IOUtil.writeStreamToFile(digestStream));
         }
+        stagedChunk.setChecksum(ChecksumUtil.getChecksum(digestStream));
+        return stagedChunk;
     }
 
     /*
-     * Determine the checksum of the chunk file
+     * Writes chunk to DuraCloud if it does not already exist in DuraCloud with a
+     * matching checksum. Retry failed transfers.
      */
-    private String getChunkChecksum(File chunkFile) {
-        try {
-            return checksumUtil.generateChecksum(chunkFile);
-        } catch (IOException e) {
-            throw new DuraCloudRuntimeException("Unable to generate checksum for file " +
-                                                chunkFile + " due to: " + e.getMessage());
+    private void writeChunk(String spaceId, StagedChunk chunk)
+        throws NotFoundException {
+        String chunkId = chunk.getChunkId();
+        String chunkChecksum = chunk.getChecksum();
+
+        // Write chunk if it is not already in storage (or jumpstart is enabled)
+        if (jumpStart || !chunkInStorage(spaceId, chunkId, chunkChecksum)) {
+            try {
+                createRetrier().execute(new Retriable() {
+                    private int attempt = 0;
+
+                    @Override
+                    public Object retry() throws Exception {
+                        attempt++;
+                        try (InputStream chunkStream = chunk.getStream()) {
+                            ChunkInputStream chunkFileStream =
+                                new ChunkInputStream(chunkId,
+                                                     chunkStream,
+                                                     chunk.getSize(),
+                                                     chunk.md5Preserved());
+                            writeSingle(spaceId, chunkChecksum, chunkFileStream, attempt == getMaxRetries() + 1);
+                        }
+                        return "";
+                    }
+                });
+
+            } catch (Exception e) {
+                String err = "Failed to store chunk with ID " + chunkId +
+                             " in space " + spaceId + " after " + getMaxRetries() +
+                             " attempts. Last error: " + e.getMessage();
+                throw new DuraCloudRuntimeException(err, e);
+            }
         }
     }
 
@@ -514,4 +669,65 @@ public class DuracloudContentWriter implements ContentWriter {
         }
     }
 
-}
\ No newline at end of file
+    /*
+     * A chunk which has been read from the source content, held either in
+     * memory or in a temp file until it has been uploaded.
+     */
+    private static class StagedChunk {
+        private final String chunkId;
+        private final boolean md5Preserved;
+        private String checksum;
+        private byte[] bytes;
+        private int length;
+        private File file;
+
+        StagedChunk(String chunkId, boolean md5Preserved) {
+            this.chunkId = chunkId;
+            this.md5Preserved = md5Preserved;
+        }
+
+        String getChunkId() {
+            return chunkId;
+        }
+
+        boolean md5Preserved() {
+            return md5Preserved;
+        }
+
+        String getChecksum() {
+            return checksum;
+        }
+
+        void setChecksum(String checksum) {
+            this.checksum = checksum;
+        }
+
+        void setBytes(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        void setFile(File file) {
+            this.file = file;
+        }
+
+        long getSize() {
+            return null != file ? file.length() : length;
+        }
+
+        synchronized InputStream getStream() throws IOException {
+            if (null != file) {
+                return new FileInputStream(file);
+            }
+            return new ByteArrayInputStream(bytes, 0, length);
+        }
+
+        synchronized void release() {
+            bytes = null;
+            if (null != file && file.exists()) {
+                FileUtils.deleteQuietly(file);
+            }
+        }
+    }
+
+}
@@ -9,7 +9,6 @@ package org.duracloud.chunk.writer;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
@@ -46,6 +45,8 @@ public class DuracloudContentWriterTest {
     private final String checksum = "this-is-a-checksum";
     private String spaceId = "test-spaceId";
     private String contentId = "test-contentId";
+    private int contentSize = 4000;
+    private int maxChunkSize = 1000;
 
     @Before
     public void setUp() throws ContentStoreException {
@@ -105,6 +106,12 @@ public class DuracloudContentWriterTest {
 
     private void updateMockContentStoreContentCheck(boolean chunkExists)
         throws ContentStoreException {
+        updateMockContentStoreContentCheck(chunkExists, false);
+    }
+
+    private void updateMockContentStoreContentCheck(boolean chunkExists,
+                                                    boolean checksumsMatch)
+        throws ContentStoreException {
         if (!chunkExists) {
             EasyMock.expect(contentStore.contentExists(EasyMock.isA(String.class),
                                                        EasyMock.isA(String.class)))
@@ -116,12 +123,30 @@ public class DuracloudContentWriterTest {
                     .andReturn(true)
                     .anyTimes();
 
-            Map<String, String> props = new HashMap<>();
-            props.put(ContentStore.CONTENT_CHECKSUM, checksum);
-            EasyMock.expect(contentStore.getContentProperties(EasyMock.isA(String.class),
-                                                              EasyMock.isA(String.class)))
-                    .andReturn(props)
-                    .anyTimes();
+            if (checksumsMatch) {
+                // Chunks in storage have the checksums of the chunks being written
+                byte[] content = createContent(contentSize);
+                ChecksumUtil checksumUtil = new ChecksumUtil(ChecksumUtil.Algorithm.MD5);
+                for (int i = 0; i < contentSize / maxChunkSize; i++) {
+                    String chunkId = String.format("%s.dura-chunk-%04d", contentId, i + 1);
+                    InputStream chunk =
+                        new ByteArrayInputStream(content, i * maxChunkSize, maxChunkSize);
+                    Map<String, String> props = new HashMap<>();
+                    props.put(ContentStore.CONTENT_CHECKSUM,
+                              checksumUtil.generateChecksum(chunk));
+                    EasyMock.expect(contentStore.getContentProperties(EasyMock.eq(spaceId),
+                                                                      EasyMock.eq(chunkId)))
+                            .andReturn(props)
+                            .anyTimes();
+                }
+            } else {
+                Map<String, String> props = new HashMap<>();
+                props.put(ContentStore.CONTENT_CHECKSUM, checksum);
+                EasyMock.expect(contentStore.getContentProperties(EasyMock.isA(String.class),
+                                                                  EasyMock.isA(String.class)))
+                        .andReturn(props)
+                        .anyTimes();
+            }
         }
     }
 
@@ -198,7 +223,7 @@ public class DuracloudContentWriterTest {
     public void testWrite() throws Exception {
         createMockContentStore(true, true);
         updateMockContentStoreContentCheck(false);
-        doTestWrite(false, false);
+        doTestWrite(false);
     }
 
     /*
@@ -209,7 +234,7 @@ public class DuracloudContentWriterTest {
     public void testWriteJumpstart() throws Exception {
         createMockContentStore(true, true);
         expectDelete(false);
-        doTestWrite(false, true);
+        doTestWrite(true);
     }
 
     private void expectDelete(boolean expect) throws Exception {
@@ -234,7 +259,7 @@ public class DuracloudContentWriterTest {
         expectDelete(false);
         createMockContentStore(true, true);
         updateMockContentStoreContentCheck(true);
-        doTestWrite(false, false);
+        doTestWrite(false);
     }
 
     /*
@@ -245,8 +270,8 @@ public class DuracloudContentWriterTest {
     public void testWriteCorrectChunkExists() throws Exception {
         expectDelete(false);
         createMockContentStore(true, false);
-        updateMockContentStoreContentCheck(true);
-        doTestWrite(true, false);
+        updateMockContentStoreContentCheck(true, true);
+        doTestWrite(false);
     }
 
     /*
@@ -259,7 +284,7 @@ public class DuracloudContentWriterTest {
         expectDelete(true);
         createMockContentStore(true, true);
         updateMockContentStoreContentCheck(false);
-        doTestWrite(true, false);
+        doTestWrite(false);
     }
 
     /*
@@ -270,26 +295,19 @@ public class DuracloudContentWriterTest {
     public void testWriteSpaceNotExist() throws Exception {
         createMockContentStore(false, true);
         updateMockContentStoreContentCheck(false);
-        doTestWrite(false, false);
+        doTestWrite(false);
     }
 
-    private void doTestWrite(boolean validChecksum, boolean jumpStart) throws Exception {
+    private void doTestWrite(boolean jumpStart) throws Exception {
         DuracloudContentWriter writer =
             new DuracloudContentWriter(contentStore, username, false, jumpStart);
-        if (validChecksum) {
-            writer.setChecksumUtil(new ChecksumUtil(ChecksumUtil.Algorithm.MD5) {
-                @Override
-                public String generateChecksum(File file) throws IOException {
-                    return checksum;
-                }
-            });
-        }
+        doTestWrite(writer);
+    }
 
+    private void doTestWrite(DuracloudContentWriter writer) throws Exception {
         replayMocks();
-        long contentSize = 4000;
         InputStream contentStream = createContentStream(contentSize);
 
-        long maxChunkSize = 1000;
         ChunkableContent chunkable = new ChunkableContent(contentId,
                                                           contentStream,
                                                           contentSize,
@@ -299,6 +317,34 @@ public class DuracloudContentWriterTest {
         EasyMock.verify(contentStore);
     }
 
+    /*
+     * Tests a write in which chunks are staged in temp files and
+     * uploaded concurrently
+     */
+    @Test
+    public void testWriteConcurrentChunks() throws Exception {
+        createMockContentStore(true, true);
+        updateMockContentStoreContentCheck(false);
+
+        DuracloudContentWriter writer =
+            new DuracloudContentWriter(contentStore, username, false, false);
+        writer.setMaxInFlightChunks(3);
+        writer.setMaxBufferedChunkSize(500);
+        doTestWrite(writer);
+
+        List<AddContentResult> results = writer.getResults();
+        // 4 chunks and the manifest
+        Assert.assertEquals(5, results.size());
+        for (AddContentResult result : results) {
+            Assert.assertEquals(AddContentResult.State.SUCCESS, result.getState());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxInFlightChunks() {
+        writerError.setMaxInFlightChunks(0);
+    }
+
     @Test
     public void testErrorOnWriteManifest() throws NotFoundException, ContentStoreException {
         int contentSize = 4000;
@@ -423,6 +469,10 @@ public class DuracloudContentWriterTest {
     }
 
     private InputStream createContentStream(long size) {
+        return new ByteArrayInputStream(createContent(size));
+    }
+
+    private byte[] createContent(long size) {
         Assert.assertTrue("let's keep it reasonable", size < 10001);
 
         ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -434,7 +484,7 @@ public class DuracloudContentWriterTest {
             }
         }
 
-        return new ByteArrayInputStream(out.toByteArray());
+        return out.toByteArray();
     }
 
     @Test
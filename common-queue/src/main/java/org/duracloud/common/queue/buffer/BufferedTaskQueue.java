@@ -0,0 +1,456 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.common.queue.buffer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.duracloud.common.queue.TaskException;
+import org.duracloud.common.queue.TaskNotFoundException;
+import org.duracloud.common.queue.TaskQueue;
+import org.duracloud.common.queue.TimeoutException;
+import org.duracloud.common.queue.task.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A TaskQueue decorator which makes put() calls asynchronous. Tasks are
+ * placed in a bounded in-memory buffer and a background thread moves them
+ * onto the wrapped queue using batch puts. A flush occurs when the buffer
+ * reaches the flush batch size or when the flush interval has passed,
+ * whichever comes first.
+ *
+ * Tasks which cannot be written to the wrapped queue (or which arrive while
+ * the buffer is full) are appended to a local spill file, one task per line.
+ * Spilled tasks are replayed onto the wrapped queue ahead of newly buffered
+ * tasks on each flush, so tasks survive an outage of the underlying queue.
+ * A spill file must be used by only one BufferedTaskQueue, as replaying
+ * removes the file.
+ *
+ * All calls other than put() are passed directly to the wrapped queue.
+ */
+public class BufferedTaskQueue implements TaskQueue {
+
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 10000;
+    public static final int DEFAULT_FLUSH_BATCH_SIZE = 100;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+
+    private static final String ENCODING = StandardCharsets.UTF_8.name();
+
+    // Number of tasks in each put to the wrapped queue. This matches the
+    // largest batch SQS accepts in a single request, so that a failed put
+    // leaves no tasks of that put on the queue, and only the tasks which
+    // were not written are spilled.
+    private static final int MAX_PUT_SIZE = 10;
+
+    private Logger log = LoggerFactory.getLogger(BufferedTaskQueue.class);
+
+    private final TaskQueue targetQueue;
+    private final BlockingQueue<Task> buffer;
+    private final int flushBatchSize;
+    private final long flushIntervalMs;
+    private final File spillFile;
+
+    private final Object flushSignal = new Object();
+    private final Object spillLock = new Object();
+    private final Thread flusher;
+    private final Thread shutdownHook;
+    private volatile boolean shutdown = false;
+
+    /**
+     * Creates a buffered queue using default buffer size, batch size, and
+     * flush interval.
+     *
+     * @param targetQueue the queue to which tasks are ultimately written
+     * @param spillFile   file used to hold tasks which cannot be written to
+     *                    the target queue
+     */
+    public BufferedTaskQueue(TaskQueue targetQueue, File spillFile) {
+        this(targetQueue,
+             spillFile,
+             DEFAULT_MAX_BUFFER_SIZE,
+             DEFAULT_FLUSH_BATCH_SIZE,
+             DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * @param targetQueue     the queue to which tasks are ultimately written
+     * @param spillFile       file used to hold tasks which cannot be written
+     *                        to the target queue
+     * @param maxBufferSize   maximum number of tasks held in memory
+     * @param flushBatchSize  number of buffered tasks which triggers a flush,
+     *                        also the maximum size of each batch put
+     * @param flushIntervalMs maximum time (in ms) a task waits in the buffer
+     *                        before a flush occurs
+     */
+    public BufferedTaskQueue(TaskQueue targetQueue,
+                             File spillFile,
+                             int maxBufferSize,
+                             int flushBatchSize,
+                             long flushIntervalMs) {
+        if (maxBufferSize < 1 || flushBatchSize < 1 || flushIntervalMs < 1) {
+            throw new IllegalArgumentException(
+                "Buffer size, batch size, and flush interval must be " +
+                "greater than 0");
+        }
+        this.targetQueue = targetQueue;
+        this.spillFile = spillFile;
+        this.buffer = new LinkedBlockingQueue<>(maxBufferSize);
+        this.flushBatchSize = flushBatchSize;
+        this.flushIntervalMs = flushIntervalMs;
+
+        this.flusher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runFlusher();
+            }
+        }, "buffered-task-queue-" + targetQueue.getName());
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+
+        // Ensure buffered tasks are not lost when the JVM exits
+        this.shutdownHook = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                stopFlusher();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+    }
+
+    @Override
+    public String getName() {
+        return targetQueue.getName();
+    }
+
+    /**
+     * Adds a task to the buffer. If the buffer is full, the task is written
+     * to the spill file rather than blocking the caller. Once this queue has
+     * been shut down, tasks are written directly to the wrapped queue.
+     *
+     * @param task
+     */
+    @Override
+    public void put(Task task) {
+        if (shutdown) {
+            targetQueue.put(task);
+            return;
+        }
+
+        if (!buffer.offer(task)) {
+            log.warn("Buffer for queue {} is full, spilling task to {}",
+                     getName(), spillFile);
+            spill(Collections.singletonList(task));
+        }
+
+        if (shutdown) {
+            // Shut down while adding, the flusher may no longer be running
+            flush();
+        } else if (buffer.size() >= flushBatchSize) {
+            synchronized (flushSignal) {
+                flushSignal.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void put(Task... tasks) {
+        put(Arrays.asList(tasks));
+    }
+
+    @Override
+    public void put(Set<Task> tasks) {
+        put((Collection<Task>) tasks);
+    }
+
+    private void put(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            put(task);
+        }
+    }
+
+    private void runFlusher() {
+        while (!shutdown) {
+            try {
+                synchronized (flushSignal) {
+                    if (!shutdown && buffer.size() < flushBatchSize) {
+                        flushSignal.wait(flushIntervalMs);
+                    }
+                }
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Unexpected error flushing tasks to queue " +
+                          getName() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Writes all spilled and buffered tasks to the wrapped queue. Tasks
+     * which cannot be written are added to the spill file.
+     */
+    public synchronized void flush() {
+        boolean queueAvailable = replaySpilledTasks();
+
+        List<Task> batch = new ArrayList<>(flushBatchSize);
+        while (buffer.drainTo(batch, flushBatchSize) > 0) {
+            if (queueAvailable) {
+                // On failure, writeBatch spills the unwritten tasks
+                queueAvailable = writeBatch(batch);
+            } else {
+                spill(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes a list of tasks to the wrapped queue using batch puts of at
+     * most MAX_PUT_SIZE tasks. If a put fails, the tasks of that put and of
+     * all following puts are spilled.
+     *
+     * @return true if all tasks were written, false otherwise
+     */
+    private boolean writeBatch(List<Task> tasks) {
+        // Tasks with identical contents would collapse in a Set, so they
+        // are split into separate batches to ensure all are written
+        List<Task> remaining = new ArrayList<>(tasks);
+        while (!remaining.isEmpty()) {
+            Set<Task> taskSet = new LinkedHashSet<>();
+            int i = 0;
+            while (i < remaining.size() && taskSet.size() < MAX_PUT_SIZE &&
+                   taskSet.add(remaining.get(i))) {
+                i++;
+            }
+
+            try {
+                targetQueue.put(taskSet);
+            } catch (Exception e) {
+                log.error("Unable to write " + remaining.size() +
+                          " tasks to queue " + getName() + ", spilling to " +
+                          spillFile + " due to: " + e.getMessage(), e);
+                spill(remaining);
+                return false;
+            }
+            remaining = remaining.subList(i, remaining.size());
+        }
+        return true;
+    }
+
+    /**
+     * Moves tasks from the spill file onto the wrapped queue.
+     *
+     * @return true if the spill file is now empty, false otherwise
+     */
+    private boolean replaySpilledTasks() {
+        List<Task> spilled;
+        synchronized (spillLock) {
+            if (!spillFile.exists()) {
+                return true;
+            }
+            spilled = readSpillFile();
+            if (!spillFile.delete()) {
+                log.error("Unable to remove spill file {}", spillFile);
+                return false;
+            }
+        }
+
+        if (!spilled.isEmpty()) {
+            log.info("Replaying {} spilled tasks onto queue {}",
+                     spilled.size(), getName());
+        }
+
+        for (int i = 0; i < spilled.size(); i += flushBatchSize) {
+            List<Task> batch =
+                spilled.subList(i, Math.min(i + flushBatchSize, spilled.size()));
+            if (!writeBatch(batch)) {
+                // The failed batch has been re-spilled, keep the rest as well
+                spill(spilled.subList(i + batch.size(), spilled.size()));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Task> readSpillFile() {
+        List<Task> tasks = new ArrayList<>();
+        try (BufferedReader reader =
+                 Files.newBufferedReader(spillFile.toPath(),
+                                         StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    tasks.add(decodeTask(line));
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error reading spill file " + spillFile + ": " +
+                      e.getMessage(), e);
+        }
+        return tasks;
+    }
+
+    private void spill(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        synchronized (spillLock) {
+            try (BufferedWriter writer =
+                     Files.newBufferedWriter(spillFile.toPath(),
+                                             StandardCharsets.UTF_8,
+                                             StandardOpenOption.CREATE,
+                                             StandardOpenOption.APPEND)) {
+                for (Task task : tasks) {
+                    writer.write(encodeTask(task));
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                log.error("Unable to spill " + tasks.size() + " tasks to " +
+                          spillFile + ", tasks lost: " + tasks, e);
+            }
+        }
+    }
+
+    /**
+     * Encodes a task as a single line of URL-encoded key=value pairs.
+     */
+    protected static String encodeTask(Task task) {
+        try {
+            StringBuilder line = new StringBuilder();
+            line.append(Task.KEY_TYPE).append("=")
+                .append(URLEncoder.encode(task.getType().name(), ENCODING));
+            for (Map.Entry<String, String> prop :
+                task.getProperties().entrySet()) {
+                line.append("&")
+                    .append(URLEncoder.encode(prop.getKey(), ENCODING))
+                    .append("=")
+                    .append(URLEncoder.encode(prop.getValue(), ENCODING));
+            }
+            return line.toString();
+        } catch (UnsupportedEncodingException e) {
+            throw new TaskException("Unable to encode task " + task, e);
+        }
+    }
+
+    protected static Task decodeTask(String line) {
+        try {
+            Task task = new Task();
+            for (String pair : line.split("&")) {
+                int split = pair.indexOf('=');
+                String key = URLDecoder.decode(pair.substring(0, split), ENCODING);
+                String value = URLDecoder.decode(pair.substring(split + 1), ENCODING);
+                if (Task.KEY_TYPE.equals(key)) {
+                    task.setType(Task.Type.valueOf(value));
+                } else {
+                    task.addProperty(key, value);
+                }
+            }
+            return task;
+        } catch (UnsupportedEncodingException e) {
+            throw new TaskException("Unable to decode task " + line, e);
+        }
+    }
+
+    /**
+     * Stops the background flusher and writes all remaining buffered tasks
+     * to the wrapped queue (or to the spill file, if the queue is not
+     * available).
+     */
+    public void shutdown() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // JVM is already shutting down, the hook handles the flush
+        }
+        stopFlusher();
+    }
+
+    private void stopFlusher() {
+        shutdown = true;
+        synchronized (flushSignal) {
+            flushSignal.notifyAll();
+        }
+        try {
+            flusher.join(flushIntervalMs * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * @return the number of tasks currently held in memory
+     */
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    @Override
+    public Task take() throws TimeoutException {
+        return targetQueue.take();
+    }
+
+    @Override
+    public Set<Task> take(int maxTasks) throws TimeoutException {
+        return targetQueue.take(maxTasks);
+    }
+
+    @Override
+    public void extendVisibilityTimeout(Task task)
+        throws TaskNotFoundException {
+        targetQueue.extendVisibilityTimeout(task);
+    }
+
+    @Override
+    public void deleteTask(Task task) throws TaskNotFoundException {
+        targetQueue.deleteTask(task);
+    }
+
+    @Override
+    public void deleteTasks(Set<Task> tasks) throws TaskException {
+        targetQueue.deleteTasks(tasks);
+    }
+
+    @Override
+    public Integer size() {
+        return targetQueue.size();
+    }
+
+    @Override
+    public Integer sizeIncludingInvisibleAndDelayed() {
+        return targetQueue.sizeIncludingInvisibleAndDelayed();
+    }
+
+    @Override
+    public void requeue(Task task) {
+        targetQueue.requeue(task);
+    }
+
+}
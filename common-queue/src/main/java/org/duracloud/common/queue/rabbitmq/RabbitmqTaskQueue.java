@@ -10,16 +10,25 @@ package org.duracloud.common.queue.rabbitmq;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.ConnectionFactory;
+import com.rabbitmq.client.DefaultConsumer;
 import com.rabbitmq.client.Envelope;
-import com.rabbitmq.client.GetResponse;
+import com.rabbitmq.client.ShutdownSignalException;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.duracloud.common.error.DuraCloudRuntimeException;
 import org.duracloud.common.queue.TaskException;
@@ -36,19 +45,35 @@ import org.slf4j.LoggerFactory;
  * RabbitMQ implementation of the TaskQueue
  * emulates the functionality of a queue.
  *
+ * Tasks are received through a consumer which the broker pushes messages to,
+ * up to the prefetch count of unacknowledged messages at a time, rather than
+ * by polling the queue on each take. Batch puts are published with publisher
+ * confirms, waiting once per batch.
+ *
  * @author Shibo Liu
  * Date: 07/03/19
  */
 public class RabbitmqTaskQueue implements TaskQueue {
     private static Logger log = LoggerFactory.getLogger(RabbitmqTaskQueue.class);
 
+    public static final int DEFAULT_PREFETCH_COUNT = 10;
+    protected static final int CONFIRM_BATCH_SIZE = 100;
+    private static final long CONFIRM_TIMEOUT_MS = 30000;
+    private static final long TAKE_WAIT_MS = 1000;
+
     private Channel mqChannel;
     private String queueName;
     private Integer visibilityTimeout = -1;  // No such thing in RabbitmQ
-    private Integer unAcknowlededMesageCount = 0;
+    private AtomicInteger unAcknowlededMesageCount = new AtomicInteger(0);
     private String queueUrl;
     private String exchangeName;
 
+    private int prefetchCount = DEFAULT_PREFETCH_COUNT;
+    private String consumerTag;
+    private BlockingQueue<Task> deliveries = new LinkedBlockingQueue<>();
+    private final Object publishLock = new Object();
+    private boolean confirmsEnabled = false;
+
     public enum MsgProp {
         DELIVERY_TAG, ROUTING_KEY, EXCHANGE
     }
@@ -93,6 +118,20 @@ public class RabbitmqTaskQueue implements TaskQueue {
         }
     }
 
+    /**
+     * Sets the maximum number of unacknowledged messages the broker will
+     * deliver to this queue's consumer. Takes effect when the consumer is
+     * started by the first take.
+     *
+     * @param prefetchCount must be greater than 0
+     */
+    public void setPrefetchCount(int prefetchCount) {
+        if (prefetchCount < 1) {
+            throw new IllegalArgumentException("prefetchCount must be greater than 0");
+        }
+        this.prefetchCount = prefetchCount;
+    }
+
     @Override
     public String getName() {
         return this.queueName;
@@ -157,11 +196,13 @@ public class RabbitmqTaskQueue implements TaskQueue {
             new Retrier(4, 10000, 2).execute(new Retriable() {
                 @Override
                 public Object retry() throws Exception {
-                    mqChannel.basicPublish(exchangeName, queueName, null, messageBodyBytes);
+                    synchronized (publishLock) {
+                        mqChannel.basicPublish(exchangeName, queueName, null, messageBodyBytes);
+                    }
                     return null;
                 }
             });
-            unAcknowlededMesageCount++;
+            unAcknowlededMesageCount.incrementAndGet();
             log.info("RabbitMQ message successfully placed {} on queue - queue: {}",
                      task, queueName);
 
@@ -172,88 +213,182 @@ public class RabbitmqTaskQueue implements TaskQueue {
     }
 
     /**
-     * Convenience method that calls put(Set<Task>)
+     * Publishes each of the given tasks, in the same way as put(Set<Task>)
      *
      * @param tasks
      */
     @Override
     public void put(Task... tasks) {
-        for (Task task : tasks) {
-            this.put(task);
-        }
+        publishTasks(Arrays.asList(tasks));
     }
 
+    /**
+     * Publishes the tasks in batches of up to CONFIRM_BATCH_SIZE, waiting for
+     * the broker to confirm each batch as a whole rather than each message.
+     * A batch which is nacked, or not confirmed within the timeout, is
+     * published again on the same channel, so a task may be delivered more
+     * than once.
+     *
+     * @param tasks
+     */
     @Override
     public void put(Set<Task> tasks) {
+        publishTasks(tasks);
+    }
+
+    private void publishTasks(Collection<Task> tasks) {
+        List<byte[]> batch = new ArrayList<>();
         for (Task task : tasks) {
-            this.put(task);
+            batch.add(unmarshallTask(task).getBytes());
+            if (batch.size() >= CONFIRM_BATCH_SIZE) {
+                publishBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            publishBatch(batch);
         }
     }
 
-    @Override
-    public Set<Task> take(int maxTasks) throws TimeoutException {
-        Integer size = size();
-        if (size > 0) {
-            if (size < maxTasks) {
-                size = maxTasks;
-            }
-            Set<Task> tasks = new HashSet<>();
-            try {
-                for (int i = 0; i < size; i++) {
-                    Task task = take();
-                    tasks.add(task);
-                }
-                return tasks;
-            } catch (Exception e) {
-                for (Task task : tasks) {
-                    requeue(task);
+    private void publishBatch(final List<byte[]> batch) {
+        try {
+            new Retrier(4, 10000, 2).execute(new Retriable() {
+                @Override
+                public Object retry() throws Exception {
+                    synchronized (publishLock) {
+                        if (!confirmsEnabled) {
+                            mqChannel.confirmSelect();
+                            confirmsEnabled = true;
+                        }
+                        for (byte[] messageBodyBytes : batch) {
+                            mqChannel.basicPublish(exchangeName, queueName, null, messageBodyBytes);
+                        }
+                        // Unlike waitForConfirmsOrDie(), leaves the channel
+                        // open so that the batch can be published again
+                        if (!mqChannel.waitForConfirms(CONFIRM_TIMEOUT_MS)) {
+                            throw new IOException("Batch of " + batch.size() +
+                                                  " messages was nacked by the broker");
+                        }
+                    }
+                    return null;
                 }
-                throw new TimeoutException("Failed to get at least one message from queue: " +
-                                           queueName + ", queueUrl: " + queueUrl);
-            }
-        } else {
-            throw new TimeoutException("No tasks available from queue: " +
-                                       queueName + ", queueUrl: " + queueUrl);
+            });
+            unAcknowlededMesageCount.addAndGet(batch.size());
+            log.info("RabbitMQ batch of {} messages successfully placed on queue - queue: {}",
+                     batch.size(), queueName);
+        } catch (Exception ex) {
+            log.error("failed to place batch of {} tasks on {} at {} due to {}",
+                      batch.size(), queueName, queueUrl, ex.getMessage());
+            throw new DuraCloudRuntimeException(ex);
         }
     }
 
+    /**
+     * Takes up to maxTasks tasks. Waits for the first task to arrive, then
+     * includes any further tasks which have already been delivered to this
+     * consumer, without waiting for more.
+     *
+     * @param maxTasks the maximum number of tasks to return
+     */
+    @Override
+    public Set<Task> take(int maxTasks) throws TimeoutException {
+        Set<Task> tasks = new HashSet<>();
+        tasks.add(take());
+        List<Task> delivered = new ArrayList<>();
+        deliveries.drainTo(delivered, maxTasks - 1);
+        tasks.addAll(delivered);
+        return tasks;
+    }
+
     @Override
     public Task take() throws TimeoutException {
-        Integer size = size();
-        if (size > 0) {
-            try {
-                GetResponse response = mqChannel.basicGet(queueName, false);
-                if (response == null) {
-                    throw new TimeoutException("No tasks available from queue: " +
-                                               queueName + ", queueUrl: " + queueUrl);
-                } else {
-                    AMQP.BasicProperties properties = response.getProps();
-                    Envelope envelope = response.getEnvelope();
-                    byte[] body = response.getBody();
-                    String routingKey = envelope.getRoutingKey();
-                    String exchange = envelope.getExchange();
-                    long deliveryTag = envelope.getDeliveryTag();
-                    Long sentTime = properties.getTimestamp().getTime();
-                    Long preworkQueueTime = System.currentTimeMillis() - sentTime;
-                    log.info(
-                        "RabbitMQ message received - queue: {}, queueUrl: {}, deliveryTag: {}, preworkQueueTime: {}"
-                        , queueName, queueUrl, deliveryTag
-                        , DurationFormatUtils.formatDuration(preworkQueueTime, "HH:mm:ss,SSS"));
-                    Task task = marshallTask(body, deliveryTag, routingKey, exchange);
-                    task.setVisibilityTimeout(visibilityTimeout);
-                    return task;
-                }
-            } catch (Exception ex) {
-                log.error("failed to take task from " + queueName + " due to " + ex.getMessage(), ex);
-                throw new TimeoutException("No tasks available from queue: " +
-                                           queueName + ", queueUrl: " + queueUrl);
-            }
-        } else {
+        Task task = null;
+        try {
+            startConsumer();
+            task = deliveries.poll(TAKE_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            log.error("failed to take task from " + queueName + " due to " + ex.getMessage(), ex);
+        }
+
+        if (null == task) {
             throw new TimeoutException("No tasks available from queue: " +
                                        queueName + ", queueUrl: " + queueUrl);
         }
+        return task;
     }
 
+    /**
+     * Starts consuming from the queue, if not already started. The broker
+     * pushes up to prefetchCount unacknowledged messages to this consumer,
+     * which are held until taken.
+     */
+    private synchronized void startConsumer() throws IOException {
+        if (null != consumerTag) {
+            return;
+        }
+
+        mqChannel.basicQos(prefetchCount);
+        consumerTag = mqChannel.basicConsume(queueName, false, new DefaultConsumer(mqChannel) {
+            @Override
+            public void handleDelivery(String consumerTag,
+                                       Envelope envelope,
+                                       AMQP.BasicProperties properties,
+                                       byte[] body) throws IOException {
+                handleMessage(envelope, properties, body);
+            }
+
+            @Override
+            public void handleCancel(String consumerTag) {
+                log.warn("RabbitMQ consumer cancelled by the broker - queue: {}", queueName);
+                consumerStopped();
+            }
+
+            @Override
+            public void handleShutdownSignal(String consumerTag,
+                                             ShutdownSignalException sig) {
+                log.warn("RabbitMQ consumer shut down - queue: {}, reason: {}",
+                         queueName, sig.getMessage());
+                consumerStopped();
+            }
+        });
+        log.info("RabbitMQ consumer started - queue: {}, queueUrl: {}, prefetch: {}",
+                 queueName, queueUrl, prefetchCount);
+    }
+
+    /*
+     * Delivery tags are only valid for the consumer which received them, so
+     * held messages are dropped; the broker redelivers them.
+     */
+    private synchronized void consumerStopped() {
+        consumerTag = null;
+        deliveries.clear();
+    }
+
+    private void handleMessage(Envelope envelope,
+                               AMQP.BasicProperties properties,
+                               byte[] body) throws IOException {
+        long deliveryTag = envelope.getDeliveryTag();
+        Task task = marshallTask(body, deliveryTag, envelope.getRoutingKey(), envelope.getExchange());
+        if (null == task) {
+            // Message can never be processed, do not requeue it
+            mqChannel.basicReject(deliveryTag, false);
+            return;
+        }
+
+        if (null != properties && null != properties.getTimestamp()) {
+            long preworkQueueTime = System.currentTimeMillis() - properties.getTimestamp().getTime();
+            log.info("RabbitMQ message received - queue: {}, queueUrl: {}, deliveryTag: {}, preworkQueueTime: {}"
+                , queueName, queueUrl, deliveryTag
+                , DurationFormatUtils.formatDuration(preworkQueueTime, "HH:mm:ss,SSS"));
+        } else {
+            log.info("RabbitMQ message received - queue: {}, queueUrl: {}, deliveryTag: {}",
+                     queueName, queueUrl, deliveryTag);
+        }
+        task.setVisibilityTimeout(visibilityTimeout);
+        deliveries.add(task);
+    }
 
     /**
      * RabbitMQ does not have this feature, messages would not be visible until rejected and requeued
@@ -267,7 +402,7 @@ public class RabbitmqTaskQueue implements TaskQueue {
         try {
             mqChannel.basicAck(Long.parseLong(task.getProperty(MsgProp.DELIVERY_TAG.name())), false);
             log.info("successfully deleted {}", task);
-            unAcknowlededMesageCount--;
+            unAcknowlededMesageCount.decrementAndGet();
 
         } catch (Exception e) {
             log.error("failed to delete task " + task + ": " + e.getMessage(), e);
@@ -303,7 +438,7 @@ public class RabbitmqTaskQueue implements TaskQueue {
         task.incrementAttempts();
         try {
             mqChannel.basicReject(Long.parseLong(task.getProperty(MsgProp.DELIVERY_TAG.name())), true);
-            unAcknowlededMesageCount--;
+            unAcknowlededMesageCount.decrementAndGet();
         } catch (Exception e) {
             log.error("unable to reject message {}, re-put message instead ", task);
             put(task);
@@ -313,20 +448,25 @@ public class RabbitmqTaskQueue implements TaskQueue {
 
     }
 
+    /**
+     * @return the number of messages ready on the broker plus those delivered
+     * to this consumer but not yet taken
+     */
     @Override
     public Integer size() {
+        int delivered = deliveries.size();
         try {
             Long sizeLong = mqChannel.messageCount(queueName);
-            return sizeLong.intValue();
+            return sizeLong.intValue() + delivered;
         } catch (Exception e) {
-            return 0;
+            return delivered;
         }
     }
 
     @Override
     public Integer sizeIncludingInvisibleAndDelayed() {
 
-        return size() + unAcknowlededMesageCount;
+        return size() + unAcknowlededMesageCount.get();
     }
 
     private Integer getVisibilityTimeout() {
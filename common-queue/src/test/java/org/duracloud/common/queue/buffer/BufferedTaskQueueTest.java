@@ -0,0 +1,208 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.common.queue.buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Set;
+
+import org.duracloud.common.error.DuraCloudRuntimeException;
+import org.duracloud.common.queue.local.LocalTaskQueue;
+import org.duracloud.common.queue.task.Task;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the BufferedTaskQueue
+ */
+public class BufferedTaskQueueTest {
+
+    private static final long LONG_INTERVAL = 60000;
+
+    private File spillFile;
+    private BufferedTaskQueue queue;
+
+    @Before
+    public void setup() throws Exception {
+        spillFile = File.createTempFile("buffered-task-queue", ".spill");
+        spillFile.delete();
+    }
+
+    @After
+    public void tearDown() {
+        if (null != queue) {
+            queue.shutdown();
+        }
+        spillFile.delete();
+    }
+
+    private Task createTask(String id) {
+        Task task = new Task();
+        task.setType(Task.Type.AUDIT);
+        task.addProperty("id", id);
+        task.addProperty("value", "a=b&c d\u00e9\nline");
+        return task;
+    }
+
+    @Test
+    public void testPutIsBuffered() throws Exception {
+        LocalTaskQueue target = new LocalTaskQueue();
+        queue = new BufferedTaskQueue(target, spillFile, 100, 10, LONG_INTERVAL);
+
+        queue.put(createTask("1"));
+        queue.put(createTask("2"));
+        assertEquals(2, queue.getBufferedCount());
+        assertEquals(0, target.size().intValue());
+
+        queue.flush();
+        assertEquals(0, queue.getBufferedCount());
+        assertEquals(2, target.size().intValue());
+        assertEquals(createTask("1"), target.take());
+    }
+
+    @Test
+    public void testFlushOnBatchSize() throws Exception {
+        LocalTaskQueue target = new LocalTaskQueue();
+        queue = new BufferedTaskQueue(target, spillFile, 100, 3, LONG_INTERVAL);
+
+        for (int i = 0; i < 3; i++) {
+            queue.put(createTask(String.valueOf(i)));
+        }
+        waitForSize(target, 3);
+    }
+
+    @Test
+    public void testFlushOnInterval() throws Exception {
+        LocalTaskQueue target = new LocalTaskQueue();
+        queue = new BufferedTaskQueue(target, spillFile, 100, 100, 50);
+
+        queue.put(createTask("1"));
+        waitForSize(target, 1);
+    }
+
+    @Test
+    public void testDuplicateTasksRetained() throws Exception {
+        LocalTaskQueue target = new LocalTaskQueue();
+        queue = new BufferedTaskQueue(target, spillFile, 100, 10, LONG_INTERVAL);
+
+        queue.put(createTask("1"), createTask("1"));
+        queue.put(createTask("1"));
+        queue.flush();
+        assertEquals(3, target.size().intValue());
+    }
+
+    @Test
+    public void testSpillAndReplay() throws Exception {
+        FailingTaskQueue target = new FailingTaskQueue();
+        queue = new BufferedTaskQueue(target, spillFile, 100, 10, LONG_INTERVAL);
+
+        target.failing = true;
+        queue.put(createTask("1"));
+        queue.put(createTask("2"));
+        queue.flush();
+        assertEquals(0, target.size().intValue());
+        assertTrue(spillFile.exists());
+
+        target.failing = false;
+        queue.put(createTask("3"));
+        queue.flush();
+        assertFalse(spillFile.exists());
+        assertEquals(3, target.size().intValue());
+
+        // Spilled tasks are written ahead of buffered tasks
+        assertEquals(createTask("1"), target.take());
+        assertEquals(createTask("2"), target.take());
+        assertEquals(createTask("3"), target.take());
+    }
+
+    @Test
+    public void testPartialFailureSpillsUnwrittenTasks() throws Exception {
+        FailingTaskQueue target = new FailingTaskQueue();
+        queue = new BufferedTaskQueue(target, spillFile, 100, 100, LONG_INTERVAL);
+
+        for (int i = 0; i < 25; i++) {
+            queue.put(createTask(String.valueOf(i)));
+        }
+
+        // The first put succeeds, the second fails
+        target.successfulPuts = 1;
+        target.failing = true;
+        queue.flush();
+        int written = target.size();
+        assertTrue(written > 0 && written < 25);
+
+        // Only the tasks which were not written are replayed
+        target.failing = false;
+        queue.flush();
+        assertFalse(spillFile.exists());
+        assertEquals(25, target.size().intValue());
+    }
+
+    @Test
+    public void testSpillWhenBufferFull() throws Exception {
+        LocalTaskQueue target = new LocalTaskQueue();
+        queue = new BufferedTaskQueue(target, spillFile, 1, 10, LONG_INTERVAL);
+
+        queue.put(createTask("1"));
+        queue.put(createTask("2"));
+        assertEquals(1, queue.getBufferedCount());
+        assertTrue(spillFile.exists());
+
+        queue.flush();
+        assertEquals(2, target.size().intValue());
+        assertFalse(spillFile.exists());
+    }
+
+    @Test
+    public void testShutdownFlushes() throws Exception {
+        LocalTaskQueue target = new LocalTaskQueue();
+        queue = new BufferedTaskQueue(target, spillFile, 100, 10, LONG_INTERVAL);
+
+        queue.put(createTask("1"));
+        queue.shutdown();
+        assertEquals(1, target.size().intValue());
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        Task task = createTask("1");
+        assertEquals(task, BufferedTaskQueue.decodeTask(
+            BufferedTaskQueue.encodeTask(task)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBatchSize() {
+        new BufferedTaskQueue(new LocalTaskQueue(), spillFile, 10, 0, 10);
+    }
+
+    private void waitForSize(LocalTaskQueue target, int size)
+        throws InterruptedException {
+        for (int i = 0; i < 100 && target.size() < size; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(size, target.size().intValue());
+    }
+
+    private static class FailingTaskQueue extends LocalTaskQueue {
+        private volatile boolean failing = false;
+        private volatile int successfulPuts = 0;
+
+        @Override
+        public synchronized void put(Set<Task> tasks) {
+            if (failing && successfulPuts-- <= 0) {
+                throw new DuraCloudRuntimeException("queue unavailable");
+            }
+            super.put(tasks);
+        }
+    }
+
+}
@@ -7,7 +7,10 @@
  */
 package org.duracloud.common.queue.rabbitmq;
 
+import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.hamcrest.core.Is.is;
@@ -21,9 +24,13 @@ import java.util.Set;
 
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.Consumer;
+import com.rabbitmq.client.Envelope;
 import com.rabbitmq.client.impl.AMQImpl;
+import org.duracloud.common.queue.TimeoutException;
 import org.duracloud.common.queue.task.Task;
 import org.duracloud.common.queue.task.Task.Type;
+import org.easymock.Capture;
 import org.easymock.EasyMockRunner;
 import org.easymock.EasyMockSupport;
 import org.junit.After;
@@ -50,6 +57,13 @@ public class RabbitmqTaskQueueTest extends EasyMockSupport {
     }
 
     private void setupRabbitmqClient() throws IOException {
+        setupConnection();
+        channel.basicPublish(anyObject(String.class), anyObject(String.class),
+                             anyObject(null), anyObject(byte[].class));
+        expectLastCall().anyTimes();
+    }
+
+    private void setupConnection() throws IOException {
         connection = createMock("Connection", Connection.class);
         channel = createMock("Channel", Channel.class);
         InetAddress address = InetAddress.getByName("127.0.0.1");
@@ -57,9 +71,6 @@ public class RabbitmqTaskQueueTest extends EasyMockSupport {
         expect(connection.createChannel()).andReturn(channel);
         expect(channel.queueBind(queueName, exchange, queueName)).andReturn(new AMQImpl.Queue.BindOk());
         expect(connection.getAddress()).andReturn(address);
-        channel.basicPublish(anyObject(String.class), anyObject(String.class),
-                             anyObject(null), anyObject(byte[].class));
-        expectLastCall().anyTimes();
     }
 
     @After
@@ -131,15 +142,78 @@ public class RabbitmqTaskQueueTest extends EasyMockSupport {
     }
 
     @Test
-    public void testPutMuliple() throws IOException {
+    public void testPutMuliple() throws Exception {
         setupRabbitmqClient();
+        // Confirm mode is selected once, confirms are awaited once per batch
+        expect(channel.confirmSelect()).andReturn(new AMQImpl.Confirm.SelectOk());
+        expect(channel.waitForConfirms(anyLong())).andReturn(true).times(3);
         replayAll();
         createSubject();
         Set<Task> tasks = new HashSet<>();
         long time = System.currentTimeMillis();
-        for (int i = 0; i < 11; i++) {
+        for (int i = 0; i < RabbitmqTaskQueue.CONFIRM_BATCH_SIZE * 2 + 11; i++) {
             tasks.add(createSampleAuditTask(time + i));
         }
         this.queue.put(tasks);
     }
+
+    @Test
+    public void testPutVarargsPublishesEachTask() throws Exception {
+        setupConnection();
+        expect(channel.confirmSelect()).andReturn(new AMQImpl.Confirm.SelectOk());
+        // Identical tasks are each published
+        channel.basicPublish(eq(exchange), eq(queueName), anyObject(null),
+                             anyObject(byte[].class));
+        expectLastCall().times(2);
+        expect(channel.waitForConfirms(anyLong())).andReturn(true);
+        replayAll();
+        createSubject();
+
+        Task task = createSampleAuditTask(System.currentTimeMillis());
+        this.queue.put(task, task);
+    }
+
+    @Test
+    public void testTake() throws Exception {
+        setupRabbitmqClient();
+        channel.basicQos(5);
+        expectLastCall().once();
+        Capture<Consumer> consumerCapture = Capture.newInstance();
+        expect(channel.basicConsume(eq(queueName), eq(false), capture(consumerCapture)))
+            .andReturn("consumer-tag");
+        expect(channel.messageCount(queueName)).andReturn(0L);
+        replayAll();
+        createSubject();
+        queue.setPrefetchCount(5);
+
+        try {
+            queue.take();
+            Assert.fail("Exception expected");
+        } catch (TimeoutException e) {
+            // Expected, nothing has been delivered
+        }
+
+        Consumer consumer = consumerCapture.getValue();
+        for (int i = 1; i <= 3; i++) {
+            deliver(consumer, i);
+        }
+        assertThat(queue.size(), is(equalTo(3)));
+
+        // No more than the requested number of tasks are returned
+        Set<Task> tasks = queue.take(2);
+        assertThat(tasks.size(), is(equalTo(2)));
+        Task task = queue.take();
+        assertThat(task.getProperty(RabbitmqTaskQueue.MsgProp.DELIVERY_TAG.name()),
+                   is(equalTo("3")));
+        assertThat(task.getProperty("key"), is(equalTo("value3")));
+    }
+
+    private void deliver(Consumer consumer, long deliveryTag) throws IOException {
+        String message = Task.KEY_TYPE + "=" + Task.Type.DUP.name() + "\n" +
+                         "key=value" + deliveryTag;
+        consumer.handleDelivery("consumer-tag",
+                                new Envelope(deliveryTag, false, exchange, queueName),
+                                null,
+                                message.getBytes());
+    }
 }
\ No newline at end of file
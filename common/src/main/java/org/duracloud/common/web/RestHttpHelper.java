@@ -34,8 +34,8 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
-import org.apache.http.config.SocketConfig;
 import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
@@ -46,8 +46,9 @@ import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicStatusLine;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.util.EntityUtils;
 import org.duracloud.common.model.Credential;
 import org.duracloud.common.util.IOUtil;
@@ -57,16 +58,42 @@ import org.slf4j.LoggerFactory;
 /**
  * Provides helper methods for REST tests
  *
+ * All RestHttpHelper instances share a single pooled connection manager, so
+ * connections (and their TLS sessions) are kept alive and reused across
+ * requests rather than being re-established for every call. The pool limits
+ * can be adjusted via {@link #configureConnectionPool(int, int)}. A request
+ * which cannot obtain a connection from the pool within the connection
+ * request timeout fails rather than waiting indefinitely.
+ *
+ * The body of a GET response is not read in advance: it is provided as a
+ * stream by {@link HttpResponse#getResponseStream()}, and the connection is
+ * only returned to the pool once that stream has been read to its end or
+ * closed. Callers must therefore either close the stream or read the body
+ * (e.g. via {@link HttpResponse#getResponseBody()}) of every GET response.
+ *
  * @author Bill Branan
  */
 public class RestHttpHelper {
 
     protected final Logger log = LoggerFactory.getLogger(RestHttpHelper.class);
 
+    public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 200;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 50;
+    public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT_MS = 60 * 1000;
+
+    private static PoolingHttpClientConnectionManager connectionManager;
+    private static volatile int connectionRequestTimeoutMs =
+        DEFAULT_CONNECTION_REQUEST_TIMEOUT_MS;
+
     private CredentialsProvider credsProvider;
 
     private int socketTimeoutMs = -1;
 
+    private CloseableHttpClient httpClient;
+
+    // Used for HEAD requests, for which content compression is disabled
+    private CloseableHttpClient headHttpClient;
+
     public RestHttpHelper() {
         this(null);
     }
@@ -93,6 +120,57 @@ public class RestHttpHelper {
         }
 
         this.socketTimeoutMs = socketTimeoutMs;
+        this.httpClient = buildClient(false);
+        this.headHttpClient = buildClient(true);
+    }
+
+    /**
+     * Sets the limits of the connection pool shared by all RestHttpHelper
+     * instances. Connections which are already open are not affected.
+     *
+     * @param maxTotal maximum number of connections held by the pool
+     * @param maxPerRoute maximum number of connections held per target host
+     */
+    public static void configureConnectionPool(int maxTotal, int maxPerRoute) {
+        if (maxTotal < 1 || maxPerRoute < 1) {
+            throw new IllegalArgumentException(
+                "Connection pool limits must be greater than zero");
+        }
+        PoolingHttpClientConnectionManager cm = getConnectionManager();
+        cm.setMaxTotal(maxTotal);
+        cm.setDefaultMaxPerRoute(maxPerRoute);
+    }
+
+    /**
+     * Sets the time to wait for a connection from the shared pool before a
+     * request fails. This applies to RestHttpHelper instances created after
+     * the call.
+     *
+     * @param timeoutMs timeout in milliseconds, must be greater than zero
+     */
+    public static void configureConnectionRequestTimeout(int timeoutMs) {
+        if (timeoutMs < 1) {
+            throw new IllegalArgumentException(
+                "Connection request timeout must be greater than zero");
+        }
+        connectionRequestTimeoutMs = timeoutMs;
+    }
+
+    /**
+     * @return current statistics (leased, pending, available, max) of the
+     * connection pool shared by all RestHttpHelper instances
+     */
+    public static PoolStats getConnectionPoolStats() {
+        return getConnectionManager().getTotalStats();
+    }
+
+    private static synchronized PoolingHttpClientConnectionManager getConnectionManager() {
+        if (null == connectionManager) {
+            connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(DEFAULT_MAX_TOTAL_CONNECTIONS);
+            connectionManager.setDefaultMaxPerRoute(DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+        }
+        return connectionManager;
     }
 
     private enum Method {
@@ -297,19 +375,9 @@ public class RestHttpHelper {
         }
 
         org.apache.http.HttpResponse response;
+        CloseableHttpClient client =
+            method.equals(Method.HEAD) ? headHttpClient : httpClient;
         if (null != credsProvider) {
-
-            HttpClientBuilder builder = HttpClients.custom()
-                       .setDefaultCredentialsProvider(credsProvider);
-
-            if (socketTimeoutMs > -1) {
-                BasicHttpClientConnectionManager cm = new BasicHttpClientConnectionManager();
-                cm.setSocketConfig(SocketConfig.custom().setSoTimeout(socketTimeoutMs).build());
-                builder.setConnectionManager(cm);
-            }
-
-            CloseableHttpClient httpClient = buildClient(builder, method);
-
             // Use preemptive basic auth
             URI requestUri = httpRequest.getURI();
             HttpHost target = new HttpHost(requestUri.getHost(),
@@ -320,10 +388,18 @@ public class RestHttpHelper {
             authCache.put(target, basicAuth);
             HttpClientContext localContext = HttpClientContext.create();
             localContext.setAuthCache(authCache);
-            response = httpClient.execute(httpRequest, localContext);
+            response = client.execute(httpRequest, localContext);
         } else {
-            CloseableHttpClient httpClient = buildClient(HttpClients.custom(), method);
-            response = httpClient.execute(httpRequest);
+            response = client.execute(httpRequest);
+        }
+
+        // Only GET responses are handed to callers as streams. All other
+        // responses are small, so they are read fully here in order to
+        // release the connection back to the pool right away.
+        HttpEntity responseEntity = response.getEntity();
+        if (!method.equals(Method.GET) && null != responseEntity) {
+            response.setEntity(new BufferedHttpEntity(responseEntity));
+            EntityUtils.consume(responseEntity);
         }
 
         HttpResponse httpResponse = new HttpResponse(response);
@@ -335,14 +411,27 @@ public class RestHttpHelper {
         return httpResponse;
     }
 
-    private CloseableHttpClient buildClient(HttpClientBuilder builder,
-                                            Method method) {
-        if (method.equals(Method.HEAD)) {
+    private CloseableHttpClient buildClient(boolean head) {
+        HttpClientBuilder builder = HttpClients.custom()
+                                               .setConnectionManager(getConnectionManager())
+                                               .setConnectionManagerShared(true);
+        if (null != credsProvider) {
+            builder.setDefaultCredentialsProvider(credsProvider);
+        }
+
+        if (head) {
             builder.disableContentCompression();
         }
 
         // Set CookieSpec to STANDARD for RFC 6265 compliant policy
-        builder.setDefaultRequestConfig(RequestConfig.custom().setCookieSpec(CookieSpecs.STANDARD).build());
+        RequestConfig.Builder requestConfig =
+            RequestConfig.custom()
+                         .setCookieSpec(CookieSpecs.STANDARD)
+                         .setConnectionRequestTimeout(connectionRequestTimeoutMs);
+        if (socketTimeoutMs > -1) {
+            requestConfig.setSocketTimeout(socketTimeoutMs);
+        }
+        builder.setDefaultRequestConfig(requestConfig.build());
 
         return builder.build();
     }
@@ -370,6 +459,11 @@ public class RestHttpHelper {
             return response.getStatusLine().getStatusCode();
         }
 
+        /**
+         * For GET responses, the connection used by the request is held
+         * until the returned stream has been fully read or closed, so the
+         * caller must close it.
+         */
         public InputStream getResponseStream() throws IOException {
             return response.getEntity().getContent();
         }
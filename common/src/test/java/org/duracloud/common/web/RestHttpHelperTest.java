@@ -9,6 +9,7 @@ package org.duracloud.common.web;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -20,6 +21,7 @@ import java.util.Map;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.pool.PoolStats;
 import org.duracloud.common.model.Credential;
 import org.duracloud.common.web.RestHttpHelper.HttpResponse;
 import org.eclipse.jetty.server.Server;
@@ -152,6 +154,31 @@ public class RestHttpHelperTest {
         file.delete();
     }
 
+    @Test
+    public void testConnectionsReturnedToPool() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            verifyResponse(helper.put(getUrl(), "<x>junk</x>", headers));
+            verifyResponse(helper.head(getUrl()));
+            HttpResponse response = helper.get(getUrl());
+            verifyResponse(response);
+            response.getResponseBody();
+        }
+
+        PoolStats stats = RestHttpHelper.getConnectionPoolStats();
+        assertEquals(0, stats.getLeased());
+        assertTrue(stats.getAvailable() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConfigureConnectionPoolInvalid() {
+        RestHttpHelper.configureConnectionPool(0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConfigureConnectionRequestTimeoutInvalid() {
+        RestHttpHelper.configureConnectionRequestTimeout(0);
+    }
+
     private String getUrl() {
         return "http://" + host + ":" + port + context;
     }
@@ -6,6 +6,7 @@ import java.util.List;
 import org.duracloud.common.cache.AccountComponentCache;
 import org.duracloud.durastore.util.StorageProviderFactoryCache;
 import org.duracloud.durastore.util.TaskProviderFactoryCache;
+import org.duracloud.security.impl.SpaceACLCache;
 import org.duracloud.security.impl.UserDetailsServiceCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,10 +22,12 @@ public class AccountComponentCacheConfig {
     @Bean
     public List<AccountComponentCache<?>> globalStores(UserDetailsServiceCache userDetailsServiceCache,
                                                        StorageProviderFactoryCache storageProviderFactoryCache,
-                                                       TaskProviderFactoryCache taskProviderFactoryCache) {
+                                                       TaskProviderFactoryCache taskProviderFactoryCache,
+                                                       SpaceACLCache spaceACLCache) {
         return Arrays.asList((AccountComponentCache<?>) userDetailsServiceCache,
                              (AccountComponentCache<?>) storageProviderFactoryCache,
-                             (AccountComponentCache<?>) taskProviderFactoryCache);
+                             (AccountComponentCache<?>) taskProviderFactoryCache,
+                             (AccountComponentCache<?>) spaceACLCache);
     }
 
 }
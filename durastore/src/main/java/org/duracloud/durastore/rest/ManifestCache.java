@@ -0,0 +1,140 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.durastore.rest;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps track of the manifests which have been generated and stored, so that
+ * a stored manifest can be provided in place of generating a new one.
+ * Entries are keyed by account, store, space, and format.
+ *
+ * A stored manifest is considered to be fresh when no change has been made
+ * to the space since it was generated, when it is not older than the max
+ * age, and when it was generated at least the settle time after the
+ * preceding change to the space (or the start of change tracking). The
+ * settle time allows changes, including audit tasks buffered or spilled
+ * before a restart, to reach the manifest store, which is updated
+ * asynchronously.
+ *
+ * Changes are tracked only for writes made through this application
+ * instance, so the max age bounds how long a change made elsewhere (on
+ * another node, or by the mill) can go unreflected.
+ */
+public class ManifestCache {
+
+    protected static final long DEFAULT_MAX_AGE = 60 * 60 * 1000;
+    protected static final long DEFAULT_SETTLE_TIME = 5 * 60 * 1000;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long maxAge;
+    private final long settleTime;
+
+    public ManifestCache() {
+        this(DEFAULT_MAX_AGE, DEFAULT_SETTLE_TIME);
+    }
+
+    /**
+     * @param maxAge     milliseconds after which a manifest is no longer used
+     * @param settleTime milliseconds after a change to a space before which a
+     *                   generated manifest may not include the change
+     */
+    public ManifestCache(long maxAge, long settleTime) {
+        this.maxAge = maxAge;
+        this.settleTime = settleTime;
+    }
+
+    public static String getKey(String account,
+                                String storeId,
+                                String spaceId,
+                                String format) {
+        return account + "/" + storeId + "/" + spaceId + "/" + format.toUpperCase();
+    }
+
+    /**
+     * Gets a fresh manifest entry. Entries which are no longer fresh are
+     * removed.
+     *
+     * @param key                  of the manifest
+     * @param changeMarkerSupplier provides the latest change marker of the
+     *                             space, called only when an entry exists
+     * @return the entry, or null if there is no fresh entry
+     */
+    public Entry get(String key, LongSupplier changeMarkerSupplier) {
+        Entry entry = entries.get(key);
+        if (null == entry) {
+            return null;
+        }
+
+        long changeMarker = changeMarkerSupplier.getAsLong();
+        long now = System.currentTimeMillis();
+        if (entry.changeMarker == changeMarker &&
+            now - entry.generatedTime < maxAge &&
+            entry.generatedTime - changeMarker >= settleTime) {
+            return entry;
+        }
+
+        entries.remove(key, entry);
+        return null;
+    }
+
+    /**
+     * Records a manifest which is being generated
+     *
+     * @param key          of the manifest
+     * @param contentId    ID under which the manifest is being stored
+     * @param changeMarker change marker of the space when generation began
+     * @return the new entry
+     */
+    public Entry add(String key, String contentId, long changeMarker) {
+        Entry entry = new Entry(contentId, changeMarker, System.currentTimeMillis());
+        entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Removes an entry, if it is still the current entry for the key
+     */
+    public void remove(String key, Entry entry) {
+        entries.remove(key, entry);
+    }
+
+    /**
+     * A generated manifest
+     */
+    public static class Entry {
+        private final String contentId;
+        private final long changeMarker;
+        private final long generatedTime;
+        private volatile boolean stored = false;
+
+        Entry(String contentId, long changeMarker, long generatedTime) {
+            this.contentId = contentId;
+            this.changeMarker = changeMarker;
+            this.generatedTime = generatedTime;
+        }
+
+        public String getContentId() {
+            return contentId;
+        }
+
+        /**
+         * @return true once the manifest has been fully stored
+         */
+        public boolean isStored() {
+            return stored;
+        }
+
+        public void setStored() {
+            this.stored = true;
+        }
+    }
+
+}
@@ -17,6 +17,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -38,6 +39,7 @@ import org.duracloud.common.util.DateUtil.DateFormat;
 import org.duracloud.common.util.IOUtil;
 import org.duracloud.manifest.error.ManifestArgumentException;
 import org.duracloud.manifest.error.ManifestNotFoundException;
+import org.duracloud.storage.domain.RetrievedContent;
 import org.duracloud.storage.domain.StorageAccount;
 import org.duracloud.storage.domain.StorageProviderType;
 import org.duracloud.storage.provider.StorageProvider;
@@ -68,6 +70,10 @@ public class ManifestRest extends BaseRest {
 
     private static final String DEFAULT_FORMAT = ManifestFormat.TSV.name();
 
+    private static final String ADMIN_SPACE = "x-duracloud-admin";
+
+    private ManifestCache manifestCache = new ManifestCache();
+
     @Autowired
     public ManifestRest(ManifestResource manifestResource,
                         StorageProviderFactory storageProviderFactory) {
@@ -75,6 +81,10 @@ public class ManifestRest extends BaseRest {
         this.storageProviderFactory = storageProviderFactory;
     }
 
+    protected void setManifestCache(ManifestCache manifestCache) {
+        this.manifestCache = manifestCache;
+    }
+
     @Path("/{spaceId}")
     @GET
     public Response getManifest(@PathParam("spaceId") String spaceId,
@@ -101,7 +111,10 @@ public class ManifestRest extends BaseRest {
         try {
 
             InputStream manifest =
-                manifestResource.getManifest(account, storeId, spaceId, format);
+                getStoredManifest(account, storeId, spaceId, format);
+            if (null == manifest) {
+                manifest = manifestResource.getManifest(account, storeId, spaceId, format);
+            }
 
             return Response.ok(manifest)
                            .type(ManifestFormat.valueOf(format)
@@ -166,7 +179,9 @@ public class ManifestRest extends BaseRest {
     }
 
     /**
-     * Generates a manifest file asynchronously and uploads to DuraCloud
+     * Generates a manifest file asynchronously and uploads to DuraCloud. If a
+     * manifest of the space which is still fresh has already been generated,
+     * its URI is returned instead.
      *
      * @param account
      * @param spaceId
@@ -179,7 +194,25 @@ public class ManifestRest extends BaseRest {
                                        String storeId,
                                        String format)
         throws Exception {
-        StorageProviderType providerType = getStorageProviderType(storeId);
+        StorageAccount storageAccount = getStorageAccount(storeId);
+        if (null == storageAccount) {
+            //this should never happen.
+            throw new DuraCloudRuntimeException("storage provider type could not be resolved");
+        }
+        StorageProviderType providerType = storageAccount.getType();
+        String cacheStoreId = null != storeId ? storeId : storageAccount.getId();
+
+        StorageProvider provider = storageProviderFactory.getStorageProvider();
+
+        String key = ManifestCache.getKey(account, cacheStoreId, spaceId, format);
+        long changeMarker = storageProviderFactory.getSpaceChangeTracker()
+                                                  .getChangeMarker(cacheStoreId, spaceId);
+        ManifestCache.Entry cached = manifestCache.get(key, () -> changeMarker);
+        if (null != cached && isAvailable(cached, provider)) {
+            log.info("manifest for {}:{}:{} [{}] is unchanged, providing {}",
+                     account, cacheStoreId, spaceId, format, cached.getContentId());
+            return buildURI(ADMIN_SPACE, cached.getContentId());
+        }
 
         InputStream manifest =
             manifestResource.getManifest(account, storeId, spaceId, format);
@@ -191,11 +224,11 @@ public class ManifestRest extends BaseRest {
                                  DateUtil.convertToString(System.currentTimeMillis(), DateFormat.PLAIN_FORMAT),
                                  ".gz");
 
-        String adminSpace = "x-duracloud-admin";
+        String adminSpace = ADMIN_SPACE;
 
         URI uri = buildURI(adminSpace, contentId);
 
-        StorageProvider provider = storageProviderFactory.getStorageProvider();
+        ManifestCache.Entry entry = manifestCache.add(key, contentId, changeMarker);
 
         executor.execute(() -> {
 
@@ -211,7 +244,9 @@ public class ManifestRest extends BaseRest {
                                                        file,
                                                        provider,
                                                        gzip);
+                entry.setStored();
             } catch (Exception ex) {
+                manifestCache.remove(key, entry);
                 log.error("failed to generate manifest for space: spaceId="
                           + spaceId
                           + ", storeId="
@@ -225,21 +260,83 @@ public class ManifestRest extends BaseRest {
         return uri;
     }
 
-    private StorageProviderType getStorageProviderType(String storeId) {
+    /*
+     * A manifest which is still being generated is available, a stored
+     * manifest is available if it has not been removed from the admin space.
+     */
+    private boolean isAvailable(ManifestCache.Entry entry, StorageProvider provider) {
+        if (!entry.isStored()) {
+            return true;
+        }
+
+        try {
+            provider.getContentProperties(ADMIN_SPACE, entry.getContentId());
+            return true;
+        } catch (Exception e) {
+            log.info("stored manifest {} is no longer available: {}",
+                     entry.getContentId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /*
+     * Provides the contents of a fresh, previously stored manifest, or null
+     * if there is no such manifest.
+     */
+    private InputStream getStoredManifest(String account,
+                                          String storeId,
+                                          String spaceId,
+                                          String format) {
+        String cacheStoreId = storeId;
+        if (null == cacheStoreId) {
+            StorageAccount storageAccount = getStorageAccount(null);
+            if (null == storageAccount) {
+                return null;
+            }
+            cacheStoreId = storageAccount.getId();
+        }
+
+        final String changeStoreId = cacheStoreId;
+        String key = ManifestCache.getKey(account, cacheStoreId, spaceId, format);
+        ManifestCache.Entry entry = manifestCache.get(key, () -> {
+            return storageProviderFactory.getSpaceChangeTracker()
+                                         .getChangeMarker(changeStoreId, spaceId);
+        });
+        if (null == entry || !entry.isStored()) {
+            return null;
+        }
+
+        try {
+            StorageProvider provider = storageProviderFactory.getStorageProvider();
+            RetrievedContent content = provider.getContent(ADMIN_SPACE, entry.getContentId());
+            log.info("manifest for {}:{}:{} [{}] is unchanged, providing {}",
+                     account, cacheStoreId, spaceId, format, entry.getContentId());
+            return new GZIPInputStream(content.getContentStream());
+        } catch (Exception e) {
+            log.info("stored manifest {} is no longer available: {}",
+                     entry.getContentId(), e.getMessage());
+            manifestCache.remove(key, entry);
+            return null;
+        }
+    }
+
+    /*
+     * Finds the storage account with the given ID, or the primary storage
+     * account if the ID is null. Returns null if there is no such account.
+     */
+    private StorageAccount getStorageAccount(String storeId) {
         for (StorageAccount a : this.storageProviderFactory.getStorageAccounts()) {
             if (storeId == null) {
                 if (a.isPrimary()) {
-                    return a.getType();
+                    return a;
                 }
             } else {
                 if (storeId.equals(a.getId())) {
-                    return a.getType();
+                    return a;
                 }
             }
         }
-
-        //this should never happen.
-        throw new DuraCloudRuntimeException("storage provider type could not be resolved");
+        return null;
     }
 
     protected URI buildURI(String adminSpace, String contentId)
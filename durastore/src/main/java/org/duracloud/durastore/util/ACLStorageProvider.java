@@ -15,6 +15,16 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.duracloud.common.changenotifier.AccountChangeNotifier;
 import org.duracloud.common.error.NoUserLoggedInException;
@@ -22,6 +32,7 @@ import org.duracloud.common.model.AclType;
 import org.duracloud.common.rest.DuraCloudRequestContextUtil;
 import org.duracloud.security.context.SecurityContextUtil;
 import org.duracloud.security.impl.DuracloudUserDetails;
+import org.duracloud.security.impl.SpaceACLCache;
 import org.duracloud.storage.domain.RetrievedContent;
 import org.duracloud.storage.domain.StorageProviderType;
 import org.duracloud.storage.error.StorageException;
@@ -35,6 +46,10 @@ import org.springframework.security.core.GrantedAuthority;
  * of the currently logged-in user. Additionally, caching of space ACLs and
  * access-type (opened/closed) is performed in this class.
  *
+ * The ACLs of a space are loaded on first use. Once cached, they are
+ * returned immediately, and if they are older than the refresh interval
+ * they are reloaded in the background.
+ *
  * @author Andrew Woods
  * Date: 11/22/11
  */
@@ -43,11 +58,20 @@ public class ACLStorageProvider implements StorageProvider {
     private final Logger log =
         LoggerFactory.getLogger(ACLStorageProvider.class);
 
+    protected static final long ACL_REFRESH_INTERVAL_MS = 10 * 60 * 1000;
+    private static final int ACL_LOADER_THREADS = 4;
+
     private final StorageProvider targetProvider;
     private SecurityContextUtil securityContextUtil;
 
-    private Map<String, Map<String, AclType>> spaceACLMap;
-    private boolean loaded;
+    private final Set<String> spaceIds;
+    private final ConcurrentMap<String, CachedACLs> spaceACLMap;
+    private final ConcurrentMap<String, CompletableFuture<CachedACLs>> aclLoads;
+    private final ExecutorService aclLoader;
+    private long refreshIntervalMs = ACL_REFRESH_INTERVAL_MS;
+    private final Object spaceListLock = new Object();
+    private volatile boolean spacesListed;
+    private volatile boolean loaded;
 
     private Thread cacheLoaderThread = null;
 
@@ -55,6 +79,8 @@ public class ACLStorageProvider implements StorageProvider {
 
     private DuraCloudRequestContextUtil requestContextUtil;
 
+    private SpaceACLCache spaceACLCache;
+
     public ACLStorageProvider(StorageProvider targetProvider,
                               AccountChangeNotifier notifier,
                               DuraCloudRequestContextUtil requestContextUtil) {
@@ -75,14 +101,36 @@ public class ACLStorageProvider implements StorageProvider {
 
         this.targetProvider = targetProvider;
         this.securityContextUtil = securityContextUtil;
-        this.spaceACLMap = new HashMap<String, Map<String, AclType>>();
+        this.spaceIds = ConcurrentHashMap.newKeySet();
+        this.spaceACLMap = new ConcurrentHashMap<>();
+        this.aclLoads = new ConcurrentHashMap<>();
+        ThreadPoolExecutor loader =
+            new ThreadPoolExecutor(ACL_LOADER_THREADS, ACL_LOADER_THREADS,
+                                   60, TimeUnit.SECONDS,
+                                   new LinkedBlockingQueue<Runnable>(),
+                                   runnable -> {
+                                       Thread thread = new Thread(runnable, "acl-loader");
+                                       thread.setDaemon(true);
+                                       return thread;
+                                   });
+        loader.allowCoreThreadTimeOut(true);
+        this.aclLoader = loader;
+        this.spacesListed = false;
         this.loaded = false;
         this.notifier = notifier;
         this.requestContextUtil = requestContextUtil;
         ensureCacheLoaderThreadIsRunning();
     }
 
-    private void ensureCacheLoaderThreadIsRunning() {
+    /**
+     * Sets the cache of space ACLs used for authorization on this node, from
+     * which the ACLs of a space are dropped as soon as the space changes.
+     */
+    public void setSpaceACLCache(SpaceACLCache spaceACLCache) {
+        this.spaceACLCache = spaceACLCache;
+    }
+
+    private synchronized void ensureCacheLoaderThreadIsRunning() {
         if (this.cacheLoaderThread == null || !this.cacheLoaderThread.isAlive()) {
             log.info("cacheLoaderThread was not running. Starting it up...");
             this.cacheLoaderThread = new Thread(new CacheLoader());
@@ -94,47 +142,133 @@ public class ACLStorageProvider implements StorageProvider {
     }
 
     /**
-     * This nested class loads the cache of space ACLs and AccessTypes.
+     * This nested class loads the cache of space ACLs and AccessTypes. The
+     * list of spaces is published as soon as it is retrieved, ACLs are then
+     * loaded for any space which has not already been loaded on demand.
      */
     private class CacheLoader implements Runnable {
         public void run() {
             try {
+                List<String> spaces = new ArrayList<>();
+                Iterator<String> spacesIt = targetProvider.getSpaces();
+                while (spacesIt.hasNext()) {
+                    spaces.add(spacesIt.next());
+                }
 
-                Iterator<String> spaces = targetProvider.getSpaces();
-                while (spaces.hasNext()) {
-                    String space = spaces.next();
-                    spaceACLMap.put(space, getSpaceACLs(space));
+                spaceIds.addAll(spaces);
+                synchronized (spaceListLock) {
+                    spacesListed = true;
+                    spaceListLock.notifyAll();
+                }
+
+                for (String space : spaces) {
+                    try {
+                        getCachedSpaceACLs(space);
+                    } catch (StorageException e) {
+                        log.warn("Error getting space acls: {}, err: {}", space, e);
+                    }
                 }
                 loaded = true;
             } catch (Exception ex) {
                 log.error("Failed to complete the run of the CacheLoader", ex);
             }
         }
+    }
 
-        private Map<String, AclType> getSpaceACLs(String space) {
-            try {
-                return targetProvider.getSpaceACLs(space);
-
-            } catch (StorageException e) {
-                log.warn("Error getting space acls: {}, err: {}", space, e);
-                return new HashMap<String, AclType>();
+    /**
+     * Blocks until the list of spaces is available. This does not wait for
+     * the ACLs of those spaces to be loaded.
+     */
+    private void waitForSpaceList() {
+        synchronized (spaceListLock) {
+            while (!spacesListed) {
+                ensureCacheLoaderThreadIsRunning();
+
+                log.debug("waiting: {}", targetProvider.getClass().getName());
+                try {
+                    spaceListLock.wait(500);
+                } catch (InterruptedException e) {
+                    // do nothing
+                }
             }
         }
     }
 
-    private void waitForCache() {
-
-        while (!loaded) {
+    /**
+     * Retrieves the ACLs of a space from the cache, loading them from the
+     * target provider if they are not yet cached. A space is loaded by only
+     * one caller at a time, and concurrent callers wait for that load. ACLs
+     * which are older than the refresh interval are returned as they are,
+     * and reloaded in the background.
+     */
+    private Map<String, AclType> getCachedSpaceACLs(String spaceId) {
+        CachedACLs cached = spaceACLMap.get(spaceId);
+        if (null == cached) {
+            return loadSpaceACLs(spaceId).acls;
+        }
 
-            ensureCacheLoaderThreadIsRunning();
+        if (cached.isOlderThan(refreshIntervalMs) && cached.refreshing.compareAndSet(false, true)) {
+            aclLoader.execute(() -> refreshSpaceACLs(spaceId, cached));
+        }
+        return cached.acls;
+    }
 
-            log.debug("waiting: {}", targetProvider.getClass().getName());
+    private CachedACLs loadSpaceACLs(String spaceId) {
+        CompletableFuture<CachedACLs> load = new CompletableFuture<>();
+        CompletableFuture<CachedACLs> inProgress =
+            aclLoads.putIfAbsent(spaceId, load);
+        if (null != inProgress) {
             try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                // do nothing
+                return inProgress.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
             }
         }
+
+        try {
+            CachedACLs loaded =
+                new CachedACLs(targetProvider.getSpaceACLs(spaceId));
+            // ACLs set while loading take precedence
+            CachedACLs existing = spaceACLMap.putIfAbsent(spaceId, loaded);
+            CachedACLs result = null != existing ? existing : loaded;
+            load.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            aclLoads.remove(spaceId, load);
+        }
+    }
+
+    private void refreshSpaceACLs(String spaceId, CachedACLs stale) {
+        try {
+            CachedACLs refreshed =
+                new CachedACLs(targetProvider.getSpaceACLs(spaceId));
+            // Only replace the entry if it has not been updated or removed
+            spaceACLMap.replace(spaceId, stale, refreshed);
+        } catch (Exception e) {
+            log.warn("Error refreshing space acls: {}, err: {}", spaceId, e);
+            stale.refreshing.set(false);
+        }
+    }
+
+    /**
+     * @param refreshIntervalMs age (in ms) after which cached ACLs are
+     *                          reloaded in the background
+     */
+    protected void setRefreshInterval(long refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    /**
+     * @return true if the ACLs of all spaces have been loaded into the cache
+     */
+    protected boolean isLoaded() {
+        return loaded;
     }
 
     @Override
@@ -156,12 +290,29 @@ public class ACLStorageProvider implements StorageProvider {
             return targetProvider.getSpaces();
         }
 
-        waitForCache();
+        waitForSpaceList();
+
+        // Spaces which are not yet cached are loaded in parallel
+        Map<String, CompletableFuture<Map<String, AclType>>> pending = new HashMap<>();
+        for (String space : spaceIds) {
+            if (!spaceACLMap.containsKey(space)) {
+                pending.put(space, CompletableFuture.supplyAsync(
+                    () -> getCachedSpaceACLs(space), aclLoader));
+            }
+        }
 
         List<String> spaces = new ArrayList<String>();
-        for (String space : spaceACLMap.keySet()) {
-            Map<String, AclType> acls = spaceACLMap.get(space);
-            if (userHasAccess(user, acls) && !spaces.contains(space)) {
+        for (String space : spaceIds) {
+            Map<String, AclType> acls;
+            try {
+                CompletableFuture<Map<String, AclType>> load = pending.get(space);
+                acls = null != load ? load.join() : getCachedSpaceACLs(space);
+            } catch (StorageException | CompletionException e) {
+                log.warn("Error getting space acls: {}, err: {}", space, e);
+                continue;
+            }
+
+            if (userHasAccess(user, acls)) {
                 spaces.add(space);
             }
         }
@@ -239,9 +390,8 @@ public class ACLStorageProvider implements StorageProvider {
 
     @Override
     public void createSpace(String spaceId) {
-        waitForCache();
-
         targetProvider.createSpace(spaceId);
+        spaceIds.add(spaceId);
 
         // Update the cache to contain current user privileges for new space, if
         // exception not thrown above.
@@ -250,18 +400,21 @@ public class ACLStorageProvider implements StorageProvider {
             Map<String, AclType> acl = new HashMap<String, AclType>();
             acl.put(PROPERTIES_SPACE_ACL + userDetails.getUsername(),
                     AclType.WRITE);
-            spaceACLMap.put(spaceId, acl);
+            spaceACLMap.put(spaceId, new CachedACLs(acl));
         }
+
+        // ACLs of a previous space with the same ID may be cached elsewhere
+        sendCacheChangedNotification(spaceId);
     }
 
     @Override
     public void deleteSpace(String spaceId) {
-        waitForCache();
-
         StorageException storageException = null;
         try {
             targetProvider.deleteSpace(spaceId);
+            spaceIds.remove(spaceId);
             spaceACLMap.remove(spaceId);
+            sendCacheChangedNotification(spaceId);
 
         } catch (StorageException e) {
             storageException = e;
@@ -270,9 +423,14 @@ public class ACLStorageProvider implements StorageProvider {
         // clear and reload cache if deleting: "aclstorageprovider-cache"
         if ((getClass().getSimpleName() + "-cache").equalsIgnoreCase(spaceId)) {
             log.info("cycling cache.");
-            this.spaceACLMap.clear();
-            this.loaded = false;
-            this.cacheLoaderThread = null;
+            synchronized (this) {
+                this.spacesListed = false;
+                this.loaded = false;
+                this.spaceIds.clear();
+                this.spaceACLMap.clear();
+                this.cacheLoaderThread = null;
+                ensureCacheLoaderThreadIsRunning();
+            }
         }
 
         if (null != storageException) {
@@ -287,39 +445,32 @@ public class ACLStorageProvider implements StorageProvider {
 
     @Override
     public Map<String, AclType> getSpaceACLs(String spaceId) {
-        DuracloudUserDetails user = getCurrentUserDetails();
-        if (isAdmin(user) && !loaded) {
-            return targetProvider.getSpaceACLs(spaceId);
-        }
-
-        waitForCache();
-
-        if (spaceACLMap.containsKey(spaceId)) {
-            return spaceACLMap.get(spaceId);
-        } else {
-            Map<String, AclType> acls = targetProvider.getSpaceACLs(spaceId);
-            spaceACLMap.put(spaceId, acls);
-            return acls;
-        }
+        Map<String, AclType> acls = getCachedSpaceACLs(spaceId);
+        spaceIds.add(spaceId);
+        return acls;
     }
 
     @Override
     public void setSpaceACLs(String spaceId, Map<String, AclType> spaceACLs) {
-        waitForCache();
-
         targetProvider.setSpaceACLs(spaceId, spaceACLs);
 
         if (null != spaceACLs) {
             // update cache
-            this.spaceACLMap.put(spaceId, spaceACLs);
+            this.spaceIds.add(spaceId);
+            this.spaceACLMap.put(spaceId, new CachedACLs(spaceACLs));
         }
 
-        sendCacheChangedNotification();
+        sendCacheChangedNotification(spaceId);
 
     }
 
-    private void sendCacheChangedNotification() {
-        notifier.storageProviderCacheOnNodeChanged(requestContextUtil.getAccountId());
+    private void sendCacheChangedNotification(String spaceId) {
+        String accountId = requestContextUtil.getAccountId();
+        // The notification reaches this node asynchronously, if at all
+        if (null != spaceACLCache) {
+            spaceACLCache.removeSpaceACLs(accountId, spaceId);
+        }
+        notifier.storageProviderCacheOnNodeChanged(accountId);
     }
 
     @Override
@@ -379,4 +530,22 @@ public class ACLStorageProvider implements StorageProvider {
                                                     String contentId) {
         return targetProvider.getContentProperties(spaceId, contentId);
     }
+
+    /*
+     * The ACLs of a space, along with the time they were loaded
+     */
+    private static class CachedACLs {
+        private final Map<String, AclType> acls;
+        private final long loadedAt = System.currentTimeMillis();
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        CachedACLs(Map<String, AclType> acls) {
+            this.acls = acls;
+        }
+
+        boolean isOlderThan(long ageMs) {
+            return System.currentTimeMillis() - loadedAt > ageMs;
+        }
+    }
+
 }
@@ -8,6 +8,8 @@
 package org.duracloud.durastore.util;
 
 import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.duracloud.account.db.repo.DuracloudMillRepo;
 import org.duracloud.common.cache.AbstractAccountComponentCache;
@@ -16,9 +18,11 @@ import org.duracloud.common.event.AccountChangeEvent;
 import org.duracloud.common.event.AccountChangeEvent.EventType;
 import org.duracloud.common.rest.DuraCloudRequestContextUtil;
 import org.duracloud.common.util.UserUtil;
+import org.duracloud.security.impl.SpaceACLCache;
 import org.duracloud.storage.domain.AuditConfig;
 import org.duracloud.storage.domain.StorageAccountManager;
 import org.duracloud.storage.provider.StatelessStorageProvider;
+import org.duracloud.storage.util.SpaceChangeTracker;
 import org.duracloud.storage.util.StorageProviderFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +40,13 @@ public class StorageProviderFactoryCache extends AbstractAccountComponentCache<S
     private DuracloudMillRepo millRepo;
     private DuraCloudRequestContextUtil contextUtil;
     private AccountChangeNotifier notifier;
+    private SpaceACLCache spaceACLCache;
+
+    // Space change trackers, by account. These are kept apart from the
+    // cached factories so that evicting a factory does not lose the changes
+    // it has tracked.
+    private Map<String, SpaceChangeTracker> spaceChangeTrackers =
+        new ConcurrentHashMap<>();
 
     private Logger log = LoggerFactory.getLogger(StorageProviderFactoryCache.class);
 
@@ -54,16 +65,30 @@ public class StorageProviderFactoryCache extends AbstractAccountComponentCache<S
         this.notifier = notifier;
     }
 
+    /**
+     * Sets the cache of space ACLs used for authorization, which is updated
+     * by the storage providers of each account when space ACLs change
+     */
+    public void setSpaceACLCache(SpaceACLCache spaceACLCache) {
+        this.spaceACLCache = spaceACLCache;
+    }
+
     @Override
     public void onEvent(AccountChangeEvent event) {
         String accountId = event.getAccountId();
         EventType eventType = event.getEventType();
         if (accountId != null) {
+            boolean anotherNode = isAnotherNode(event);
             if (eventType.equals(EventType.STORAGE_PROVIDERS_CHANGED) ||
                 eventType.equals(EventType.ACCOUNT_CHANGED) ||
-                isAnotherNode(event)) {
+                anotherNode) {
                 remove(accountId);
             }
+            if (anotherNode) {
+                // Spaces of the account were changed on another node, which
+                // is not tracked, so tracking starts over
+                spaceChangeTrackers.remove(accountId);
+            }
         } else if (eventType.equals(EventType.ALL_ACCOUNTS_CHANGED)) {
             removeAll();
         }
@@ -104,6 +129,9 @@ public class StorageProviderFactoryCache extends AbstractAccountComponentCache<S
                                            this.contextUtil,
                                            this.notifier,
                                            auditConfig);
+        factory.setSpaceACLCache(spaceACLCache);
+        factory.setSpaceChangeTracker(
+            spaceChangeTrackers.computeIfAbsent(accountId, id -> new SpaceChangeTracker()));
 
         return factory;
     }
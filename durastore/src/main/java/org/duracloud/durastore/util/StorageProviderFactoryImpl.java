@@ -7,7 +7,9 @@
  */
 package org.duracloud.durastore.util;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +20,7 @@ import org.duracloud.common.changenotifier.AccountChangeNotifier;
 import org.duracloud.common.queue.QueueType;
 import org.duracloud.common.queue.TaskQueue;
 import org.duracloud.common.queue.aws.SQSTaskQueue;
+import org.duracloud.common.queue.buffer.BufferedTaskQueue;
 import org.duracloud.common.queue.noop.NoopTaskQueue;
 import org.duracloud.common.queue.rabbitmq.RabbitmqTaskQueue;
 import org.duracloud.common.rest.DuraCloudRequestContextUtil;
@@ -27,6 +30,7 @@ import org.duracloud.durastore.test.MockVerifyCreateStorageProvider;
 import org.duracloud.durastore.test.MockVerifyDeleteStorageProvider;
 import org.duracloud.glacierstorage.GlacierStorageProvider;
 import org.duracloud.s3storage.S3StorageProvider;
+import org.duracloud.security.impl.SpaceACLCache;
 import org.duracloud.snapshotstorage.ChronopolisStorageProvider;
 import org.duracloud.storage.domain.AuditConfig;
 import org.duracloud.storage.domain.DuraStoreInitConfig;
@@ -39,6 +43,7 @@ import org.duracloud.storage.provider.BrokeredStorageProvider;
 import org.duracloud.storage.provider.StatelessStorageProvider;
 import org.duracloud.storage.provider.StorageProvider;
 import org.duracloud.storage.provider.StorageProviderBase;
+import org.duracloud.storage.util.SpaceChangeTracker;
 import org.duracloud.storage.util.StorageProviderFactory;
 import org.duracloud.swiftstorage.SwiftStorageProvider;
 import org.slf4j.Logger;
@@ -55,13 +60,26 @@ public class StorageProviderFactoryImpl extends ProviderFactoryBase
     private Logger log =
         LoggerFactory.getLogger(StorageProviderFactoryImpl.class);
 
+    // System property which sets the directory holding audit tasks which
+    // could not be written to the audit queue
+    public static final String AUDIT_SPILL_DIR_PROP = "duracloud.audit.spill.dir";
+
+    // Buffered audit queues, by queue name. A factory is created for each
+    // account (and re-created when evicted from StorageProviderFactoryCache),
+    // so the buffered queue, along with its flusher thread and spill file,
+    // is shared by all factories which write to the same queue.
+    private static final Map<String, BufferedTaskQueue> bufferedAuditQueues =
+        new HashMap<>();
+
     private StatelessStorageProvider statelessProvider;
     private Map<String, StorageProvider> storageProviders;
     private UserUtil userUtil;
     private TaskQueue auditQueue;
+    private SpaceChangeTracker spaceChangeTracker = new SpaceChangeTracker();
     private boolean cacheStorageProvidersOnInit = false;
     private DuraCloudRequestContextUtil contextUtil;
     private AccountChangeNotifier notifier;
+    private SpaceACLCache spaceACLCache;
 
     public StorageProviderFactoryImpl(StorageAccountManager storageAccountManager,
                                       StatelessStorageProvider statelessStorageProvider,
@@ -102,6 +120,22 @@ public class StorageProviderFactoryImpl extends ProviderFactoryBase
         configureAuditQueue(auditConfig);
     }
 
+    /**
+     * Sets the tracker notified of changes to spaces, which may outlive this
+     * factory
+     */
+    public void setSpaceChangeTracker(SpaceChangeTracker spaceChangeTracker) {
+        this.spaceChangeTracker = spaceChangeTracker;
+    }
+
+    /**
+     * Sets the cache of space ACLs used for authorization, which the storage
+     * providers of this factory update when space ACLs change
+     */
+    public void setSpaceACLCache(SpaceACLCache spaceACLCache) {
+        this.spaceACLCache = spaceACLCache;
+    }
+
     @Override
     public void initialize(DuraStoreInitConfig initConfig,
                            String instanceHost,
@@ -128,6 +162,28 @@ public class StorageProviderFactoryImpl extends ProviderFactoryBase
         configureAuditQueue(getInitConfig().getAuditConfig());
     }
 
+    /*
+     * Spilled audit tasks must survive a restart, so by default they are
+     * kept under duracloud.home (or the user home directory) rather than in
+     * the temp directory.
+     */
+    private File getAuditSpillDir() {
+        String spillDir = System.getProperty(AUDIT_SPILL_DIR_PROP);
+        File dir;
+        if (null != spillDir) {
+            dir = new File(spillDir);
+        } else {
+            String home = System.getProperty("duracloud.home",
+                                             System.getProperty("user.home"));
+            dir = new File(home, "audit-spill");
+        }
+
+        if (!dir.exists() && !dir.mkdirs()) {
+            log.error("Unable to create audit spill directory {}", dir);
+        }
+        return dir;
+    }
+
     private void configureAuditQueue(AuditConfig auditConfig) {
         if (null == auditConfig) {
             // If no audit config defined, turn off auditing
@@ -138,6 +194,23 @@ public class StorageProviderFactoryImpl extends ProviderFactoryBase
                 // If no queue name is defined, turn off auditing
                 this.auditQueue = new NoopTaskQueue();
             } else {
+                this.auditQueue = getBufferedAuditQueue(auditConfig, queueName);
+            }
+        }
+    }
+
+    /*
+     * Audit tasks are buffered and written to the queue in batches, so that
+     * client requests do not wait on the queue. Only one buffered queue (and
+     * so only one reader of the spill file) exists per queue name; it is
+     * flushed by its shutdown hook when the JVM exits.
+     */
+    private BufferedTaskQueue getBufferedAuditQueue(AuditConfig auditConfig,
+                                                    String queueName) {
+        synchronized (bufferedAuditQueues) {
+            BufferedTaskQueue bufferedQueue = bufferedAuditQueues.get(queueName);
+            if (null == bufferedQueue) {
+                TaskQueue queue;
                 QueueType queueType = auditConfig.getQueueType();
                 if (queueType == QueueType.RABBITMQ) {
                     //RabbitMQ
@@ -149,12 +222,18 @@ public class StorageProviderFactoryImpl extends ProviderFactoryBase
                     String password = auditConfig.getRabbitmqPassword();
                     log.info("Configuring Audit queue with host: {}, port: {}, vhost: {}, exchange: {}, queue: {}",
                              host, port, vhost, exchange, queueName);
-                    this.auditQueue = new RabbitmqTaskQueue(host, port, vhost, exchange, username, password, queueName);
+                    queue = new RabbitmqTaskQueue(host, port, vhost, exchange, username, password, queueName);
                 } else {
                     //AWS - SQS
-                    this.auditQueue = new SQSTaskQueue(queueName);
+                    queue = new SQSTaskQueue(queueName);
                 }
+
+                File spillFile = new File(getAuditSpillDir(),
+                                          "audit-" + queueName + ".spill");
+                bufferedQueue = new BufferedTaskQueue(queue, spillFile);
+                bufferedAuditQueues.put(queueName, bufferedQueue);
             }
+            return bufferedQueue;
         }
     }
 
@@ -163,6 +242,11 @@ public class StorageProviderFactoryImpl extends ProviderFactoryBase
         return this.auditQueue;
     }
 
+    @Override
+    public SpaceChangeTracker getSpaceChangeTracker() {
+        return this.spaceChangeTracker;
+    }
+
     /**
      * This method returns all of the registered storage accounts.
      *
@@ -249,19 +333,21 @@ public class StorageProviderFactoryImpl extends ProviderFactoryBase
                                        + storageAccountId + "): unable to create");
         }
 
-        StorageProvider auditProvider =
+        AuditStorageProvider auditProvider =
             new AuditStorageProvider(storageProvider,
                                      storageAccountManager.getAccountName(),
                                      storageAccountId,
                                      type.getName(),
                                      userUtil,
                                      auditQueue);
+        auditProvider.setSpaceChangeTracker(spaceChangeTracker);
 
         if (storageProvider instanceof StorageProviderBase) {
             ((StorageProviderBase) storageProvider).setWrappedStorageProvider(auditProvider);
         }
 
-        StorageProvider aclProvider = new ACLStorageProvider(auditProvider, notifier, contextUtil);
+        ACLStorageProvider aclProvider = new ACLStorageProvider(auditProvider, notifier, contextUtil);
+        aclProvider.setSpaceACLCache(spaceACLCache);
         StorageProvider brokeredProvider =
             new BrokeredStorageProvider(statelessProvider,
                                         aclProvider,
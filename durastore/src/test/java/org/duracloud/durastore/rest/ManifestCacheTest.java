@@ -0,0 +1,80 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.durastore.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Tests the ManifestCache
+ */
+public class ManifestCacheTest {
+
+    private String key = ManifestCache.getKey("account", "store", "space", "tsv");
+
+    @Test
+    public void testGetKey() {
+        assertEquals(key, ManifestCache.getKey("account", "store", "space", "TSV"));
+    }
+
+    @Test
+    public void testUnchangedSpace() {
+        ManifestCache cache = new ManifestCache();
+        assertNull(cache.get(key, () -> 0));
+
+        ManifestCache.Entry entry = cache.add(key, "manifest-1", 0);
+        assertSame(entry, cache.get(key, () -> 0));
+    }
+
+    @Test
+    public void testChangedSpace() {
+        ManifestCache cache = new ManifestCache();
+        cache.add(key, "manifest-1", 0);
+        assertNull(cache.get(key, () -> 1));
+
+        // Removed entry is not restored by the original marker
+        assertNull(cache.get(key, () -> 0));
+    }
+
+    @Test
+    public void testUnsettledChange() {
+        ManifestCache cache = new ManifestCache(60000, 60000);
+        // Generated right after a change, which may not yet be in the manifest
+        long marker = System.currentTimeMillis();
+        cache.add(key, "manifest-1", marker);
+        assertNull(cache.get(key, () -> marker));
+
+        cache = new ManifestCache(60000, 0);
+        ManifestCache.Entry entry = cache.add(key, "manifest-1", marker);
+        assertSame(entry, cache.get(key, () -> marker));
+    }
+
+    @Test
+    public void testMaxAge() {
+        ManifestCache cache = new ManifestCache(-1, 0);
+        cache.add(key, "manifest-1", 0);
+        assertNull(cache.get(key, () -> 0));
+    }
+
+    @Test
+    public void testRemove() {
+        ManifestCache cache = new ManifestCache();
+        ManifestCache.Entry entry1 = cache.add(key, "manifest-1", 0);
+        ManifestCache.Entry entry2 = cache.add(key, "manifest-2", 0);
+
+        // Only the current entry is removed
+        cache.remove(key, entry1);
+        assertSame(entry2, cache.get(key, () -> 0));
+        cache.remove(key, entry2);
+        assertNull(cache.get(key, () -> 0));
+    }
+
+}
@@ -36,6 +36,7 @@ import org.duracloud.manifest.error.ManifestNotFoundException;
 import org.duracloud.storage.domain.StorageAccount;
 import org.duracloud.storage.domain.StorageProviderType;
 import org.duracloud.storage.provider.StorageProvider;
+import org.duracloud.storage.util.SpaceChangeTracker;
 import org.duracloud.storage.util.StorageProviderFactory;
 import org.easymock.EasyMockSupport;
 import org.easymock.IAnswer;
@@ -113,6 +114,8 @@ public class ManifestRestTest extends EasyMockSupport {
         expect(storageProviderFactory.getStorageAccounts()).andReturn(Arrays.asList(sa));
 
         expect(storageProviderFactory.getStorageProvider()).andReturn(provider);
+        expect(storageProviderFactory.getSpaceChangeTracker())
+            .andReturn(new SpaceChangeTracker());
 
         Map<String, String> props = new HashMap<>();
         props.put(HttpHeaders.CONTENT_ENCODING, "gzip");
@@ -144,6 +147,64 @@ public class ManifestRestTest extends EasyMockSupport {
                    latch.await(10000, TimeUnit.MILLISECONDS));
     }
 
+    @Test
+    public void generateAsyncUnchanged() throws Exception {
+        String format = ManifestFormat.TSV.name();
+        SpaceChangeTracker tracker = new SpaceChangeTracker();
+        CountDownLatch latch = new CountDownLatch(2);
+
+        expect(request.getAttribute(Constants.ACCOUNT_ID_ATTRIBUTE))
+            .andReturn(account).times(3);
+        expect(request.getAttribute(Constants.SERVER_HOST)).andReturn("host").times(3);
+        expect(request.getAttribute(Constants.SERVER_PORT)).andReturn(443).times(3);
+        expect(request.getContextPath()).andReturn("/context").times(3);
+
+        // The manifest is generated only for the first and third requests
+        expectGetManifest(format).times(2);
+
+        StorageAccount sa = createMock("StorageAccount", StorageAccount.class);
+        expect(sa.getId()).andReturn(storeId).times(3);
+        expect(sa.getType()).andReturn(StorageProviderType.AMAZON_S3).times(3);
+        expect(storageProviderFactory.getStorageAccounts())
+            .andReturn(Arrays.asList(sa)).times(3);
+        expect(storageProviderFactory.getStorageProvider()).andReturn(provider).times(3);
+        expect(storageProviderFactory.getSpaceChangeTracker()).andReturn(tracker).times(3);
+
+        expect(provider.addContent(isA(String.class),
+                                   isA(String.class),
+                                   eq(ManifestFormat.TSV.getMimeType()),
+                                   isA(Map.class),
+                                   anyLong(),
+                                   isA(String.class),
+                                   isA(InputStream.class)))
+            .andAnswer(() -> {
+                latch.countDown();
+                return "checksum";
+            }).times(2);
+        // Checked only if the first upload completes before the second request
+        expect(provider.getContentProperties(eq("x-duracloud-admin"), isA(String.class)))
+            .andReturn(new HashMap<>()).times(0, 1);
+
+        // Manifests are generated right after tracking starts, so no settle
+        // time is used
+        rest.setManifestCache(new ManifestCache(ManifestCache.DEFAULT_MAX_AGE, 0));
+
+        replayAll();
+        URI first = rest.generateManifest(spaceId, format, storeId).getLocation();
+
+        // No change to the space, the same manifest is provided
+        URI second = rest.generateManifest(spaceId, format, storeId).getLocation();
+        assertEquals(first, second);
+
+        // Space has changed, a new manifest is generated
+        tracker.spaceChanged(storeId, spaceId);
+        Response response = rest.generateManifest(spaceId, format, storeId);
+        assertEquals(HttpStatus.SC_ACCEPTED, response.getStatus());
+
+        assertTrue("async generate and upload did not complete",
+                   latch.await(10000, TimeUnit.MILLISECONDS));
+    }
+
     protected IExpectationSetters<InputStream> expectGetManifest(String format)
         throws ManifestArgumentException,
         ManifestNotFoundException {
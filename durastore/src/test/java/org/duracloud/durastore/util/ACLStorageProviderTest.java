@@ -26,6 +26,7 @@ import org.duracloud.common.model.AclType;
 import org.duracloud.common.rest.DuraCloudRequestContextUtil;
 import org.duracloud.security.context.SecurityContextUtil;
 import org.duracloud.security.impl.DuracloudUserDetails;
+import org.duracloud.security.impl.SpaceACLCache;
 import org.duracloud.storage.provider.StorageProvider;
 import org.junit.After;
 import org.junit.Assert;
@@ -99,6 +100,7 @@ public class ACLStorageProviderTest {
 
         mockProvider.createSpace(spaceId);
         expectLastCall().once();
+        setupNotification();
 
         replayMocks();
 
@@ -237,6 +239,7 @@ public class ACLStorageProviderTest {
 
         // method under test
         provider = createProvider();
+        waitForCacheLoad();
         Map<String, AclType> acls = provider.getSpaceACLs(spaceId);
         Assert.assertNotNull(acls);
         Assert.assertEquals(new HashMap<String, String>(), acls);
@@ -269,14 +272,24 @@ public class ACLStorageProviderTest {
 
         replayMocks();
 
+        SpaceACLCache spaceACLCache = new SpaceACLCache();
+        spaceACLCache.putSpaceACLs("account", null, spaceId, createSpaceACLs());
+        spaceACLCache.putSpaceACLs("account", null, spacePrefix + 3, createSpaceACLs());
+
         // method under test
         provider = createProvider();
+        provider.setSpaceACLCache(spaceACLCache);
+        waitForCacheLoad();
         provider.setSpaceACLs(spaceId, origAcls);
 
         // getting ACLs should only hit the cache.
         Map<String, AclType> acls = provider.getSpaceACLs(spaceId);
         Assert.assertNotNull(acls);
         Assert.assertEquals(origAcls, acls);
+
+        // the authorization cache of this node no longer has the old ACLs
+        Assert.assertNull(spaceACLCache.getSpaceACLs("account", null, spaceId));
+        Assert.assertNotNull(spaceACLCache.getSpaceACLs("account", null, spacePrefix + 3));
     }
 
     @Test
@@ -288,15 +301,70 @@ public class ACLStorageProviderTest {
             .andReturn(new HashMap<String, AclType>());
         mockProvider.deleteSpace(spaceId);
         expectLastCall().once();
+        setupNotification();
 
         replayMocks();
 
         // method under test
         provider = createProvider();
+        waitForCacheLoad();
         provider.deleteSpace(spaceId);
 
-        // wait for cache to be cleared and reloaded.
+        // cache is cleared, ACLs are loaded on demand
         provider.getSpaceACLs(spaceId);
+
+        // wait for cache to be reloaded.
+        waitForCacheLoad();
+    }
+
+    @Test
+    public void testGetSpaceACLsBeforeCacheLoad() throws Exception {
+        String spaceId = spacePrefix + 2;
+        createMockStorageProvider(1);
+        replayMocks();
+
+        provider = createProvider();
+
+        // ACLs are available without waiting for all spaces to load
+        Map<String, AclType> acls = provider.getSpaceACLs(spaceId);
+        Assert.assertEquals(1, acls.size());
+
+        // each space is retrieved from the target provider only once
+        waitForCacheLoad();
+        Assert.assertEquals(acls, provider.getSpaceACLs(spaceId));
+    }
+
+    @Test
+    public void testRefreshStaleACLs() throws Exception {
+        String spaceId = spacePrefix + 2;
+        createMockStorageProvider(1);
+        Map<String, AclType> updatedAcls = createSpaceACLs();
+        expect(mockProvider.getSpaceACLs(spaceId)).andReturn(updatedAcls);
+        replayMocks();
+
+        provider = createProvider();
+        waitForCacheLoad();
+        provider.setRefreshInterval(0);
+        Thread.sleep(10);
+
+        // Stale ACLs are returned right away, and refreshed in the background
+        Map<String, AclType> acls = provider.getSpaceACLs(spaceId);
+        Assert.assertEquals(1, acls.size());
+        Assert.assertEquals(AclType.READ, acls.get(PROPERTIES_SPACE_ACL + username));
+        provider.setRefreshInterval(ACLStorageProvider.ACL_REFRESH_INTERVAL_MS);
+
+        for (int i = 0; i < 100 && !updatedAcls.equals(acls); i++) {
+            Thread.sleep(50);
+            acls = provider.getSpaceACLs(spaceId);
+        }
+        Assert.assertEquals(updatedAcls, acls);
+    }
+
+    private void waitForCacheLoad() throws InterruptedException {
+        for (int i = 0; i < 100 && !provider.isLoaded(); i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(provider.isLoaded());
     }
 
 }
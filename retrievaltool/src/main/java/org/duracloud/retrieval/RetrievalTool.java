@@ -96,6 +96,7 @@ public class RetrievalTool {
                                           outWriter,
                                           createSpaceDir,
                                           applyTimestamps);
+        retManager.setRangeThreads(retConfig.getRangeThreads());
 
         executor.execute(retManager);
     }
@@ -31,6 +31,7 @@ public class RetrievalToolConfig implements Serializable {
     private File workDir;
     private boolean overwrite;
     private int numThreads;
+    private int rangeThreads;
     private String version;
     private boolean applyTimestamps;
     private boolean listOnly;
@@ -76,6 +77,11 @@ public class RetrievalToolConfig implements Serializable {
         config.append("Retrieval Tool List Content Only: ");
         config.append(isListOnly()).append("\n");
 
+        if (rangeThreads > 1) {
+            config.append("Retrieval Tool Threads Per Large File: ");
+            config.append(getRangeThreads()).append("\n");
+        }
+
         if (listFile != null) {
             config.append("Retrieval Tool content ID 'list file': ");
             config.append(listFile.getAbsolutePath()).append("\n");
@@ -182,6 +188,14 @@ public class RetrievalToolConfig implements Serializable {
         this.numThreads = numThreads;
     }
 
+    public int getRangeThreads() {
+        return rangeThreads;
+    }
+
+    public void setRangeThreads(int rangeThreads) {
+        this.rangeThreads = rangeThreads;
+    }
+
     public void setVersion(String version) {
         this.version = version;
     }
@@ -130,6 +130,15 @@ public class RetrievalToolConfigParser {
         numThreads.setRequired(false);
         cmdOptions.addOption(numThreads);
 
+        Option rangeThreads =
+            new Option("g", "range-threads", true,
+                       "the number of connections used to retrieve each " +
+                       "non-chunked file larger than 8 MB as a set of " +
+                       "concurrent byte ranges (optional, not set by " +
+                       "default, each file is retrieved over one connection)");
+        rangeThreads.setRequired(false);
+        cmdOptions.addOption(rangeThreads);
+
         Option disableTimestamps =
             new Option("d", "disable-timestamps", false,
                        "indicates that timestamp information found as content " +
@@ -293,6 +302,15 @@ public class RetrievalToolConfigParser {
             config.setNumThreads(DEFAULT_NUM_THREADS);
         }
 
+        if (cmd.hasOption("g")) {
+            try {
+                config.setRangeThreads(Integer.valueOf(cmd.getOptionValue("g")));
+            } catch (NumberFormatException e) {
+                throw new ParseException("The value for range-threads (-g) " +
+                                         "must be a number.");
+            }
+        }
+
         if (cmd.hasOption("d")) {
             config.setApplyTimestamps(false);
         } else {
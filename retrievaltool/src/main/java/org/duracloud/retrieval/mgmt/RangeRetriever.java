@@ -0,0 +1,301 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.retrieval.mgmt;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.duracloud.client.ContentStore;
+import org.duracloud.common.model.ContentItem;
+import org.duracloud.common.retry.Retrier;
+import org.duracloud.common.util.ChecksumUtil;
+import org.duracloud.retrieval.source.ContentStream;
+import org.duracloud.retrieval.source.RetrievalSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retrieves a single content item by fetching byte ranges of the item
+ * concurrently, each over its own connection. Each range is written directly
+ * to its position in a file which is preallocated to the full content size.
+ *
+ * The MD5 checksum of the content is computed as the ranges arrive, in
+ * order, so the file does not need to be read again to verify it. To allow
+ * this, completed ranges are held in memory until all preceding ranges have
+ * been added to the checksum; no more than twice the number of threads are
+ * in progress or held at any time.
+ *
+ * When the size of the content is not known in advance, the first range is
+ * requested on its own: a first range which is shorter than the range size
+ * is the complete content, so small items are retrieved in a single request.
+ */
+public class RangeRetriever {
+
+    public static final long DEFAULT_RANGE_SIZE = 8 * 1024 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(RangeRetriever.class);
+
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger(0);
+
+    private RetrievalSource source;
+    private ContentItem contentItem;
+    private int threads;
+    private long rangeSize;
+    private RetrievalListener listener;
+    private Map<String, String> properties;
+
+    /**
+     * @param source      from which content is retrieved, must support ranges
+     * @param contentItem the item to retrieve
+     * @param threads     number of ranges to retrieve concurrently
+     * @param rangeSize   number of bytes in each range
+     */
+    public RangeRetriever(RetrievalSource source,
+                          ContentItem contentItem,
+                          int threads,
+                          long rangeSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be greater than 0");
+        }
+        if (rangeSize < 1 || rangeSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("rangeSize must be between 1 " +
+                                               "and " + Integer.MAX_VALUE);
+        }
+        this.source = source;
+        this.contentItem = contentItem;
+        this.threads = threads;
+        this.rangeSize = rangeSize;
+    }
+
+    /**
+     * @param listener notified, in order, as each range is retrieved
+     */
+    public void setListener(RetrievalListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the properties of the content found while retrieving content
+     * of unknown size, or null if none were needed
+     */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Retrieves content of unknown size to the local file, replacing any
+     * existing contents of the file. The size is determined by retrieving the
+     * first range, and then only if that range is complete, from the content
+     * properties. The properties found are available from getProperties().
+     *
+     * @param localFile file to which content is written
+     * @return the MD5 checksum of the retrieved content, or null if the size
+     * of the content could not be determined, in which case nothing has been
+     * written to the local file
+     * @throws IOException if any range cannot be retrieved or written
+     */
+    public String retrieve(File localFile) throws IOException {
+        ContentStream firstRange;
+        byte[] firstRangeData;
+        try {
+            firstRange = source.getSourceContentRange(contentItem, 0, rangeSize - 1);
+            firstRangeData = readRange(firstRange, rangeSize);
+        } catch (Exception e) {
+            // Includes content which is empty, so has no first range
+            logger.debug("Unable to retrieve first range of {} due to: {}",
+                         contentItem, e.getMessage());
+            return null;
+        }
+
+        long contentSize = firstRangeData.length;
+        properties = firstRange.getProperties();
+        if (contentSize == rangeSize) {
+            try {
+                properties = new Retrier(5, 4000, 3).execute(() -> {
+                    return source.getSourceProperties(contentItem);
+                });
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+            contentSize = getContentSize(properties);
+            if (contentSize < rangeSize) {
+                logger.warn("Unable to determine size of {}", contentItem);
+                return null;
+            }
+        }
+        return retrieve(localFile, contentSize, firstRangeData);
+    }
+
+    /**
+     * Retrieves the content to the local file, replacing any existing
+     * contents of the file.
+     *
+     * @param localFile   file to which content is written
+     * @param contentSize total size of the content, in bytes
+     * @return the MD5 checksum of the retrieved content
+     * @throws IOException if any range cannot be retrieved or written
+     */
+    public String retrieve(File localFile, long contentSize) throws IOException {
+        return retrieve(localFile, contentSize, null);
+    }
+
+    private String retrieve(File localFile, long contentSize, byte[] firstRangeData)
+        throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(ChecksumUtil.Algorithm.MD5.toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        long rangeCount = (contentSize + rangeSize - 1) / rangeSize;
+        int window = threads * 2;
+        ExecutorService pool = createPool();
+        try (RandomAccessFile file = new RandomAccessFile(localFile, "rw")) {
+            file.setLength(contentSize);
+            FileChannel channel = file.getChannel();
+
+            Deque<Future<byte[]>> pending = new ArrayDeque<>();
+            long nextRange = 0;
+            if (null != firstRangeData && rangeCount > 0) {
+                write(channel, firstRangeData, 0);
+                digest.update(firstRangeData);
+                rangeRetrieved(0, contentSize);
+                nextRange = 1;
+            }
+            long completedRange = nextRange;
+            for (; nextRange < rangeCount && pending.size() < window; nextRange++) {
+                pending.add(pool.submit(rangeTask(channel, nextRange, contentSize)));
+            }
+
+            while (!pending.isEmpty()) {
+                byte[] rangeData = getRange(pending.poll());
+                digest.update(rangeData);
+                rangeRetrieved(completedRange++, contentSize);
+                if (nextRange < rangeCount) {
+                    pending.add(pool.submit(rangeTask(channel, nextRange++, contentSize)));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        logger.debug("Retrieved {} in {} ranges", contentItem, rangeCount);
+        return ChecksumUtil.checksumBytesToString(digest.digest());
+    }
+
+    private void rangeRetrieved(long range, long contentSize) {
+        if (null != listener) {
+            long startByte = range * rangeSize;
+            long endByte = Math.min(startByte + rangeSize, contentSize) - 1;
+            listener.rangeRetrieved(startByte, endByte, contentSize);
+        }
+    }
+
+    private long getContentSize(Map<String, String> properties) {
+        String size = null == properties ? null :
+                      properties.get(ContentStore.CONTENT_SIZE);
+        if (null != size) {
+            try {
+                return Long.parseLong(size);
+            } catch (NumberFormatException e) {
+                logger.warn("Unable to parse size {} of {}", size, contentItem);
+            }
+        }
+        return -1;
+    }
+
+    private ExecutorService createPool() {
+        final String name = "range-retrieval-" + POOL_COUNT.incrementAndGet();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private byte[] getRange(Future<byte[]> range) throws IOException {
+        try {
+            return range.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while retrieving " + contentItem, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Unable to retrieve range of " + contentItem +
+                                  " due to: " + cause.getMessage(), cause);
+        }
+    }
+
+    /*
+     * Retrieves a single range, writes it to the file, and returns its bytes
+     */
+    private Callable<byte[]> rangeTask(final FileChannel channel,
+                                       final long range,
+                                       final long contentSize) {
+        final long startByte = range * rangeSize;
+        final long endByte = Math.min(startByte + rangeSize, contentSize) - 1;
+        return () -> {
+            byte[] rangeData = new Retrier(5, 4000, 3).execute(() -> {
+                ContentStream content =
+                    source.getSourceContentRange(contentItem, startByte, endByte);
+                byte[] data = readRange(content, endByte - startByte + 1);
+                if (data.length != endByte - startByte + 1) {
+                    throw new IOException("Range " + startByte + "-" + endByte +
+                                          " of " + contentItem + " is incomplete");
+                }
+                return data;
+            });
+
+            write(channel, rangeData, startByte);
+            return rangeData;
+        };
+    }
+
+    /*
+     * Reads up to the given number of bytes of a range, fewer only if the
+     * range stream ends first
+     */
+    private byte[] readRange(ContentStream content, long length) throws IOException {
+        byte[] data = new byte[(int) length];
+        int read;
+        try (InputStream stream = content.getStream()) {
+            read = IOUtils.read(stream, data);
+        }
+        return read == data.length ? data : Arrays.copyOf(data, read);
+    }
+
+    private void write(FileChannel channel, byte[] data, long position)
+        throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+}
@@ -23,4 +23,16 @@ public interface RetrievalListener {
      * @param chunkId the content id of the retrieved chunk
      */
     void chunkRetrieved(String chunkId);
+
+    /**
+     * Indicates that the specified byte range of the content has been
+     * retrieved. This method is only called by ranged retrievals, in the
+     * order of the ranges.
+     *
+     * @param startByte   the first byte of the range
+     * @param endByte     the last byte of the range (inclusive)
+     * @param contentSize the total size of the content
+     */
+    default void rangeRetrieved(long startByte, long endByte, long contentSize) {
+    }
 }
@@ -41,6 +41,7 @@ public class RetrievalManager implements Runnable {
     private OutputWriter outWriter;
     private boolean createSpaceDir;
     private boolean applyTimestamps;
+    private int rangeThreads = 0;
     private boolean complete;
     private Phaser phaser;
 
@@ -72,6 +73,15 @@ public class RetrievalManager implements Runnable {
                                    new ThreadPoolExecutor.AbortPolicy());
     }
 
+    /**
+     * @param rangeThreads number of byte ranges of a single large file to
+     *                     retrieve concurrently, values less than 2 disable
+     *                     ranged retrieval
+     */
+    public void setRangeThreads(int rangeThreads) {
+        this.rangeThreads = rangeThreads;
+    }
+
     /**
      * Begins the content retrieval process
      */
@@ -118,6 +128,7 @@ public class RetrievalManager implements Runnable {
                                                          outWriter,
                                                          createSpaceDir,
                                                          applyTimestamps);
+            worker.setRangeThreads(rangeThreads);
             phaser.register();
             CompletableFuture.runAsync(worker, workerPool)
                              .thenRun(phaser::arriveAndDeregister);
@@ -57,6 +57,8 @@ public class RetrievalWorker implements Runnable {
     private int attempts;
     private File localFile;
     private ContentStream contentStream;
+    private int rangeThreads = 0;
+    private long rangeSize = RangeRetriever.DEFAULT_RANGE_SIZE;
 
     private StatusManager statusManager;
 
@@ -81,6 +83,22 @@ public class RetrievalWorker implements Runnable {
         this.attempts = 0;
     }
 
+    /**
+     * Enables retrieval of large files as concurrent byte ranges, when
+     * supported by the retrieval source.
+     *
+     * @param rangeThreads number of ranges of a single file to retrieve
+     *                     concurrently, a value less than 2 disables ranged
+     *                     retrieval
+     */
+    public void setRangeThreads(int rangeThreads) {
+        this.rangeThreads = rangeThreads;
+    }
+
+    protected void setRangeSize(long rangeSize) {
+        this.rangeSize = rangeSize;
+    }
+
     public void run() {
         try {
             statusManager.startingWork();
@@ -110,7 +128,7 @@ public class RetrievalWorker implements Runnable {
                     } else {
                         renameFile(localFile);
                     }
-                    props = retrieveToFile(localFile, listener);
+                    props = retrieveToFile(localFile, listener, props);
                     succeed(localFile.getAbsolutePath());
                 }
             } else { // File does not exist
@@ -234,6 +252,24 @@ public class RetrievalWorker implements Runnable {
      * otherwise an IOException is thrown.
      */
     protected Map<String, String> retrieveToFile(File localFile, RetrievalListener listener) throws IOException {
+        return retrieveToFile(localFile, listener, null);
+    }
+
+    /*
+     * Transfers the remote file to the local file, given the remote
+     * properties when they are already known
+     */
+    protected Map<String, String> retrieveToFile(File localFile,
+                                                 RetrievalListener listener,
+                                                 Map<String, String> properties)
+        throws IOException {
+        if (rangeThreads > 1 && source.supportsRanges(contentItem)) {
+            Map<String, String> rangeProperties =
+                retrieveRangesToFile(localFile, listener, properties);
+            if (null != rangeProperties) {
+                return rangeProperties;
+            }
+        }
 
         try {
             contentStream = new Retrier(5, 4000, 3).execute(() -> {
@@ -273,6 +309,72 @@ public class RetrievalWorker implements Runnable {
         return contentStream.getProperties();
     }
 
+    /*
+     * Retrieves the file as a set of concurrently transferred byte ranges.
+     * The checksum is computed during the transfer. When the size of the
+     * file is not known from the given properties, the first range is used
+     * to find it, rather than a separate properties request. Returns null,
+     * without writing to the file, if the size cannot be determined.
+     */
+    protected Map<String, String> retrieveRangesToFile(File localFile,
+                                                       RetrievalListener listener,
+                                                       Map<String, String> properties)
+        throws IOException {
+        RangeRetriever retriever =
+            new RangeRetriever(source, contentItem, rangeThreads, rangeSize);
+        retriever.setListener(listener);
+
+        long contentSize = getContentSize(properties);
+        String localChecksum;
+        try {
+            if (contentSize < 0) {
+                localChecksum = retriever.retrieve(localFile);
+                if (null == localChecksum) {
+                    return null;
+                }
+                properties = retriever.getProperties();
+            } else {
+                localChecksum = retriever.retrieve(localFile, contentSize);
+            }
+        } catch (IOException e) {
+            try {
+                deleteFile(localFile);
+            } catch (IOException ioe) {
+                logger.error("Exception deleting local file " +
+                             localFile.getAbsolutePath() + " due to: " + ioe.getMessage());
+            }
+            throw e;
+        }
+
+        contentStream = new ContentStream(null, properties);
+        if (!localChecksum.equals(contentStream.getChecksum())) {
+            deleteFile(localFile);
+            throw new IOException("Calculated checksum value for retrieved " +
+                                  "file does not match properties checksum.");
+        }
+
+        if (applyTimestamps) {
+            applyTimestamps(contentStream, localFile);
+        }
+        return properties;
+    }
+
+    /*
+     * Returns the size of the content, or -1 if the size is not known
+     */
+    private long getContentSize(Map<String, String> properties) {
+        String size = null == properties ? null :
+                      properties.get(ContentStore.CONTENT_SIZE);
+        if (null != size) {
+            try {
+                return Long.parseLong(size);
+            } catch (NumberFormatException e) {
+                logger.warn("Unable to parse size {} of {}", size, contentItem);
+            }
+        }
+        return -1;
+    }
+
     /*
      * Applies timestamps which are found in the content item's properties
      * to the retrieved file
@@ -134,6 +134,32 @@ public class DuraStoreRetrievalSource implements RetrievalSource {
         return new ContentStream(content.getStream(), content.getProperties());
     }
 
+    @Override
+    public boolean supportsRanges(ContentItem contentItem) {
+        return true;
+    }
+
+    @Override
+    public ContentStream getSourceContentRange(ContentItem contentItem,
+                                               long startByte,
+                                               long endByte) {
+        if (!supportsRanges(contentItem)) {
+            throw new UnsupportedOperationException(
+                "Retrieval of content ranges is not supported for " + contentItem);
+        }
+        try {
+            Content content = contentStore.getContent(contentItem.getSpaceId(),
+                                                      contentItem.getContentId(),
+                                                      startByte,
+                                                      endByte);
+            return new ContentStream(content.getStream(), content.getProperties());
+        } catch (ContentStoreException e) {
+            throw new RuntimeException("Unable to get content range " + startByte +
+                                       "-" + endByte + " for " + contentItem.toString() +
+                                       " due to: " + e.getMessage());
+        }
+    }
+
     protected Content doGetContent(ContentItem contentItem, RetrievalListener listener) {
         try {
             return contentStore.getContent(contentItem.getSpaceId(),
@@ -39,6 +39,10 @@ public class DuraStoreStitchingRetrievalSource extends DuraStoreRetrievalSource
     private final Logger log = LoggerFactory.getLogger(
         DuraStoreStitchingRetrievalSource.class);
 
+    // Number of chunks retrieved (into temp files) while the current chunk
+    // of a stitched file is read. Each retrieval worker may hold this many.
+    private static final int CHUNK_READ_AHEAD = 1;
+
     private FileStitcher stitcher;
     private ChunkUtil chunkUtil;
 
@@ -46,7 +50,8 @@ public class DuraStoreStitchingRetrievalSource extends DuraStoreRetrievalSource
                                              List<String> spaces,
                                              boolean allSpaces) {
         super(store, spaces, allSpaces);
-        this.stitcher = new FileStitcherImpl(new DuraStoreDataSource(store));
+        this.stitcher = new FileStitcherImpl(new DuraStoreDataSource(store),
+                                             CHUNK_READ_AHEAD);
         this.chunkUtil = new ChunkUtil();
     }
 
@@ -84,6 +89,16 @@ public class DuraStoreStitchingRetrievalSource extends DuraStoreRetrievalSource
         }
     }
 
+    /**
+     * Chunked content is retrieved by stitching together its chunks, so
+     * ranges are not supported for chunk manifests.
+     */
+    @Override
+    public boolean supportsRanges(ContentItem contentItem) {
+        return !chunkUtil.isChunkManifest(contentItem.getContentId()) &&
+               !chunkUtil.isChunk(contentItem.getContentId());
+    }
+
     @Override
     protected Content doGetContent(ContentItem item, RetrievalListener listener) {
         log.debug("enter doGetContent: {}", item);
@@ -64,4 +64,29 @@ public interface RetrievalSource {
      */
     public ContentStream getSourceContent(ContentItem contentItem, RetrievalListener listener);
 
+    /**
+     * Indicates whether byte ranges of the specified content item can be
+     * retrieved using getSourceContentRange().
+     *
+     * @param contentItem the file to consider
+     * @return true if ranges of the file can be retrieved
+     */
+    default public boolean supportsRanges(ContentItem contentItem) {
+        return false;
+    }
+
+    /**
+     * Gets a byte range of the actual content. Only called for content items
+     * for which supportsRanges() is true; sources which support no ranges
+     * should throw UnsupportedOperationException.
+     *
+     * @param contentItem the file to retrieve
+     * @param startByte   the first byte of the range
+     * @param endByte     the last byte of the range (inclusive)
+     * @return content stream of the specified range of the file
+     */
+    public ContentStream getSourceContentRange(ContentItem contentItem,
+                                               long startByte,
+                                               long endByte);
+
 }
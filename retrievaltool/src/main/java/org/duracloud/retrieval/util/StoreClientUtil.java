@@ -8,6 +8,7 @@
 package org.duracloud.retrieval.util;
 
 import org.duracloud.client.ContentStore;
+import org.duracloud.client.ContentStoreImpl;
 import org.duracloud.client.ContentStoreManager;
 import org.duracloud.client.ContentStoreManagerImpl;
 import org.duracloud.common.model.Credential;
@@ -43,6 +44,11 @@ public class StoreClientUtil {
                                        "DuraStore due to " + e.getMessage(), e);
         }
 
+        // Space listings are walked in full, so fetch ahead
+        if (contentStore instanceof ContentStoreImpl) {
+            ((ContentStoreImpl) contentStore).setPrefetchSpaceContents(true);
+        }
+
         return contentStore;
     }
 
@@ -66,6 +66,7 @@ public class RetrievalToolConfigParserTest extends RetrievalTestBase {
         argsMap.remove("-a");
         argsMap.remove("-o");
         argsMap.remove("-t");
+        argsMap.remove("-g");
         argsMap.remove("-d");
         argsMap.remove("-l");
         argsMap.remove("-w");
@@ -76,6 +77,7 @@ public class RetrievalToolConfigParserTest extends RetrievalTestBase {
                      retConfig.getPort());
         assertEquals(RetrievalToolConfigParser.DEFAULT_NUM_THREADS,
                      retConfig.getNumThreads());
+        assertEquals(0, retConfig.getRangeThreads());
         assertEquals(false, retConfig.isAllSpaces());
         assertEquals(false, retConfig.isOverwrite());
         assertEquals(true, retConfig.isApplyTimestamps());
@@ -95,6 +97,8 @@ public class RetrievalToolConfigParserTest extends RetrievalTestBase {
         addArgFailTest(retConfigParser, argsMap, "-r", "nonNum", failMsg);
         failMsg = "Threads arg should require a numerical value";
         addArgFailTest(retConfigParser, argsMap, "-t", "nonNum", failMsg);
+        failMsg = "Range threads arg should require a numerical value";
+        addArgFailTest(retConfigParser, argsMap, "-g", "nonNum", failMsg);
     }
 
     private HashMap<String, String> getArgsMap() {
@@ -109,6 +113,7 @@ public class RetrievalToolConfigParserTest extends RetrievalTestBase {
         argsMap.put("-w", tempDir.getAbsolutePath());
         argsMap.put("-o", "");
         argsMap.put("-t", "5");
+        argsMap.put("-g", "4");
         argsMap.put("-d", "");
         return argsMap;
     }
@@ -134,6 +139,8 @@ public class RetrievalToolConfigParserTest extends RetrievalTestBase {
         assertEquals(true, retConfig.isOverwrite());
         assertEquals(argsMap.get("-t"),
                      String.valueOf(retConfig.getNumThreads()));
+        assertEquals(argsMap.get("-g"),
+                     String.valueOf(retConfig.getRangeThreads()));
     }
 
     private String[] mapToArray(HashMap<String, String> map) {
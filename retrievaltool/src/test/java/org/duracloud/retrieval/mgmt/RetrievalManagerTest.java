@@ -92,6 +92,13 @@ public class RetrievalManagerTest extends RetrievalTestBase {
             return new ContentStream(stream, getSourceProperties(contentItem));
         }
 
+        @Override
+        public ContentStream getSourceContentRange(ContentItem contentItem,
+                                                   long startByte,
+                                                   long endByte) {
+            throw new UnsupportedOperationException();
+        }
+
         private InputStream getStream(String contentId) {
             return new ByteArrayInputStream(contentId.getBytes());
         }
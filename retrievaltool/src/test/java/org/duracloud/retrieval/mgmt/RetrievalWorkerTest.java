@@ -20,8 +20,13 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FileUtils;
 import org.duracloud.client.ContentStore;
@@ -218,6 +223,100 @@ public class RetrievalWorkerTest extends RetrievalTestBase {
         }
     }
 
+    @Test
+    public void testRetrieveRangesToFile() throws Exception {
+        int rangeSize = 1024 * 1024;
+        byte[] largeValue = new byte[rangeSize * 5 + 1000];
+        new Random(1).nextBytes(largeValue);
+        RangeRetrievalSource source = new RangeRetrievalSource(largeValue);
+        RetrievalWorker worker = createRangeRetrievalWorker(source, rangeSize);
+        List<Long> rangeEnds = new ArrayList<>();
+        RetrievalListener listener = createRangeListener(rangeEnds);
+
+        File localFile = createTempFile("retrieve-ranges-test");
+        Map<String, String> props = worker.retrieveToFile(localFile, listener);
+        assertNotNull(props);
+        assertTrue(Arrays.equals(largeValue, FileUtils.readFileToByteArray(localFile)));
+        // The full content was never requested as a single stream, and the
+        // size was only requested once the first range was found to be full
+        assertEquals(0, source.fullRequests);
+        assertEquals(6, source.rangeRequests.get());
+        assertEquals(1, source.propertiesRequests);
+        assertEquals(6, rangeEnds.size());
+        assertEquals(Long.valueOf(largeValue.length - 1), rangeEnds.get(5));
+
+        // Known properties, so no properties request
+        localFile = createTempFile("retrieve-ranges-props-test");
+        worker.retrieveToFile(localFile, null, source.getSourceProperties(null));
+        assertTrue(Arrays.equals(largeValue, FileUtils.readFileToByteArray(localFile)));
+        assertEquals(12, source.rangeRequests.get());
+        assertEquals(2, source.propertiesRequests);
+
+        // Mismatched checksum
+        source.checksum = "invalid-checksum";
+        localFile = createTempFile("retrieve-ranges-failure-test");
+        try {
+            worker.retrieveToFile(localFile, null);
+            fail("Exception expected with non-matching checksum");
+        } catch (IOException expected) {
+            assertFalse(localFile.exists());
+        }
+    }
+
+    @Test
+    public void testRetrieveRangesToFileSmall() throws Exception {
+        int rangeSize = 1024 * 1024;
+        byte[] smallValue = new byte[1000];
+        new Random(1).nextBytes(smallValue);
+        RangeRetrievalSource source = new RangeRetrievalSource(smallValue);
+        RetrievalWorker worker = createRangeRetrievalWorker(source, rangeSize);
+        List<Long> rangeEnds = new ArrayList<>();
+
+        // Content which fits in the first range needs no further requests
+        File localFile = createTempFile("retrieve-ranges-small-test");
+        Map<String, String> props =
+            worker.retrieveToFile(localFile, createRangeListener(rangeEnds));
+        assertNotNull(props);
+        assertTrue(Arrays.equals(smallValue, FileUtils.readFileToByteArray(localFile)));
+        assertEquals(0, source.fullRequests);
+        assertEquals(1, source.rangeRequests.get());
+        assertEquals(0, source.propertiesRequests);
+        assertEquals(Arrays.asList(999L), rangeEnds);
+
+        // Empty content has no first range, so is retrieved as a stream
+        source = new RangeRetrievalSource(new byte[0]);
+        source.failEmptyRanges = true;
+        worker = createRangeRetrievalWorker(source, rangeSize);
+        localFile = createTempFile("retrieve-ranges-empty-test");
+        worker.retrieveToFile(localFile, null);
+        assertEquals(0, localFile.length());
+        assertEquals(1, source.fullRequests);
+    }
+
+    private RetrievalWorker createRangeRetrievalWorker(RetrievalSource source,
+                                                       int rangeSize) {
+        RetrievalWorker worker =
+            new RetrievalWorker(new ContentItem(spaceId, contentId), source,
+                                tempDir, true, createMockOutputWriter(), true, false);
+        worker.setRangeThreads(3);
+        worker.setRangeSize(rangeSize);
+        return worker;
+    }
+
+    private RetrievalListener createRangeListener(final List<Long> rangeEnds) {
+        return new RetrievalListener() {
+            @Override
+            public void chunkRetrieved(String chunkId) {
+                fail("No chunks expected");
+            }
+
+            @Override
+            public void rangeRetrieved(long startByte, long endByte, long contentSize) {
+                rangeEnds.add(endByte);
+            }
+        };
+    }
+
     @Test
     public void testApplyTimestamps() throws Exception {
         String time1 = DateUtil.convertToStringLong(testTime + 100000);
@@ -344,6 +443,68 @@ public class RetrievalWorkerTest extends RetrievalTestBase {
             return new ContentStream(stream, getSourceProperties(contentItem));
         }
 
+        @Override
+        public ContentStream getSourceContentRange(ContentItem contentItem,
+                                                   long startByte,
+                                                   long endByte) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    /*
+     * A retrieval source which provides ranges of the given content
+     */
+    private class RangeRetrievalSource extends MockRetrievalSource {
+        private byte[] value;
+        private String checksum;
+        private int fullRequests = 0;
+        private int propertiesRequests = 0;
+        private boolean failEmptyRanges = false;
+        private AtomicInteger rangeRequests = new AtomicInteger(0);
+
+        RangeRetrievalSource(byte[] value) {
+            this.value = value;
+            ChecksumUtil checksumUtil = new ChecksumUtil(ChecksumUtil.Algorithm.MD5);
+            this.checksum = checksumUtil.generateChecksum(new ByteArrayInputStream(value));
+        }
+
+        @Override
+        public Map<String, String> getSourceProperties(ContentItem contentItem) {
+            propertiesRequests++;
+            return getProperties();
+        }
+
+        private Map<String, String> getProperties() {
+            Map<String, String> props = new HashMap<>();
+            props.put(ContentStore.CONTENT_CHECKSUM, checksum);
+            props.put(ContentStore.CONTENT_SIZE, String.valueOf(value.length));
+            return props;
+        }
+
+        @Override
+        public ContentStream getSourceContent(ContentItem contentItem, RetrievalListener listener) {
+            fullRequests++;
+            return new ContentStream(new ByteArrayInputStream(value), getProperties());
+        }
+
+        @Override
+        public boolean supportsRanges(ContentItem contentItem) {
+            return true;
+        }
+
+        @Override
+        public ContentStream getSourceContentRange(ContentItem contentItem,
+                                                   long startByte,
+                                                   long endByte) {
+            rangeRequests.incrementAndGet();
+            if (failEmptyRanges && startByte >= value.length) {
+                throw new RuntimeException("Range not satisfiable");
+            }
+            InputStream stream =
+                new ByteArrayInputStream(value, (int) startByte, (int) (endByte - startByte + 1));
+            return new ContentStream(stream, getProperties());
+        }
     }
 
     /*
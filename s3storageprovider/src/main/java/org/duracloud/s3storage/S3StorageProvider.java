@@ -12,36 +12,56 @@ import static org.apache.http.HttpHeaders.CONTENT_ENCODING;
 import static org.duracloud.storage.error.StorageException.NO_RETRY;
 import static org.duracloud.storage.error.StorageException.RETRY;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.AccessControlList;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.Bucket;
 import com.amazonaws.services.s3.model.BucketLifecycleConfiguration;
 import com.amazonaws.services.s3.model.BucketTaggingConfiguration;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.model.CopyObjectResult;
 import com.amazonaws.services.s3.model.DeletePublicAccessBlockRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.S3Object;
@@ -49,6 +69,7 @@ import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.SetBucketOwnershipControlsRequest;
 import com.amazonaws.services.s3.model.StorageClass;
 import com.amazonaws.services.s3.model.TagSet;
+import com.amazonaws.services.s3.model.UploadPartRequest;
 import com.amazonaws.services.s3.model.ownership.ObjectOwnership;
 import com.amazonaws.services.s3.model.ownership.OwnershipControls;
 import com.amazonaws.services.s3.model.ownership.OwnershipControlsRule;
@@ -57,10 +78,12 @@ import org.apache.http.HttpStatus;
 import org.duracloud.common.model.AclType;
 import org.duracloud.common.stream.ChecksumInputStream;
 import org.duracloud.common.util.ChecksumUtil;
+import org.duracloud.common.util.ChecksumUtil.Algorithm;
 import org.duracloud.common.util.DateUtil;
 import org.duracloud.storage.domain.ContentByteRange;
 import org.duracloud.storage.domain.ContentIterator;
 import org.duracloud.storage.domain.RetrievedContent;
+import org.duracloud.storage.domain.StorageAccount.OPTS;
 import org.duracloud.storage.domain.StorageProviderType;
 import org.duracloud.storage.error.ChecksumMismatchException;
 import org.duracloud.storage.error.NotFoundException;
@@ -91,9 +114,32 @@ public class S3StorageProvider extends StorageProviderBase {
     protected static final String HEADER_VALUE_PREFIX = UTF_8 + "''";
     protected static final String HEADER_KEY_SUFFIX = "*";
 
+    // Content of at least this size is added using a multipart upload
+    protected static final long DEFAULT_MULTIPART_THRESHOLD = 128L * 1024 * 1024;
+    protected static final long DEFAULT_MULTIPART_PART_SIZE = 16L * 1024 * 1024;
+    protected static final int DEFAULT_MULTIPART_THREADS = 4;
+    // Limits imposed by S3 on multipart uploads
+    protected static final long MIN_MULTIPART_PART_SIZE = 5L * 1024 * 1024;
+    protected static final int MAX_MULTIPART_PARTS = 10000;
+    protected static final int MAX_PART_ATTEMPTS = 3;
+
+    // The bucket name may use any access key ID as the prefix, so the
+    // space ID is everything following the 20 character prefix
+    private static final Pattern SPACE_BUCKET_PATTERN =
+        Pattern.compile("(?:" + HIDDEN_SPACE_PREFIX + ")?[\\w]{20}[.](.+)");
+
     protected String accessKeyId = null;
     protected AmazonS3 s3Client = null;
 
+    private long multipartThreshold;
+    private long multipartPartSize;
+    private int multipartThreads;
+
+    // Space ID -> bucket name
+    private final Map<String, String> bucketNameCache = new ConcurrentHashMap<>();
+    // Bucket name -> bucket
+    private final Map<String, Bucket> bucketCache = new ConcurrentHashMap<>();
+
     public S3StorageProvider(String accessKey, String secretKey) {
         this(S3ProviderUtil.getAmazonS3Client(accessKey, secretKey, null),
              accessKey,
@@ -113,6 +159,37 @@ public class S3StorageProvider extends StorageProviderBase {
                              Map<String, String> options) {
         this.accessKeyId = accessKey;
         this.s3Client = s3Client;
+
+        this.multipartThreshold = getNumericOption(options,
+                                                   OPTS.MULTIPART_THRESHOLD,
+                                                   DEFAULT_MULTIPART_THRESHOLD);
+        this.multipartPartSize = getNumericOption(options,
+                                                  OPTS.MULTIPART_PART_SIZE,
+                                                  DEFAULT_MULTIPART_PART_SIZE);
+        if (multipartPartSize < MIN_MULTIPART_PART_SIZE) {
+            log.warn("Multipart part size {} is below the S3 minimum, using {}",
+                     multipartPartSize, MIN_MULTIPART_PART_SIZE);
+            multipartPartSize = MIN_MULTIPART_PART_SIZE;
+        }
+        this.multipartThreads = (int) Math.max(1, getNumericOption(
+            options, OPTS.MULTIPART_THREADS, DEFAULT_MULTIPART_THREADS));
+    }
+
+    private long getNumericOption(Map<String, String> options,
+                                  OPTS option,
+                                  long defaultValue) {
+        if (null == options || null == options.get(option.name())) {
+            return defaultValue;
+        }
+
+        String value = options.get(option.name());
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            String err = "The provided " + option.name() + " value is invalid: " +
+                         value;
+            throw new StorageException(err, e);
+        }
     }
 
     /**
@@ -144,6 +221,51 @@ public class S3StorageProvider extends StorageProviderBase {
         return spaces.iterator();
     }
 
+    /**
+     * Reloads the space ID to bucket name mapping from the full S3 bucket
+     * listing. Existing entries are kept, as a newly created bucket may not
+     * yet be included in the listing; entries are removed by removeSpace()
+     * or clearBucketCache().
+     */
+    protected void refreshBucketCache() {
+        for (Bucket bucket : listAllBuckets()) {
+            String bucketName = bucket.getName();
+            Matcher matcher = SPACE_BUCKET_PATTERN.matcher(bucketName);
+            if (matcher.matches()) {
+                // Keep the first match, consistent with the listing order
+                bucketNameCache.putIfAbsent(matcher.group(1), bucketName);
+            }
+            bucketCache.put(bucketName, bucket);
+        }
+    }
+
+    /**
+     * Clears the space ID to bucket name mapping, forcing it to be reloaded
+     * on next use. Useful when buckets are added or removed outside of this
+     * provider.
+     */
+    public void clearBucketCache() {
+        bucketNameCache.clear();
+        bucketCache.clear();
+    }
+
+    /*
+     * Caches only the bucket name of a space: a bucket returned on creation
+     * has no creation date, so buckets are cached from the listing
+     */
+    protected void addToBucketCache(String spaceId, String bucketName) {
+        if (null != bucketName) {
+            bucketNameCache.put(spaceId, bucketName);
+        }
+    }
+
+    protected void removeFromBucketCache(String spaceId) {
+        String bucketName = bucketNameCache.remove(spaceId);
+        if (null != bucketName) {
+            bucketCache.remove(bucketName);
+        }
+    }
+
     private List<Bucket> listAllBuckets() {
         try {
             return s3Client.listBuckets();
@@ -241,6 +363,8 @@ public class S3StorageProvider extends StorageProviderBase {
             created = new Date();
         }
 
+        addToBucketCache(spaceId, bucket.getName());
+
         // enable ACLs
         final var bucketName = bucket.getName();
         s3Client.deletePublicAccessBlock(new DeletePublicAccessBlockRequest()
@@ -385,6 +509,8 @@ public class S3StorageProvider extends StorageProviderBase {
             String err = "Could not delete S3 bucket with name " + bucketName
                          + " due to error: " + e.getMessage();
             throw new StorageException(err, e, RETRY);
+        } finally {
+            removeFromBucketCache(spaceId);
         }
     }
 
@@ -458,19 +584,12 @@ public class S3StorageProvider extends StorageProviderBase {
     }
 
     protected String getBucketCreationDate(String bucketName) {
-        Date created = null;
-        try {
-            List<Bucket> buckets = s3Client.listBuckets();
-            for (Bucket bucket : buckets) {
-                if (bucket.getName().equals(bucketName)) {
-                    created = bucket.getCreationDate();
-                }
-            }
-        } catch (AmazonClientException e) {
-            String err = "Could not retrieve S3 bucket listing due to error: " +
-                         e.getMessage();
-            throw new StorageException(err, e, RETRY);
+        Bucket bucket = bucketCache.get(bucketName);
+        if (null == bucket || null == bucket.getCreationDate()) {
+            refreshBucketCache();
+            bucket = bucketCache.get(bucketName);
         }
+        Date created = (null != bucket) ? bucket.getCreationDate() : null;
 
         String formattedDate = null;
         if (created != null) {
@@ -619,14 +738,6 @@ public class S3StorageProvider extends StorageProviderBase {
 
         ObjectMetadata objMetadata = new ObjectMetadata();
         objMetadata.setContentType(contentMimeType);
-        if (contentSize > 0) {
-            objMetadata.setContentLength(contentSize);
-        }
-        if (null != contentChecksum && !contentChecksum.isEmpty()) {
-            String encodedChecksum =
-                ChecksumUtil.convertToBase64Encoding(contentChecksum);
-            objMetadata.setContentMD5(encodedChecksum);
-        }
 
         if (contentEncoding != null) {
             objMetadata.setContentEncoding(contentEncoding);
@@ -644,6 +755,25 @@ public class S3StorageProvider extends StorageProviderBase {
             }
         }
 
+        if (isMultipartUpload(contentSize, contentChecksum)) {
+            return addContentMultipart(spaceId,
+                                       bucketName,
+                                       contentId,
+                                       objMetadata,
+                                       contentSize,
+                                       contentChecksum,
+                                       content);
+        }
+
+        if (contentSize > 0) {
+            objMetadata.setContentLength(contentSize);
+        }
+        if (null != contentChecksum && !contentChecksum.isEmpty()) {
+            String encodedChecksum =
+                ChecksumUtil.convertToBase64Encoding(contentChecksum);
+            objMetadata.setContentMD5(encodedChecksum);
+        }
+
         PutObjectRequest putRequest = new PutObjectRequest(bucketName,
                                                            contentId,
                                                            wrappedContent,
@@ -721,6 +851,269 @@ public class S3StorageProvider extends StorageProviderBase {
         return providerChecksum;
     }
 
+    /*
+     * Multipart uploads are used for large content items. The ETag of an
+     * item added by multipart upload is not the MD5 of the content, so the
+     * checksum must be known up front in order to be stored with the item.
+     */
+    private boolean isMultipartUpload(long contentSize, String contentChecksum) {
+        return multipartThreshold > 0 &&
+               contentSize >= multipartThreshold &&
+               null != contentChecksum && !contentChecksum.isEmpty();
+    }
+
+    /**
+     * Adds content using an S3 multipart upload. Parts are read from the
+     * content stream in order and uploaded concurrently, each part is
+     * retried independently on failure. The MD5 of the full content is
+     * computed as it is read and compared to the provided checksum before the
+     * upload is completed. The checksum is stored as a user property, as the
+     * ETag of the completed item is not the MD5 of its content.
+     *
+     * At most multipartThreads parts are held in memory at once.
+     */
+    protected String addContentMultipart(final String spaceId,
+                                         final String bucketName,
+                                         final String contentId,
+                                         ObjectMetadata objMetadata,
+                                         long contentSize,
+                                         String contentChecksum,
+                                         InputStream content) {
+        final int partSize = getMultipartPartSize(contentSize);
+        log.debug("Adding {} to {} using multipart upload with part size {}",
+                  contentId, bucketName, partSize);
+
+        addMultipartChecksum(objMetadata, contentChecksum);
+        InitiateMultipartUploadRequest initRequest =
+            new InitiateMultipartUploadRequest(bucketName, contentId, objMetadata)
+                .withStorageClass(DEFAULT_STORAGE_CLASS)
+                .withCannedACL(CannedAccessControlList.Private);
+
+        final String uploadId;
+        try {
+            uploadId = s3Client.initiateMultipartUpload(initRequest).getUploadId();
+        } catch (AmazonClientException e) {
+            String err = "Could not start multipart upload of content " +
+                         contentId + " to S3 bucket " + bucketName +
+                         " due to error: " + e.getMessage();
+            throw new StorageException(err, e, RETRY);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(multipartThreads);
+        final BlockingQueue<byte[]> buffers =
+            new ArrayBlockingQueue<>(multipartThreads);
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        List<Future<PartETag>> parts = new ArrayList<>();
+        DigestInputStream digestStream =
+            ChecksumUtil.wrapStream(content, Algorithm.MD5);
+        boolean completed = false;
+        try {
+            long totalRead = 0;
+            int allocatedBuffers = 0;
+            while (!failed.get()) {
+                byte[] buffer = buffers.poll();
+                if (null == buffer) {
+                    if (allocatedBuffers < multipartThreads) {
+                        buffer = new byte[partSize];
+                        allocatedBuffers++;
+                    } else {
+                        buffer = buffers.take();
+                    }
+                }
+
+                final int read = readPart(digestStream, buffer);
+                if (read == 0) {
+                    break;
+                }
+                totalRead += read;
+
+                final byte[] partData = buffer;
+                final int partNumber = parts.size() + 1;
+                final String partMD5 = getBase64MD5(partData, read);
+                parts.add(executor.submit(() -> {
+                    try {
+                        return uploadPart(bucketName, contentId, uploadId,
+                                          partNumber, partData, read, partMD5);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        buffers.offer(partData);
+                    }
+                }));
+
+                if (read < partSize) {
+                    break;
+                }
+            }
+
+            List<PartETag> partETags = new ArrayList<>();
+            for (Future<PartETag> part : parts) {
+                partETags.add(part.get());
+            }
+
+            if (totalRead != contentSize) {
+                String err = "The content body for " + contentId + " (" +
+                             totalRead + " bytes) did not match the expected " +
+                             "size of " + contentSize + " bytes. Content was " +
+                             "not added to S3 bucket " + bucketName + ".";
+                throw new StorageException(err, NO_RETRY);
+            }
+
+            StorageProviderUtil.compareChecksum(
+                ChecksumUtil.getChecksum(digestStream),
+                spaceId,
+                contentId,
+                contentChecksum);
+
+            s3Client.completeMultipartUpload(
+                new CompleteMultipartUploadRequest(bucketName, contentId,
+                                                   uploadId, partETags));
+            completed = true;
+            return contentChecksum;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new StorageException(e.getCause(), NO_RETRY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException("Interrupted while adding content " +
+                                       contentId, e, NO_RETRY);
+        } catch (IOException | AmazonClientException e) {
+            String err = "Could not add content " + contentId +
+                         " with size " + contentSize + " to S3 bucket " +
+                         bucketName + " due to error: " + e.getMessage();
+            log.error(err, e);
+            throw new StorageException(err, e, NO_RETRY);
+        } finally {
+            executor.shutdownNow();
+            if (!completed) {
+                abortMultipartUpload(bucketName, contentId, uploadId);
+            }
+        }
+    }
+
+    /*
+     * Stores the checksum of content added by multipart upload as a user
+     * property, as it cannot be determined from the ETag
+     */
+    private void addMultipartChecksum(ObjectMetadata objMetadata,
+                                      String checksum) {
+        objMetadata.addUserMetadata(
+            getSpaceFree(encodeHeaderKey(PROPERTIES_CONTENT_CHECKSUM)),
+            encodeHeaderValue(checksum));
+    }
+
+    /*
+     * An ETag of the form "<hash>-<parts>" is given to content added by
+     * multipart upload, and is not the MD5 of the content
+     */
+    private boolean isMultipartETag(String etag) {
+        return null != etag && getETagValue(etag).contains("-");
+    }
+
+    /*
+     * Determines the part size, raising it as needed to keep the upload
+     * within the maximum number of parts.
+     */
+    private int getMultipartPartSize(long contentSize) {
+        long minPartSize = (contentSize + MAX_MULTIPART_PARTS - 1) /
+                           MAX_MULTIPART_PARTS;
+        long partSize = Math.max(multipartPartSize, minPartSize);
+        return (int) Math.min(partSize, Integer.MAX_VALUE - 8);
+    }
+
+    /*
+     * Fills the buffer from the stream, returns the number of bytes read,
+     * which will be less than the buffer size only at the end of the stream.
+     */
+    private int readPart(InputStream stream, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = stream.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private String getBase64MD5(byte[] data, int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(Algorithm.MD5.toString());
+            digest.update(data, 0, length);
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    /*
+     * Uploads a single part, retrying on failure. The MD5 of the part is
+     * included so that S3 rejects parts which are corrupted in transit.
+     */
+    private PartETag uploadPart(String bucketName,
+                                String contentId,
+                                String uploadId,
+                                int partNumber,
+                                byte[] data,
+                                int length,
+                                String partMD5) {
+        for (int attempt = 1; ; attempt++) {
+            UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(bucketName)
+                .withKey(contentId)
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withPartSize(length)
+                .withMD5Digest(partMD5)
+                .withInputStream(new ByteArrayInputStream(data, 0, length));
+            try {
+                return s3Client.uploadPart(request).getPartETag();
+            } catch (AmazonClientException e) {
+                String message = "exception uploading part " + partNumber +
+                                 " of " + contentId + " into " + bucketName +
+                                 " (attempt " + attempt + "): " + e.getMessage();
+                if (e instanceof AmazonS3Exception) {
+                    String errorCode = ((AmazonS3Exception) e).getErrorCode();
+                    if ("InvalidDigest".equals(errorCode) ||
+                        "BadDigest".equals(errorCode)) {
+                        log.error(message, e);
+                        String err = "Checksum mismatch detected attempting to " +
+                                     "add content " + contentId + " to S3 " +
+                                     "bucket " + bucketName + ". Content was " +
+                                     "not added.";
+                        throw new ChecksumMismatchException(err, e, NO_RETRY);
+                    }
+                }
+
+                if (attempt >= MAX_PART_ATTEMPTS) {
+                    log.error(message, e);
+                    String err = "Could not add content " + contentId +
+                                 " to S3 bucket " + bucketName + " due to " +
+                                 "error: " + e.getMessage();
+                    throw new StorageException(err, e, NO_RETRY);
+                }
+                log.warn(message);
+                wait(attempt);
+            }
+        }
+    }
+
+    private void abortMultipartUpload(String bucketName,
+                                      String contentId,
+                                      String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(
+                new AbortMultipartUploadRequest(bucketName, contentId, uploadId));
+        } catch (AmazonClientException e) {
+            log.warn("Unable to abort multipart upload {} of {} in {}: {}",
+                     uploadId, contentId, bucketName, e.getMessage());
+        }
+    }
+
     private String removeContentEncoding(Map<String, String> properties) {
         if (properties != null) {
             return properties.remove(CONTENT_ENCODING);
@@ -823,10 +1216,16 @@ public class S3StorageProvider extends StorageProviderBase {
         request.setCannedAccessControlList(CannedAccessControlList.Private);
 
         CopyObjectResult result = doCopyObject(request);
+        String checksum = result.getETag();
+        if (isMultipartETag(checksum)) {
+            // The stored checksum is copied along with the other properties
+            checksum = getContentProperties(destSpaceId, destContentId)
+                .get(PROPERTIES_CONTENT_CHECKSUM);
+        }
         return StorageProviderUtil.compareChecksum(this,
                                                    sourceSpaceId,
                                                    sourceContentId,
-                                                   result.getETag());
+                                                   checksum);
     }
 
     private CopyObjectResult doCopyObject(CopyObjectRequest request) {
@@ -932,11 +1331,12 @@ public class S3StorageProvider extends StorageProviderBase {
 
         contentProperties = removeCalculatedProperties(contentProperties);
 
+        Map<String, String> existingMeta =
+            getContentProperties(spaceId, contentId);
+
         // Determine mimetype, from properties list or existing value
         String mimeType = contentProperties.remove(PROPERTIES_CONTENT_MIMETYPE);
         if (mimeType == null || mimeType.equals("")) {
-            Map<String, String> existingMeta =
-                getContentProperties(spaceId, contentId);
             String existingMime =
                 existingMeta.get(StorageProvider.PROPERTIES_CONTENT_MIMETYPE);
             if (existingMime != null) {
@@ -953,6 +1353,15 @@ public class S3StorageProvider extends StorageProviderBase {
             objMetadata.addUserMetadata(getSpaceFree(key), contentProperties.get(key));
         }
 
+        // Retain the stored checksum of content added by multipart upload,
+        // the calculated properties provided by the caller were removed
+        String existingChecksum = existingMeta.get(PROPERTIES_CONTENT_CHECKSUM);
+        if (isMultipartETag(existingMeta.get(Headers.ETAG)) &&
+            null != existingChecksum &&
+            !existingChecksum.equals(existingMeta.get(Headers.ETAG))) {
+            addMultipartChecksum(objMetadata, existingChecksum);
+        }
+
         // Set Content-Type
         if (mimeType != null && !mimeType.equals("")) {
             objMetadata.setContentType(mimeType);
@@ -1102,8 +1511,15 @@ public class S3StorageProvider extends StorageProviderBase {
         String checksum = objMetadata.getETag();
         if (checksum != null) {
             String eTagValue = getETagValue(checksum);
-            contentProperties.put(PROPERTIES_CONTENT_CHECKSUM, eTagValue);
-            contentProperties.put(PROPERTIES_CONTENT_MD5, eTagValue);
+            String md5 = eTagValue;
+            // The ETag of an item added by multipart upload is not an MD5,
+            // the MD5 is stored as a user property when the item is added
+            String storedMD5 = contentProperties.get(PROPERTIES_CONTENT_CHECKSUM);
+            if (isMultipartETag(eTagValue) && null != storedMD5) {
+                md5 = storedMD5;
+            }
+            contentProperties.put(PROPERTIES_CONTENT_CHECKSUM, md5);
+            contentProperties.put(PROPERTIES_CONTENT_MD5, md5);
             contentProperties.put(Headers.ETAG, eTagValue);
         }
 
@@ -1132,25 +1548,23 @@ public class S3StorageProvider extends StorageProviderBase {
 
     /**
      * Gets the name of an existing bucket based on a space ID. If no bucket
-     * with this spaceId exists, throws a NotFoundException
+     * with this spaceId exists, throws a NotFoundException. Bucket names are
+     * cached; the bucket listing is only reloaded when a space ID is not found.
      *
      * @param spaceId the space Id to convert into an S3 bucket name
      * @return S3 bucket name of a given DuraCloud space
      * @throws NotFoundException if no bucket matches this spaceID
      */
     public String getBucketName(String spaceId) {
-        // Determine if there is an existing bucket that matches this space ID.
-        // The bucket name may use any access key ID as the prefix, so there is
-        // no way to know the exact bucket name up front.
-        List<Bucket> buckets = listAllBuckets();
-        for (Bucket bucket : buckets) {
-            String bucketName = bucket.getName();
-            spaceId = spaceId.replace(".", "[.]");
-            if (bucketName.matches("(" + HIDDEN_SPACE_PREFIX + ")?[\\w]{20}[.]" + spaceId)) {
-                return bucketName;
-            }
+        String bucketName = bucketNameCache.get(spaceId);
+        if (null == bucketName) {
+            refreshBucketCache();
+            bucketName = bucketNameCache.get(spaceId);
+        }
+        if (null == bucketName) {
+            throw new NotFoundException("No S3 bucket found matching spaceID: " + spaceId);
         }
-        throw new NotFoundException("No S3 bucket found matching spaceID: " + spaceId);
+        return bucketName;
     }
 
     /**
@@ -15,6 +15,7 @@ import static org.easymock.EasyMock.newCapture;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -34,16 +35,22 @@ import java.util.Map;
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AccessControlList;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.Bucket;
 import com.amazonaws.services.s3.model.BucketLifecycleConfiguration;
 import com.amazonaws.services.s3.model.BucketTaggingConfiguration;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.model.CopyObjectResult;
 import com.amazonaws.services.s3.model.DeletePublicAccessBlockRequest;
 import com.amazonaws.services.s3.model.DeletePublicAccessBlockResult;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
@@ -56,9 +63,13 @@ import com.amazonaws.services.s3.model.SetBucketOwnershipControlsRequest;
 import com.amazonaws.services.s3.model.SetBucketOwnershipControlsResult;
 import com.amazonaws.services.s3.model.StorageClass;
 import com.amazonaws.services.s3.model.TagSet;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
 import com.amazonaws.services.s3.model.ownership.ObjectOwnership;
+import org.duracloud.common.util.ChecksumUtil;
 import org.duracloud.common.util.IOUtil;
 import org.duracloud.storage.domain.RetrievedContent;
+import org.duracloud.storage.domain.StorageAccount;
 import org.duracloud.storage.domain.StorageProviderType;
 import org.duracloud.storage.error.ChecksumMismatchException;
 import org.duracloud.storage.error.NotFoundException;
@@ -265,6 +276,201 @@ public class S3StorageProviderTest {
         }
     }
 
+    @Test
+    public void testAddContentMultipart() throws Exception {
+        // Two parts of the minimum part size
+        byte[] data = createMultipartData();
+        String checksum = new ChecksumUtil(ChecksumUtil.Algorithm.MD5)
+            .generateChecksum(new ByteArrayInputStream(data));
+
+        setupS3Client();
+        addListBucketsMock();
+        Capture<InitiateMultipartUploadRequest> initCapture = newCapture();
+        Capture<CompleteMultipartUploadRequest> completeCapture = newCapture();
+        addInitiateMultipartMock(initCapture);
+        addUploadPartMock(2);
+        expect(s3Client.completeMultipartUpload(capture(completeCapture)))
+            .andReturn(new CompleteMultipartUploadResult());
+        replay(s3Client);
+
+        S3StorageProvider provider =
+            new S3StorageProvider(s3Client, accessKey, getMultipartOptions());
+        contentStream = new ByteArrayInputStream(data);
+        String resultChecksum = provider.addContent(spaceId,
+                                                    contentId,
+                                                    "mime",
+                                                    null,
+                                                    data.length,
+                                                    checksum,
+                                                    contentStream);
+        assertEquals(checksum, resultChecksum);
+
+        ObjectMetadata metadata = initCapture.getValue().getObjectMetadata();
+        assertEquals("mime", metadata.getContentType());
+        assertNull(metadata.getContentMD5());
+        assertEquals(provider.encodeHeaderValue(checksum),
+                     metadata.getUserMetadata().get(provider.encodeHeaderKey(
+                         StorageProvider.PROPERTIES_CONTENT_CHECKSUM)));
+
+        CompleteMultipartUploadRequest complete = completeCapture.getValue();
+        assertEquals("upload-id", complete.getUploadId());
+        assertEquals(2, complete.getPartETags().size());
+        assertEquals(1, complete.getPartETags().get(0).getPartNumber());
+        assertEquals(2, complete.getPartETags().get(1).getPartNumber());
+    }
+
+    @Test
+    public void testAddContentMultipartChecksumMismatch() throws Exception {
+        byte[] data = createMultipartData();
+
+        setupS3Client();
+        addListBucketsMock();
+        addInitiateMultipartMock(newCapture());
+        addUploadPartMock(2);
+        s3Client.abortMultipartUpload(
+            EasyMock.isA(AbortMultipartUploadRequest.class));
+        EasyMock.expectLastCall();
+        replay(s3Client);
+
+        S3StorageProvider provider =
+            new S3StorageProvider(s3Client, accessKey, getMultipartOptions());
+        contentStream = new ByteArrayInputStream(data);
+        try {
+            provider.addContent(spaceId, contentId, "mime", null,
+                                data.length, hexChecksum, contentStream);
+            fail("Checksum mismatch exception expected");
+        } catch (ChecksumMismatchException e) {
+            assertNotNull(e);
+        }
+    }
+
+    @Test
+    public void testMultipartContentChecksum() {
+        setupS3Client();
+        replay(s3Client);
+        S3StorageProvider provider = new S3StorageProvider(s3Client, accessKey, null);
+
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setHeader(Headers.ETAG, "\"multipart-etag-2\"");
+        metadata.addUserMetadata(
+            provider.encodeHeaderKey(StorageProvider.PROPERTIES_CONTENT_CHECKSUM),
+            provider.encodeHeaderValue(hexChecksum));
+
+        Map<String, String> properties = provider.prepContentProperties(metadata);
+        assertEquals(hexChecksum,
+                     properties.get(StorageProvider.PROPERTIES_CONTENT_CHECKSUM));
+        assertEquals(hexChecksum,
+                     properties.get(StorageProvider.PROPERTIES_CONTENT_MD5));
+        assertEquals("multipart-etag-2", properties.get(Headers.ETAG));
+    }
+
+    @Test
+    public void testSetContentPropertiesMultipartChecksum() {
+        setupS3Client();
+        addListBucketsMock();
+
+        ObjectMetadata existing = new ObjectMetadata();
+        existing.setHeader(Headers.ETAG, "\"multipart-etag-2\"");
+        existing.setContentType("text/plain");
+        existing.addUserMetadata(
+            S3StorageProvider.encodeHeaderKey(StorageProvider.PROPERTIES_CONTENT_CHECKSUM),
+            S3StorageProvider.encodeHeaderValue(hexChecksum));
+        expect(s3Client.getObjectMetadata(EasyMock.isA(String.class),
+                                          eq(contentId)))
+            .andReturn(existing);
+        expect(s3Client.getObjectAcl(EasyMock.isA(String.class), eq(contentId)))
+            .andReturn(new AccessControlList());
+        Capture<CopyObjectRequest> copyCapture = newCapture();
+        expect(s3Client.copyObject(capture(copyCapture)))
+            .andReturn(new CopyObjectResult());
+        s3Client.setObjectAcl(EasyMock.isA(String.class), eq(contentId),
+                              EasyMock.isA(AccessControlList.class));
+        EasyMock.expectLastCall();
+        replay(s3Client);
+
+        S3StorageProvider provider =
+            new S3StorageProvider(s3Client, accessKey, null);
+        Map<String, String> properties = new HashMap<>();
+        properties.put("name", "value");
+        // Calculated properties provided by the caller are not retained
+        properties.put(StorageProvider.PROPERTIES_CONTENT_CHECKSUM, "other");
+        provider.setContentProperties(spaceId, contentId, properties);
+
+        Map<String, String> userMetadata =
+            copyCapture.getValue().getNewObjectMetadata().getUserMetadata();
+        assertEquals("value", userMetadata.get("name"));
+        assertEquals(S3StorageProvider.encodeHeaderValue(hexChecksum),
+                     userMetadata.get(S3StorageProvider.encodeHeaderKey(
+                         StorageProvider.PROPERTIES_CONTENT_CHECKSUM)));
+    }
+
+    @Test
+    public void testCopyContentMultipart() {
+        setupS3Client();
+        addListBucketsMock();
+
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setHeader(Headers.ETAG, "\"multipart-etag-2\"");
+        metadata.addUserMetadata(
+            S3StorageProvider.encodeHeaderKey(StorageProvider.PROPERTIES_CONTENT_CHECKSUM),
+            S3StorageProvider.encodeHeaderValue(hexChecksum));
+        // Source exists, destination properties, source properties
+        expect(s3Client.getObjectMetadata(EasyMock.isA(String.class),
+                                          EasyMock.isA(String.class)))
+            .andReturn(metadata)
+            .times(3);
+
+        CopyObjectResult result = new CopyObjectResult();
+        result.setETag("multipart-etag-2");
+        expect(s3Client.copyObject(EasyMock.isA(CopyObjectRequest.class)))
+            .andReturn(result);
+        replay(s3Client);
+
+        S3StorageProvider provider =
+            new S3StorageProvider(s3Client, accessKey, null);
+        assertEquals(hexChecksum, provider.copyContent(spaceId, contentId,
+                                                       "dest-space-id",
+                                                       "dest-content-id"));
+    }
+
+    private byte[] createMultipartData() {
+        byte[] data =
+            new byte[(int) (S3StorageProvider.MIN_MULTIPART_PART_SIZE * 2)];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    private Map<String, String> getMultipartOptions() {
+        Map<String, String> options = new HashMap<>();
+        options.put(StorageAccount.OPTS.MULTIPART_THRESHOLD.name(), "1024");
+        options.put(StorageAccount.OPTS.MULTIPART_PART_SIZE.name(),
+                    String.valueOf(S3StorageProvider.MIN_MULTIPART_PART_SIZE));
+        return options;
+    }
+
+    private void addInitiateMultipartMock(
+        Capture<InitiateMultipartUploadRequest> initCapture) {
+        InitiateMultipartUploadResult initResult =
+            new InitiateMultipartUploadResult();
+        initResult.setUploadId("upload-id");
+        expect(s3Client.initiateMultipartUpload(capture(initCapture)))
+            .andReturn(initResult);
+    }
+
+    private void addUploadPartMock(int parts) {
+        expect(s3Client.uploadPart(EasyMock.isA(UploadPartRequest.class)))
+            .andAnswer(() -> {
+                UploadPartRequest request =
+                    (UploadPartRequest) EasyMock.getCurrentArguments()[0];
+                UploadPartResult result = new UploadPartResult();
+                result.setPartNumber(request.getPartNumber());
+                result.setETag("etag-" + request.getPartNumber());
+                return result;
+            }).times(parts);
+    }
+
     @Test
     public void testStorageClassStandard() {
         doTestStorageClass(StorageClass.Standard.toString());
@@ -697,11 +903,8 @@ public class S3StorageProviderTest {
             Capture.newInstance(CaptureType.FIRST);
         expect(s3Client.setBucketOwnershipControls(capture(bucketOwnerShipRequest)))
             .andReturn(new SetBucketOwnershipControlsResult());
-        expect(this.s3Client.listBuckets()).andReturn(Arrays.asList(bucket));
 
-        List<String> spaceIds2 = new LinkedList<>(spaceIds);
-        spaceIds2.add(spaceId);
-        addListBucketsMock(2, spaceIds2);
+        // The new bucket name is cached on creation, so no further listing is needed
         expect(s3Client.getBucketTaggingConfiguration(bucketName))
             .andReturn(new BucketTaggingConfiguration());
         s3Client.setBucketTaggingConfiguration(eq(bucketName),
@@ -730,6 +933,51 @@ public class S3StorageProviderTest {
         verify(s3Client, bucket);
     }
 
+    @Test
+    public void testGetBucketNameCached() {
+        setupS3Client();
+        String bucketName = accessKey + "." + spaceId;
+        addListBucketsMock(1, Arrays.asList(spaceId, "dest-space-id"));
+        s3Client.deleteBucket(bucketName);
+        EasyMock.expectLastCall().once();
+        addListBucketsMock(1, Arrays.asList("dest-space-id"));
+        replay(s3Client);
+
+        S3StorageProvider provider = getProvider();
+        assertEquals(bucketName, provider.getBucketName(spaceId));
+        assertEquals(bucketName, provider.getBucketName(spaceId));
+        assertEquals(accessKey + ".dest-space-id",
+                     provider.getBucketName("dest-space-id"));
+
+        // Removing the space evicts it, so the next lookup reloads the listing
+        provider.removeSpace(spaceId);
+        try {
+            provider.getBucketName(spaceId);
+            fail("NotFoundException expected");
+        } catch (NotFoundException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testGetBucketCreationDateAfterCreate() {
+        setupS3Client();
+        String bucketName = accessKey + "." + spaceId;
+        Bucket listed = new Bucket(bucketName);
+        listed.setCreationDate(new Date(0));
+        expect(s3Client.listBuckets()).andReturn(Arrays.asList(listed)).once();
+        replay(s3Client);
+
+        // A created space is mapped to its bucket, whose creation date is
+        // then found in the listing
+        S3StorageProvider provider = getProvider();
+        provider.addToBucketCache(spaceId, bucketName);
+        assertEquals(bucketName, provider.getBucketName(spaceId));
+        String created = provider.getBucketCreationDate(bucketName);
+        assertNotEquals("unknown", created);
+        assertEquals(created, provider.getBucketCreationDate(bucketName));
+    }
+
     @Test
     public void testEncodeDecodeHeaderKey() throws Exception {
         String key = "key";
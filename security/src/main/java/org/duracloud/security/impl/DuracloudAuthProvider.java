@@ -17,7 +17,6 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.WebAuthenticationDetails;
-import org.springframework.security.web.util.matcher.IpAddressMatcher;
 
 /**
  * Authentication provider which allows default authentication behavior
@@ -46,29 +45,27 @@ public class DuracloudAuthProvider extends DaoAuthenticationProvider {
         super.additionalAuthenticationChecks(userDetails, authentication);
 
         DuracloudUserDetails dcUserDetails = (DuracloudUserDetails) userDetails;
-        String userIpLimits = dcUserDetails.getIpLimits();
+        IpRanges ipRanges = dcUserDetails.getIpRanges();
 
         // if user IP limits are set, check request IP
-        if (null != userIpLimits && !userIpLimits.equals("")) {
+        if (null != ipRanges && !ipRanges.isEmpty()) {
             WebAuthenticationDetails details =
                 (WebAuthenticationDetails) authentication.getDetails();
             String requestIp = details.getRemoteAddress();
 
-            String[] ipLimits = userIpLimits.split(";");
-            for (String ipLimit : ipLimits) {
-                if (ipInRange(requestIp, ipLimit)) {
-                    // User's IP is within this range, grant access
-                    log.debug("Allowing authentication check to continue for user " +
-                              dcUserDetails.getUsername() + " because their IP " +
-                              requestIp + " exists in a valid range " + ipLimit);
-                    return;
-                }
+            if (ipRanges.matches(requestIp)) {
+                // User's IP is within a valid range, grant access
+                log.debug("Allowing authentication check to continue for user " +
+                          dcUserDetails.getUsername() + " because their IP " +
+                          requestIp + " exists in a valid range");
+                return;
             }
 
             // There are IP limits, and none of them match the user's IP, deny
             log.debug("Denying authentication request for user " +
                       dcUserDetails.getUsername() + " because their IP " +
-                      requestIp + " does not match any valid ranges " + userIpLimits);
+                      requestIp + " does not match any valid ranges " +
+                      dcUserDetails.getIpLimits());
             throw new InsufficientAuthenticationException(
                 "Originating IP for authentication request" + requestIp +
                 " is not in an accepted range.");
@@ -87,8 +84,7 @@ public class DuracloudAuthProvider extends DaoAuthenticationProvider {
      * @return true if the address is in the range, false otherwise
      */
     protected boolean ipInRange(String ipAddress, String range) {
-        IpAddressMatcher addressMatcher = new IpAddressMatcher(range);
-        return addressMatcher.matches(ipAddress);
+        return IpRanges.compile(range).matches(ipAddress);
     }
 
 }
@@ -22,6 +22,7 @@ public class DuracloudUserDetails extends User implements UserDetails {
 
     private String email;
     private String ipLimits;
+    private transient volatile IpRanges ipRanges;
     private List<String> groups;
 
     public DuracloudUserDetails(String username,
@@ -55,6 +56,20 @@ public class DuracloudUserDetails extends User implements UserDetails {
         return ipLimits;
     }
 
+    /**
+     * @return the IP limits compiled for matching, which are compiled on the
+     * first call and retained with these user details
+     * @throws IllegalArgumentException if the IP limits are not valid
+     */
+    public IpRanges getIpRanges() {
+        IpRanges ranges = ipRanges;
+        if (null == ranges) {
+            ranges = IpRanges.compile(ipLimits);
+            ipRanges = ranges;
+        }
+        return ranges;
+    }
+
     @Override
     public void eraseCredentials() {
         //The credentials are getting erased despite my using the
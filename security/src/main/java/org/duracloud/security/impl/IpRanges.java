@@ -0,0 +1,235 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.security.impl;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+
+/**
+ * A compiled set of IP address ranges, as defined by a user's IP limits: a
+ * semicolon-separated list of addresses or ranges in CIDR notation.
+ *
+ * IPv4 ranges are merged into a sorted table of intervals, so that an
+ * address is matched with a binary search. Any other ranges (such as IPv6)
+ * are matched using an IpAddressMatcher built when the set is compiled.
+ * Matching follows the semantics of IpAddressMatcher, so an IPv4-mapped
+ * IPv6 address (such as ::ffff:10.0.0.1) matches as the IPv4 address it maps
+ * to.
+ *
+ * Instances are immutable and may be shared between threads.
+ */
+public class IpRanges {
+
+    private static final IpRanges EMPTY =
+        new IpRanges(new long[0], new long[0], new ArrayList<>());
+
+    private final long[] starts;
+    private final long[] ends;
+    private final List<IpAddressMatcher> otherMatchers;
+
+    private IpRanges(long[] starts,
+                     long[] ends,
+                     List<IpAddressMatcher> otherMatchers) {
+        this.starts = starts;
+        this.ends = ends;
+        this.otherMatchers = otherMatchers;
+    }
+
+    /**
+     * Compiles IP limits into a set of ranges.
+     *
+     * @param ipLimits semicolon-separated addresses or CIDR ranges, may be
+     *                 null or empty
+     * @return the ranges
+     * @throws IllegalArgumentException if a range is not valid
+     */
+    public static IpRanges compile(String ipLimits) {
+        if (null == ipLimits || ipLimits.trim().isEmpty()) {
+            return EMPTY;
+        }
+
+        List<long[]> intervals = new ArrayList<>();
+        List<IpAddressMatcher> otherMatchers = new ArrayList<>();
+        for (String range : ipLimits.split(";")) {
+            range = range.trim();
+            if (range.isEmpty()) {
+                continue;
+            }
+
+            long[] interval = parseIpv4Range(range);
+            if (null != interval) {
+                intervals.add(interval);
+            } else {
+                otherMatchers.add(new IpAddressMatcher(range));
+            }
+        }
+
+        // Sort by start and merge overlapping or adjacent intervals
+        intervals.sort(Comparator.comparingLong(interval -> interval[0]));
+        long[] starts = new long[intervals.size()];
+        long[] ends = new long[intervals.size()];
+        int count = 0;
+        for (long[] interval : intervals) {
+            if (count > 0 && interval[0] <= ends[count - 1] + 1) {
+                ends[count - 1] = Math.max(ends[count - 1], interval[1]);
+            } else {
+                starts[count] = interval[0];
+                ends[count] = interval[1];
+                count++;
+            }
+        }
+
+        return new IpRanges(Arrays.copyOf(starts, count),
+                            Arrays.copyOf(ends, count),
+                            otherMatchers);
+    }
+
+    /**
+     * @return true if there are no ranges, meaning no IP limits are defined
+     */
+    public boolean isEmpty() {
+        return starts.length == 0 && otherMatchers.isEmpty();
+    }
+
+    /**
+     * @param ipAddress a single IP address
+     * @return true if the address is within any of the ranges
+     */
+    public boolean matches(String ipAddress) {
+        if (null == ipAddress) {
+            return false;
+        }
+
+        long address = toIpv4Address(ipAddress);
+        if (address >= 0) {
+            int index = Arrays.binarySearch(starts, address);
+            if (index < 0) {
+                // Index of the last interval starting before the address
+                index = -index - 2;
+            }
+            if (index >= 0 && address <= ends[index]) {
+                return true;
+            }
+        }
+
+        for (IpAddressMatcher matcher : otherMatchers) {
+            if (matcher.matches(ipAddress)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Parses an IPv4 address or CIDR range into the first and last addresses
+     * of the range, or returns null if it is not an IPv4 address or range.
+     */
+    private static long[] parseIpv4Range(String range) {
+        String address = range;
+        int maskBits = 32;
+        int slash = range.indexOf('/');
+        if (slash >= 0) {
+            address = range.substring(0, slash);
+            try {
+                maskBits = Integer.parseInt(range.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (maskBits < 0 || maskBits > 32) {
+                return null;
+            }
+        }
+
+        long base = parseIpv4Address(address);
+        if (base < 0) {
+            return null;
+        }
+
+        long hostBits = (1L << (32 - maskBits)) - 1;
+        long start = base & ~hostBits & 0xFFFFFFFFL;
+        return new long[] {start, start | hostBits};
+    }
+
+    /*
+     * Returns the value of an IPv4 address, or of the IPv4 address to which
+     * an IPv4-mapped IPv6 address maps, or -1 if the address is neither.
+     */
+    private static long toIpv4Address(String address) {
+        long result = parseIpv4Address(address);
+        if (result < 0 && isIpv6Literal(address)) {
+            try {
+                // A literal is not looked up, and mapped addresses are
+                // returned as IPv4 addresses
+                InetAddress inetAddress = InetAddress.getByName(address);
+                if (inetAddress instanceof Inet4Address) {
+                    result = 0;
+                    for (byte octet : inetAddress.getAddress()) {
+                        result = (result << 8) | (octet & 0xFF);
+                    }
+                }
+            } catch (UnknownHostException e) {
+                return -1;
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Determines if the address has the form of an IPv6 address, so would
+     * not require a name lookup to resolve.
+     */
+    private static boolean isIpv6Literal(String address) {
+        if (address.indexOf(':') < 0) {
+            return false;
+        }
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (c != ':' && c != '.' && Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Parses a dotted-quad IPv4 address, returning -1 if the value is not
+     * in that form.
+     */
+    private static long parseIpv4Address(String address) {
+        long result = 0;
+        int octets = 0;
+        int value = -1;
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && value >= 0 && octets < 3) {
+                result = (result << 8) | value;
+                octets++;
+                value = -1;
+            } else {
+                return -1;
+            }
+        }
+        if (value < 0 || octets != 3) {
+            return -1;
+        }
+        return (result << 8) | value;
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.security.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.duracloud.common.cache.AbstractAccountComponentCache;
+import org.duracloud.common.event.AccountChangeEvent;
+import org.duracloud.common.event.AccountChangeEvent.EventType;
+import org.duracloud.common.model.AclType;
+
+/**
+ * This class caches the resolved ACLs of spaces, per account, store and
+ * space, so that authorization decisions do not need to consult the storage
+ * provider on each request. The cached ACLs of an account are dropped when
+ * the account, its storage providers, or the storage provider information
+ * cached on any node (which includes space ACLs) changes. The ACLs of a space
+ * which is changed on this node are dropped as part of the change. Since
+ * change notifications from other nodes may be lost, cached ACLs also expire
+ * after a short time.
+ */
+public class SpaceACLCache
+    extends AbstractAccountComponentCache<ConcurrentMap<String, SpaceACLCache.CachedACLs>> {
+
+    public static final long DEFAULT_TIME_TO_LIVE_MS = 60 * 1000;
+
+    private long timeToLiveMs = DEFAULT_TIME_TO_LIVE_MS;
+
+    /**
+     * @param timeToLiveMs time for which cached ACLs are used, in milliseconds
+     */
+    public void setTimeToLive(long timeToLiveMs) {
+        this.timeToLiveMs = timeToLiveMs;
+    }
+
+    /**
+     * @param accountId of the account
+     * @param storeId   of the store, or null for the primary store
+     * @param spaceId   of the space
+     * @return the cached ACLs of the space, or null if none are cached or
+     * the cached ACLs have expired
+     */
+    public Map<String, AclType> getSpaceACLs(String accountId,
+                                             String storeId,
+                                             String spaceId) {
+        ConcurrentMap<String, CachedACLs> accountACLs = getAccountACLs(accountId);
+        String key = getKey(storeId, spaceId);
+        CachedACLs cached = accountACLs.get(key);
+        if (null == cached) {
+            return null;
+        }
+        if (System.currentTimeMillis() - cached.cachedAt >= timeToLiveMs) {
+            accountACLs.remove(key, cached);
+            return null;
+        }
+        return cached.acls;
+    }
+
+    /**
+     * Caches the ACLs of a space. The cached map cannot be modified.
+     */
+    public void putSpaceACLs(String accountId,
+                             String storeId,
+                             String spaceId,
+                             Map<String, AclType> acls) {
+        getAccountACLs(accountId).put(getKey(storeId, spaceId), new CachedACLs(acls));
+    }
+
+    /**
+     * Drops the cached ACLs of a space in all stores of the account, for use
+     * when the ACLs of the space change, or the space is created or deleted.
+     */
+    public void removeSpaceACLs(String accountId, String spaceId) {
+        getAccountACLs(accountId).keySet().removeIf(
+            key -> key.substring(key.indexOf('/') + 1).equals(spaceId));
+    }
+
+    private synchronized ConcurrentMap<String, CachedACLs> getAccountACLs(
+        String accountId) {
+        return get(accountId);
+    }
+
+    private String getKey(String storeId, String spaceId) {
+        return storeId + "/" + spaceId;
+    }
+
+    @Override
+    public synchronized void onEvent(AccountChangeEvent event) {
+        String accountId = event.getAccountId();
+        EventType eventType = event.getEventType();
+        if (accountId != null) {
+            if (eventType.equals(EventType.STORAGE_PROVIDER_CACHE_ON_NODE_CHANGED) ||
+                eventType.equals(EventType.STORAGE_PROVIDERS_CHANGED) ||
+                eventType.equals(EventType.ACCOUNT_CHANGED)) {
+                remove(accountId);
+            }
+        } else if (eventType.equals(EventType.ALL_ACCOUNTS_CHANGED)) {
+            removeAll();
+        }
+    }
+
+    @Override
+    protected ConcurrentMap<String, CachedACLs> createInstance(String accountId) {
+        return new ConcurrentHashMap<>();
+    }
+
+    /*
+     * The ACLs of a space, along with the time they were cached
+     */
+    static class CachedACLs {
+        private final Map<String, AclType> acls;
+        private final long cachedAt = System.currentTimeMillis();
+
+        CachedACLs(Map<String, AclType> acls) {
+            this.acls = Collections.unmodifiableMap(new HashMap<>(acls));
+        }
+    }
+
+}
@@ -9,9 +9,9 @@ package org.duracloud.security.impl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.duracloud.security.DuracloudUserDetailsService;
 import org.duracloud.security.domain.SecurityUserBean;
@@ -33,7 +33,7 @@ public class UserDetailsServiceImpl implements DuracloudUserDetailsService {
     private final Logger log = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
 
     private Map<String, DuracloudUserDetails> usersTable =
-        new HashMap<String, DuracloudUserDetails>();
+        new ConcurrentHashMap<String, DuracloudUserDetails>();
 
     public UserDetailsServiceImpl() {
     }
@@ -48,7 +48,7 @@ public class UserDetailsServiceImpl implements DuracloudUserDetailsService {
      */
     public UserDetails loadUserByUsername(String username)
         throws UsernameNotFoundException {
-        UserDetails userDetails = usersTable.get(username);
+        UserDetails userDetails = null == username ? null : usersTable.get(username);
         if (null == userDetails) {
             throw new UsernameNotFoundException(username);
         }
@@ -104,13 +104,14 @@ public class UserDetailsServiceImpl implements DuracloudUserDetailsService {
 
     @Override
     public SecurityUserBean getUserByUsername(String username) {
-        for (DuracloudUserDetails user : this.usersTable.values()) {
-            SecurityUserBean bean = createUserBean(user);
-            if (bean.getUsername().equals(username)) {
-                return bean;
-            }
+        if (null == username) {
+            return null;
+        }
+        DuracloudUserDetails user = this.usersTable.get(username);
+        if (null == user) {
+            return null;
         }
-        return null;
+        return createUserBean(user);
     }
 
     private SecurityUserBean createUserBean(DuracloudUserDetails user) {
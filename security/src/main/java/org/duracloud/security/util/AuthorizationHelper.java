@@ -13,7 +13,9 @@ import java.util.List;
 import java.util.Map;
 
 import org.duracloud.common.model.AclType;
+import org.duracloud.common.rest.DuraCloudRequestContextUtil;
 import org.duracloud.security.impl.DuracloudUserDetails;
+import org.duracloud.security.impl.SpaceACLCache;
 import org.duracloud.storage.error.NotFoundException;
 import org.duracloud.storage.error.StorageException;
 import org.duracloud.storage.provider.StorageProvider;
@@ -34,11 +36,26 @@ public class AuthorizationHelper {
         LoggerFactory.getLogger(AuthorizationHelper.class);
 
     private StorageProviderFactory storageProviderFactory;
+    private SpaceACLCache spaceACLCache;
+    private DuraCloudRequestContextUtil requestContextUtil =
+        new DuraCloudRequestContextUtil();
 
     public AuthorizationHelper(StorageProviderFactory storageProviderFactory) {
         this.storageProviderFactory = storageProviderFactory;
     }
 
+    /**
+     * Sets the cache in which the space ACLs retrieved by getSpaceACLs() are
+     * retained. When no cache is set, ACLs are retrieved on each call.
+     */
+    public void setSpaceACLCache(SpaceACLCache spaceACLCache) {
+        this.spaceACLCache = spaceACLCache;
+    }
+
+    protected void setRequestContextUtil(DuraCloudRequestContextUtil requestContextUtil) {
+        this.requestContextUtil = requestContextUtil;
+    }
+
     public List<String> getUserGroups(Authentication auth) {
         DuracloudUserDetails userDetails = getUserDetails(auth);
         return userDetails.getGroups();
@@ -146,13 +163,28 @@ public class AuthorizationHelper {
             return emptyACLs;
         }
 
+        String accountId = null;
+        if (null != spaceACLCache) {
+            accountId = requestContextUtil.getAccountId();
+            Map<String, AclType> cachedACLs =
+                spaceACLCache.getSpaceACLs(accountId, storeId, spaceId);
+            if (null != cachedACLs) {
+                return cachedACLs;
+            }
+        }
+
         StorageProvider store = storageProviderFactory.getStorageProvider(storeId);
         if (null == store) {
             return emptyACLs;
         }
 
         try {
-            return store.getSpaceACLs(spaceId);
+            Map<String, AclType> acls = store.getSpaceACLs(spaceId);
+            // Only ACLs which were successfully retrieved are cached
+            if (null != spaceACLCache && null != acls) {
+                spaceACLCache.putSpaceACLs(accountId, storeId, spaceId, acls);
+            }
+            return acls;
 
         } catch (NotFoundException nfe) {
             log.info("Space !exist: {}, exception: {}", spaceId, nfe);
@@ -15,6 +15,7 @@ import org.duracloud.common.constant.Constants;
 import org.duracloud.common.model.AclType;
 import org.duracloud.security.domain.HttpVerb;
 import org.duracloud.security.impl.DuracloudUserDetails;
+import org.duracloud.security.impl.SpaceACLCache;
 import org.duracloud.security.util.AuthorizationHelper;
 import org.duracloud.storage.util.StorageProviderFactory;
 import org.slf4j.Logger;
@@ -49,6 +50,14 @@ public abstract class SpaceAccessVoter implements AccessDecisionVoter {
         this.authHelper = new AuthorizationHelper(storageProviderFactory);
     }
 
+    /**
+     * Sets the cache in which the ACLs of requested spaces are retained
+     * between requests.
+     */
+    public void setSpaceACLCache(SpaceACLCache spaceACLCache) {
+        this.authHelper.setSpaceACLCache(spaceACLCache);
+    }
+
     protected boolean isOpenResource(HttpServletRequest httpRequest) {
         String spaceId = getSpaceId(httpRequest);
         if (null == spaceId) {
@@ -13,13 +13,13 @@ import java.util.Collection;
 import javax.servlet.http.HttpServletRequest;
 
 import org.duracloud.security.impl.DuracloudUserDetails;
+import org.duracloud.security.impl.IpRanges;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.access.AccessDecisionVoter;
 import org.springframework.security.access.ConfigAttribute;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.FilterInvocation;
-import org.springframework.security.web.util.matcher.IpAddressMatcher;
 
 /**
  * Votes on access depending on user IP limits. If IP limits are defined
@@ -88,18 +88,14 @@ public class UserIpLimitsAccessVoter implements AccessDecisionVoter {
             return ACCESS_DENIED;
         }
 
-        String userIpLimits = getUserIpLimits(auth);
+        IpRanges ipRanges = getUserIpRanges(auth);
         // if user IP limits are set, check request IP
-        if (null != userIpLimits && !userIpLimits.equals("")) {
+        if (null != ipRanges && !ipRanges.isEmpty()) {
             String requestIp = httpRequest.getRemoteAddr();
-
-            String[] ipLimits = userIpLimits.split(";");
-            for (String ipLimit : ipLimits) {
-                if (ipInRange(requestIp, ipLimit)) {
-                    // User's IP is within this range, grant access
-                    log.debug(debugText(label, auth, config, resource, ACCESS_GRANTED));
-                    return ACCESS_GRANTED;
-                }
+            if (ipRanges.matches(requestIp)) {
+                // User's IP is within a valid range, grant access
+                log.debug(debugText(label, auth, config, resource, ACCESS_GRANTED));
+                return ACCESS_GRANTED;
             }
 
             // There are IP limits, and none of them match the user's IP, deny
@@ -112,32 +108,20 @@ public class UserIpLimitsAccessVoter implements AccessDecisionVoter {
     }
 
     /**
-     * Retrieves the ip limits defined for a given user
+     * Retrieves the ip limits defined for a given user, compiled for matching
      *
      * @param auth Authentication where user details can be found
-     * @return user ip limits, or null if no limits are set
+     * @return user ip ranges, or null if the user has no user details
      */
-    protected String getUserIpLimits(Authentication auth) {
+    protected IpRanges getUserIpRanges(Authentication auth) {
         Object principal = auth.getPrincipal();
 
         if (principal instanceof DuracloudUserDetails) {
             DuracloudUserDetails userDetails = (DuracloudUserDetails) principal;
-            return userDetails.getIpLimits();
+            return userDetails.getIpRanges();
         } else {
             return null;
         }
     }
 
-    /**
-     * Determines if a given IP address is in the given IP range.
-     *
-     * @param ipAddress single IP address
-     * @param range     IP address range using CIDR notation
-     * @return true if the address is in the range, false otherwise
-     */
-    protected boolean ipInRange(String ipAddress, String range) {
-        IpAddressMatcher addressMatcher = new IpAddressMatcher(range);
-        return addressMatcher.matches(ipAddress);
-    }
-
 }
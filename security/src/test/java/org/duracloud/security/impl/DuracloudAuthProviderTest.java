@@ -57,9 +57,12 @@ public class DuracloudAuthProviderTest {
                 .times(1);
 
         // Direct calls expected
+        EasyMock.expect(userDetails.getIpRanges())
+                .andReturn(IpRanges.compile(ipLimits))
+                .times(1);
         EasyMock.expect(userDetails.getIpLimits())
                 .andReturn(ipLimits)
-                .times(1);
+                .anyTimes();
         EasyMock.expect(userDetails.getUsername())
                 .andReturn(username)
                 .times(1);
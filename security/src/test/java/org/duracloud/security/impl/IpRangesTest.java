@@ -0,0 +1,94 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.security.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the IpRanges
+ */
+public class IpRangesTest {
+
+    @Test
+    public void testEmpty() {
+        assertTrue(IpRanges.compile(null).isEmpty());
+        assertTrue(IpRanges.compile("").isEmpty());
+        assertTrue(IpRanges.compile(" ; ").isEmpty());
+        assertFalse(IpRanges.compile(null).matches("1.2.3.4"));
+        assertFalse(IpRanges.compile("1.2.3.4").isEmpty());
+    }
+
+    @Test
+    public void testSingleAddress() {
+        IpRanges ranges = IpRanges.compile("1.2.3.4");
+        assertTrue(ranges.matches("1.2.3.4"));
+        assertFalse(ranges.matches("1.2.3.3"));
+        assertFalse(ranges.matches("1.2.3.5"));
+        assertFalse(ranges.matches(null));
+    }
+
+    @Test
+    public void testCidrBoundaries() {
+        IpRanges ranges = IpRanges.compile("192.168.1.37/24");
+        assertTrue(ranges.matches("192.168.1.0"));
+        assertTrue(ranges.matches("192.168.1.255"));
+        assertFalse(ranges.matches("192.168.0.255"));
+        assertFalse(ranges.matches("192.168.2.0"));
+
+        ranges = IpRanges.compile("0.0.0.0/0");
+        assertTrue(ranges.matches("0.0.0.0"));
+        assertTrue(ranges.matches("255.255.255.255"));
+    }
+
+    @Test
+    public void testMultipleRanges() {
+        IpRanges ranges = IpRanges.compile(
+            "10.0.0.0/8; 10.1.0.0/16;172.16.0.0/24;172.16.1.0/24;8.8.8.8");
+        assertTrue(ranges.matches("10.200.3.4"));
+        assertTrue(ranges.matches("10.1.2.3"));
+        assertTrue(ranges.matches("172.16.0.1"));
+        assertTrue(ranges.matches("172.16.1.254"));
+        assertTrue(ranges.matches("8.8.8.8"));
+        assertFalse(ranges.matches("172.16.2.0"));
+        assertFalse(ranges.matches("9.255.255.255"));
+        assertFalse(ranges.matches("11.0.0.0"));
+        assertFalse(ranges.matches("1.1.1.1"));
+    }
+
+    @Test
+    public void testIpv6() {
+        IpRanges ranges = IpRanges.compile("1.2.3.4;fe80::/64");
+        assertTrue(ranges.matches("fe80::1"));
+        assertFalse(ranges.matches("fe81::1"));
+        assertTrue(ranges.matches("1.2.3.4"));
+        assertFalse(IpRanges.compile("1.2.3.0/24").matches("fe80::1"));
+    }
+
+    @Test
+    public void testIpv4MappedAddress() {
+        IpRanges ranges = IpRanges.compile("10.0.0.0/8;1.2.3.4");
+        assertTrue(ranges.matches("::ffff:10.0.0.1"));
+        assertTrue(ranges.matches("::FFFF:1.2.3.4"));
+        assertTrue(ranges.matches("0:0:0:0:0:ffff:a00:1"));
+        assertFalse(ranges.matches("::ffff:11.0.0.1"));
+        assertFalse(ranges.matches("::ffff:zz"));
+
+        // Not IPv4-mapped
+        assertFalse(ranges.matches("::10.0.0.1"));
+        assertFalse(ranges.matches("64:ff9b::a00:1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        IpRanges.compile("1.2.3.4/33");
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.security.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.duracloud.common.event.AccountChangeEvent;
+import org.duracloud.common.event.AccountChangeEvent.EventType;
+import org.duracloud.common.model.AclType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the SpaceACLCache
+ */
+public class SpaceACLCacheTest {
+
+    private SpaceACLCache cache;
+    private Map<String, AclType> acls;
+
+    @Before
+    public void setUp() {
+        cache = new SpaceACLCache();
+        acls = new HashMap<>();
+        acls.put("acl-user", AclType.READ);
+
+        cache.putSpaceACLs("account1", "store1", "space1", acls);
+        cache.putSpaceACLs("account1", null, "space1", acls);
+        cache.putSpaceACLs("account2", "store1", "space1", acls);
+    }
+
+    @Test
+    public void testGetSpaceACLs() {
+        Assert.assertEquals(acls, cache.getSpaceACLs("account1", "store1", "space1"));
+        Assert.assertEquals(acls, cache.getSpaceACLs("account1", null, "space1"));
+        Assert.assertNull(cache.getSpaceACLs("account1", "store2", "space1"));
+        Assert.assertNull(cache.getSpaceACLs("account1", "store1", "space2"));
+
+        // Changes to the original map do not affect the cache
+        acls.put("acl-other", AclType.WRITE);
+        Assert.assertEquals(1, cache.getSpaceACLs("account1", "store1", "space1").size());
+    }
+
+    @Test
+    public void testRemoveSpaceACLs() {
+        cache.putSpaceACLs("account1", "store1", "space2", acls);
+        cache.removeSpaceACLs("account1", "space1");
+
+        // Removed in all stores of the account only
+        Assert.assertNull(cache.getSpaceACLs("account1", "store1", "space1"));
+        Assert.assertNull(cache.getSpaceACLs("account1", null, "space1"));
+        Assert.assertNotNull(cache.getSpaceACLs("account1", "store1", "space2"));
+        Assert.assertNotNull(cache.getSpaceACLs("account2", "store1", "space1"));
+    }
+
+    @Test
+    public void testTimeToLive() {
+        cache.setTimeToLive(0);
+        Assert.assertNull(cache.getSpaceACLs("account1", "store1", "space1"));
+
+        cache.setTimeToLive(SpaceACLCache.DEFAULT_TIME_TO_LIVE_MS);
+        cache.putSpaceACLs("account1", "store1", "space1", acls);
+        Assert.assertEquals(acls, cache.getSpaceACLs("account1", "store1", "space1"));
+    }
+
+    @Test
+    public void testAccountEvents() {
+        for (EventType eventType : new EventType[] {EventType.STORAGE_PROVIDER_CACHE_ON_NODE_CHANGED,
+                                                    EventType.STORAGE_PROVIDERS_CHANGED,
+                                                    EventType.ACCOUNT_CHANGED}) {
+            cache.putSpaceACLs("account1", "store1", "space1", acls);
+            cache.onEvent(new AccountChangeEvent(eventType, "account1", "host"));
+            Assert.assertNull(cache.getSpaceACLs("account1", "store1", "space1"));
+            Assert.assertNotNull(cache.getSpaceACLs("account2", "store1", "space1"));
+        }
+
+        cache.putSpaceACLs("account1", "store1", "space1", acls);
+        cache.onEvent(new AccountChangeEvent(EventType.USERS_CHANGED, "account1", "host"));
+        Assert.assertNotNull(cache.getSpaceACLs("account1", "store1", "space1"));
+    }
+
+    @Test
+    public void testAllAccountsChanged() {
+        cache.onEvent(new AccountChangeEvent(EventType.ALL_ACCOUNTS_CHANGED, null, "host"));
+        Assert.assertNull(cache.getSpaceACLs("account1", "store1", "space1"));
+        Assert.assertNull(cache.getSpaceACLs("account2", "store1", "space1"));
+    }
+
+}
@@ -45,12 +45,18 @@ import org.slf4j.LoggerFactory;
  */
 public class FileStitcherDriver {
 
+    private static final int DEFAULT_READ_AHEAD = 2;
+
     private Logger log = LoggerFactory.getLogger(FileStitcherDriver.class);
 
     private FileStitcher stitcher;
 
     public FileStitcherDriver(DataSource dataSource) {
-        this.stitcher = new FileStitcherImpl(dataSource);
+        this(dataSource, 0);
+    }
+
+    public FileStitcherDriver(DataSource dataSource, int chunkReadAhead) {
+        this.stitcher = new FileStitcherImpl(dataSource, chunkReadAhead);
     }
 
     /**
@@ -162,6 +168,14 @@ public class FileStitcherDriver {
                                   "to-dir",
                                   true,
                                   "destination directory of full content");
+
+        Option readAhead = new Option("a",
+                                      "read-ahead",
+                                      true,
+                                      "number of chunks to retrieve " +
+                                      "concurrently ahead of the chunk " +
+                                      "being written (default: " +
+                                      DEFAULT_READ_AHEAD + ")");
         host.setRequired(true);
         port.setRequired(false);
         username.setRequired(true);
@@ -170,6 +184,7 @@ public class FileStitcherDriver {
         spaceId.setRequired(true);
         manifestId.setRequired(true);
         toDir.setRequired(true);
+        readAhead.setRequired(false);
 
         Options options = new Options();
         options.addOption(host);
@@ -180,6 +195,7 @@ public class FileStitcherDriver {
         options.addOption(spaceId);
         options.addOption(manifestId);
         options.addOption(toDir);
+        options.addOption(readAhead);
 
         return options;
     }
@@ -217,11 +233,20 @@ public class FileStitcherDriver {
         String spaceId = cmd.getOptionValue("space-id");
         String manifestId = cmd.getOptionValue("manifest-id");
         String toDir = cmd.getOptionValue("to-dir");
+        int readAhead = DEFAULT_READ_AHEAD;
+        if (cmd.hasOption("read-ahead")) {
+            try {
+                readAhead = Integer.parseInt(cmd.getOptionValue("read-ahead"));
+            } catch (NumberFormatException e) {
+                System.err.println(e);
+                die();
+            }
+        }
 
         // do the stitching.
         try {
             DataSource dataSource = getDataSource(cmd);
-            FileStitcherDriver driver = new FileStitcherDriver(dataSource);
+            FileStitcherDriver driver = new FileStitcherDriver(dataSource, readAhead);
 
             driver.stitch(spaceId, manifestId, new File(toDir));
 
@@ -45,9 +45,20 @@ public class FileStitcherImpl implements FileStitcher {
     private Logger log = LoggerFactory.getLogger(FileStitcherImpl.class);
 
     private DataSource dataSource;
+    private int chunkReadAhead;
 
     public FileStitcherImpl(DataSource dataSource) {
+        this(dataSource, 0);
+    }
+
+    /**
+     * @param dataSource     from which manifests and chunks are retrieved
+     * @param chunkReadAhead number of chunks to retrieve concurrently ahead
+     *                       of the chunk currently being read
+     */
+    public FileStitcherImpl(DataSource dataSource, int chunkReadAhead) {
         this.dataSource = dataSource;
+        this.chunkReadAhead = chunkReadAhead;
     }
 
     @Override
@@ -153,7 +164,10 @@ public class FileStitcherImpl implements FileStitcher {
                 }
             };
 
-        return new MultiContentInputStream(dataSource, chunks, contentListener);
+        return new MultiContentInputStream(dataSource,
+                                           chunks,
+                                           contentListener,
+                                           chunkReadAhead);
     }
 
     private Map<String, String> getContentProperties(ChunksManifest manifest) {
@@ -7,13 +7,23 @@
  */
 package org.duracloud.stitch.stream;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.IOUtils;
 import org.duracloud.common.model.ContentItem;
+import org.duracloud.common.util.IOUtil;
 import org.duracloud.domain.Content;
 import org.duracloud.stitch.datasource.DataSource;
 
@@ -21,6 +31,11 @@ import org.duracloud.stitch.datasource.DataSource;
  * This class exposes a single InputStream composed of the sequence of content
  * streams read on-demand from the provided list of ContentItems.
  *
+ * When a read-ahead greater than zero is provided, up to that many of the
+ * upcoming content items are retrieved concurrently (into temporary files)
+ * while the current content item is being read. A content item which has
+ * not been retrieved ahead, such as the first one, is streamed directly.
+ *
  * @author Andrew Woods
  * Date: 9/8/11
  */
@@ -32,13 +47,40 @@ public class MultiContentInputStream extends InputStream {
     private MultiContentInputStreamListener listener;
     private ContentItem currentItem;
 
+    private int readAhead;
+    private ExecutorService prefetchExecutor;
+    private Queue<PrefetchedContent> prefetched;
+    private final List<File> prefetchedFiles = new ArrayList<>();
+    private boolean closed = false;
+
     public MultiContentInputStream(DataSource dataSource,
                                    List<ContentItem> contentItems,
-                                   MultiContentInputStreamListener listener) {
+                                   MultiContentInputStreamListener listener,
+                                   int readAhead) {
+        if (readAhead < 0) {
+            throw new IllegalArgumentException(
+                "Read-ahead must not be negative: " + readAhead);
+        }
+
         this.dataSource = dataSource;
         this.contents = contentItems.iterator();
         this.currentStream = null;
         this.listener = listener;
+        this.readAhead = readAhead;
+        this.prefetched = new LinkedList<>();
+        if (readAhead > 0) {
+            this.prefetchExecutor = Executors.newFixedThreadPool(readAhead, r -> {
+                Thread thread = new Thread(r, "chunk-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public MultiContentInputStream(DataSource dataSource,
+                                   List<ContentItem> contentItems,
+                                   MultiContentInputStreamListener listener) {
+        this(dataSource, contentItems, listener, 0);
     }
 
     public MultiContentInputStream(DataSource dataSource,
@@ -50,7 +92,7 @@ public class MultiContentInputStream extends InputStream {
     public int read() throws IOException {
         // initialize current stream
         if (null == currentStream) {
-            if (contents.hasNext()) {
+            if (hasNextContent()) {
                 currentStream = nextStream();
 
             } else {
@@ -59,25 +101,166 @@ public class MultiContentInputStream extends InputStream {
         }
 
         int bite = currentStream.read();
-        if (-1 == bite) {
-            if (contents.hasNext()) {
+        while (-1 == bite) {
+            if (hasNextContent()) {
                 currentStream = nextStream();
                 bite = currentStream.read();
             } else {
                 notifyContentIdRead();
+                break;
             }
         }
 
         return bite;
     }
 
-    private InputStream nextStream() {
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        // initialize current stream
+        if (null == currentStream) {
+            if (hasNextContent()) {
+                currentStream = nextStream();
+
+            } else {
+                return -1;
+            }
+        }
+
+        int read = currentStream.read(b, off, len);
+        while (-1 == read) {
+            if (hasNextContent()) {
+                currentStream = nextStream();
+                read = currentStream.read(b, off, len);
+            } else {
+                notifyContentIdRead();
+                break;
+            }
+        }
+
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOUtils.closeQuietly(currentStream);
+        if (null == prefetchExecutor) {
+            return;
+        }
+
+        prefetchExecutor.shutdownNow();
+        for (PrefetchedContent content : prefetched) {
+            content.stream.cancel(true);
+        }
+        prefetched.clear();
+
+        // discard any content which has been retrieved but not read
+        synchronized (prefetchedFiles) {
+            closed = true;
+            for (File file : prefetchedFiles) {
+                file.delete();
+            }
+            prefetchedFiles.clear();
+        }
+    }
+
+    private boolean hasNextContent() {
+        return !prefetched.isEmpty() || contents.hasNext();
+    }
+
+    private InputStream nextStream() throws IOException {
         if (this.currentStream != null) {
             IOUtils.closeQuietly(this.currentStream);
             notifyContentIdRead();
         }
-        currentItem = contents.next();
-        return getStream(currentItem);
+
+        if (readAhead == 0) {
+            currentItem = contents.next();
+            return getStream(currentItem);
+        }
+
+        if (prefetched.isEmpty()) {
+            // Nothing has been retrieved ahead, so the item is streamed
+            // directly while the following items are retrieved
+            currentItem = contents.next();
+            InputStream stream = getStream(currentItem);
+            startPrefetch();
+            return stream;
+        }
+
+        PrefetchedContent next = prefetched.remove();
+        startPrefetch();
+
+        currentItem = next.item;
+        try {
+            return next.stream.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while retrieving " +
+                                  next.item.getContentId(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Error retrieving " +
+                                  next.item.getContentId(), cause);
+        }
+    }
+
+    private void startPrefetch() {
+        fillPrefetchQueue();
+        if (!contents.hasNext()) {
+            // all retrievals have been started
+            prefetchExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Starts retrieval of upcoming content items until the read-ahead
+     * limit is reached.
+     */
+    private void fillPrefetchQueue() {
+        while (prefetched.size() < readAhead && contents.hasNext()) {
+            final ContentItem item = contents.next();
+            Future<InputStream> stream =
+                prefetchExecutor.submit(() -> prefetchStream(item));
+            prefetched.add(new PrefetchedContent(item, stream));
+        }
+    }
+
+    /**
+     * Reads a content item fully into a temporary file, which is removed
+     * when the returned stream is closed.
+     */
+    private InputStream prefetchStream(ContentItem contentItem)
+        throws IOException {
+        final File file = IOUtil.writeStreamToFile(getStream(contentItem));
+        synchronized (prefetchedFiles) {
+            if (closed) {
+                file.delete();
+                throw new IOException("Stream closed, discarding " +
+                                      contentItem.getContentId());
+            }
+            prefetchedFiles.add(file);
+        }
+
+        return new FileInputStream(file) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    file.delete();
+                    synchronized (prefetchedFiles) {
+                        prefetchedFiles.remove(file);
+                    }
+                }
+            }
+        };
     }
 
     protected void notifyContentIdRead() {
@@ -93,4 +276,14 @@ public class MultiContentInputStream extends InputStream {
         return content.getStream();
     }
 
+    private static class PrefetchedContent {
+        private final ContentItem item;
+        private final Future<InputStream> stream;
+
+        PrefetchedContent(ContentItem item, Future<InputStream> stream) {
+            this.item = item;
+            this.stream = stream;
+        }
+    }
+
 }
@@ -90,6 +90,74 @@ public class MultiContentInputStreamTest {
         out.close();
     }
 
+    @Test
+    public void testReadWithReadAhead() throws Exception {
+        String text = createReadMocks();
+        contentItems.stream().forEach(x -> {
+            listener.contentIdRead(x.getContentId());
+            EasyMock.expectLastCall().once();
+        });
+        replayMocks();
+
+        OutputStream out = new ByteArrayOutputStream();
+        multiStream = new MultiContentInputStream(dataSource, contentItems, listener, 2);
+        IOUtil.copy(multiStream, out);
+        multiStream.close();
+        Assert.assertEquals(text, out.toString());
+        out.close();
+    }
+
+    @Test
+    public void testReadAheadStreamsFirstContentDirectly() throws Exception {
+        String text = createReadMocks();
+        replayMocks();
+
+        multiStream = new MultiContentInputStream(dataSource, contentItems, null, 2);
+        Assert.assertEquals(text.charAt(0), multiStream.read());
+
+        // The first content item is read as it is streamed, not copied first
+        InputStream firstStream = streams.get(0);
+        Assert.assertEquals("text-0".length() - 1, firstStream.available());
+
+        OutputStream out = new ByteArrayOutputStream();
+        IOUtil.copy(multiStream, out);
+        multiStream.close();
+        Assert.assertEquals(text.substring(1), out.toString());
+    }
+
+    @Test
+    public void testReadSingleBytes() throws Exception {
+        String text = createReadMocks();
+        replayMocks();
+
+        StringBuilder out = new StringBuilder();
+        multiStream = new MultiContentInputStream(dataSource, contentItems, null, 3);
+        int bite;
+        while ((bite = multiStream.read()) != -1) {
+            out.append((char) bite);
+        }
+        multiStream.close();
+        Assert.assertEquals(text, out.toString());
+    }
+
+    @Test
+    public void testReadEmptyContent() throws Exception {
+        String text = createContentExpectation(0);
+        contentItems.add(new ContentItem("spaceId-empty", "contentId-empty"));
+        Content empty = new Content();
+        empty.setStream(getStream(""));
+        EasyMock.expect(dataSource.getContent("spaceId-empty", "contentId-empty"))
+                .andReturn(empty);
+        text += createContentExpectation(1);
+        replayMocks();
+
+        OutputStream out = new ByteArrayOutputStream();
+        multiStream = new MultiContentInputStream(dataSource, contentItems);
+        IOUtil.copy(multiStream, out);
+        Assert.assertEquals(text, out.toString());
+        out.close();
+    }
+
     private String createReadMocks() {
         StringBuilder text = new StringBuilder();
         for (int i = 0; i < 5; ++i) {
@@ -0,0 +1,62 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.storage.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records a change marker for each space when a change is made to the space
+ * or its content. The marker is the time of the latest change, in
+ * milliseconds, adjusted as needed so that each marker is unique and
+ * greater than all those before it, across all trackers. A space which has
+ * not changed since the tracker was created has the marker of the tracker's
+ * creation, so a replaced tracker never reports a marker handed out by the
+ * one before it.
+ *
+ * Only changes made through this application instance are tracked.
+ */
+public class SpaceChangeTracker {
+
+    private static final AtomicLong lastMarker = new AtomicLong(0);
+
+    private final ConcurrentMap<String, Long> markers = new ConcurrentHashMap<>();
+    private final long startMarker = nextMarker();
+
+    /**
+     * Records a change to the given space
+     *
+     * @param storeId ID of the storage provider account
+     * @param spaceId the changed space
+     */
+    public void spaceChanged(String storeId, String spaceId) {
+        markers.put(getKey(storeId, spaceId), nextMarker());
+    }
+
+    /**
+     * @param storeId ID of the storage provider account
+     * @param spaceId the space
+     * @return the marker of the latest change to the space, or the marker of
+     * the creation of this tracker if no change has been recorded
+     */
+    public long getChangeMarker(String storeId, String spaceId) {
+        Long marker = markers.get(getKey(storeId, spaceId));
+        return null == marker ? startMarker : marker;
+    }
+
+    private static long nextMarker() {
+        long now = System.currentTimeMillis();
+        return lastMarker.updateAndGet(last -> Math.max(now, last + 1));
+    }
+
+    private String getKey(String storeId, String spaceId) {
+        return storeId + "/" + spaceId;
+    }
+
+}
@@ -37,4 +37,10 @@ public interface StorageProviderFactory {
 
     public TaskQueue getAuditQueue();
 
+    /**
+     * @return the tracker which records changes made to spaces through the
+     * storage providers of this factory
+     */
+    public SpaceChangeTracker getSpaceChangeTracker();
+
 }
@@ -0,0 +1,51 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.storage.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the SpaceChangeTracker
+ */
+public class SpaceChangeTrackerTest {
+
+    @Test
+    public void testChangeMarkers() {
+        long before = System.currentTimeMillis();
+        SpaceChangeTracker tracker = new SpaceChangeTracker();
+        long start = tracker.getChangeMarker("store", "space1");
+        assertTrue(start >= before);
+
+        tracker.spaceChanged("store", "space1");
+        long marker1 = tracker.getChangeMarker("store", "space1");
+        assertTrue(marker1 > start);
+        assertEquals(start, tracker.getChangeMarker("store", "space2"));
+        assertEquals(start, tracker.getChangeMarker("other-store", "space1"));
+
+        // Each change produces a new, larger marker
+        tracker.spaceChanged("store", "space1");
+        long marker2 = tracker.getChangeMarker("store", "space1");
+        assertTrue(marker2 > marker1);
+        tracker.spaceChanged("store", "space2");
+        assertTrue(tracker.getChangeMarker("store", "space2") > marker2);
+    }
+
+    @Test
+    public void testNewTracker() {
+        SpaceChangeTracker tracker = new SpaceChangeTracker();
+        long marker = tracker.getChangeMarker("store", "space1");
+
+        // A replacement tracker does not report the markers of the original
+        SpaceChangeTracker replacement = new SpaceChangeTracker();
+        assertTrue(replacement.getChangeMarker("store", "space1") > marker);
+    }
+
+}
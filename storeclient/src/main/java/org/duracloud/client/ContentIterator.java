@@ -10,6 +10,10 @@ package org.duracloud.client;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.duracloud.common.retry.Retrier;
 import org.duracloud.error.ContentStoreException;
@@ -23,11 +27,22 @@ import org.slf4j.LoggerFactory;
  * call next() to iterate through the entire content listing, regardless
  * of its length.
  *
+ * When prefetch is enabled, the next chunk of the listing is retrieved on a
+ * background thread while the current chunk is being consumed. At most one
+ * chunk is retrieved ahead of the caller.
+ *
  * @author: Bill Branan
  * Date: Dec 23, 2009
  */
 public class ContentIterator implements Iterator<String> {
 
+    private static final ExecutorService PREFETCH_EXECUTOR =
+        Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "content-iterator-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+
     private ContentStore store;
     private String spaceId;
     private String prefix;
@@ -36,6 +51,9 @@ public class ContentIterator implements Iterator<String> {
     private List<String> contentList;
     private long maxResults;
     private int maxRetries;
+    private boolean prefetch;
+    private boolean prefetchPending;
+    private Future<List<String>> nextContentList;
 
     private final Logger log =
         LoggerFactory.getLogger(ContentIterator.class);
@@ -50,13 +68,28 @@ public class ContentIterator implements Iterator<String> {
                            String spaceId,
                            String prefix,
                            long maxResults) throws ContentStoreException {
+        this(store, spaceId, prefix, maxResults, false);
+    }
+
+    /**
+     * @param prefetch true to retrieve each chunk of the listing in the
+     *                 background while the previous chunk is consumed
+     */
+    public ContentIterator(ContentStore store,
+                           String spaceId,
+                           String prefix,
+                           long maxResults,
+                           boolean prefetch) throws ContentStoreException {
         index = 0;
         this.store = store;
         this.spaceId = spaceId;
         this.prefix = prefix;
         this.maxResults = maxResults;
         this.maxRetries = 7;
+        this.prefetch = prefetch;
         contentList = retryBuildContentList(null);
+        // Started on first use, so that setMaxRetries() applies
+        prefetchPending = prefetch;
     }
 
     public void setMaxRetries(int maxRetries) {
@@ -66,6 +99,7 @@ public class ContentIterator implements Iterator<String> {
     }
 
     public boolean hasNext() {
+        startPrefetch();
         if (index < contentList.size()) {
             return true;
         } else {
@@ -95,11 +129,48 @@ public class ContentIterator implements Iterator<String> {
     private void updateList() {
         String lastItem = contentList.get(contentList.size() - 1);
         try {
-            contentList = retryBuildContentList(lastItem);
+            if (null != nextContentList) {
+                contentList = getPrefetchedList();
+            } else {
+                contentList = retryBuildContentList(lastItem);
+            }
         } catch (ContentStoreException e) {
             throw new RuntimeException(e);
         }
         index = 0;
+        prefetchPending = prefetch;
+        startPrefetch();
+    }
+
+    /*
+     * Begins retrieving the chunk which follows the current chunk
+     */
+    private void startPrefetch() {
+        if (prefetchPending) {
+            prefetchPending = false;
+            if (!contentList.isEmpty()) {
+                final String lastItem = contentList.get(contentList.size() - 1);
+                nextContentList = PREFETCH_EXECUTOR.submit(
+                    () -> retryBuildContentList(lastItem));
+            }
+        }
+    }
+
+    private List<String> getPrefetchedList() throws ContentStoreException {
+        try {
+            return nextContentList.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ContentStoreException) {
+                throw (ContentStoreException) cause;
+            }
+            throw new ContentStoreException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContentStoreException(e);
+        } finally {
+            nextContentList = null;
+        }
     }
 
     private List<String> retryBuildContentList(String lastItem)
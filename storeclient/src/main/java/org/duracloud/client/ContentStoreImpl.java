@@ -10,7 +10,6 @@ package org.duracloud.client;
 import static org.duracloud.client.HttpHeaders.CONTENT_ENCODING;
 import static org.duracloud.storage.provider.StorageProvider.PROPERTIES_SPACE_ACL;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.MessageFormat;
@@ -55,9 +54,6 @@ import org.duracloud.storage.domain.StorageProviderType;
 import org.duracloud.storage.error.ChecksumMismatchException;
 import org.duracloud.storage.provider.StorageProvider;
 import org.duracloud.storage.util.IdUtil;
-import org.jdom.Document;
-import org.jdom.Element;
-import org.jdom.input.SAXBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -89,6 +85,8 @@ public class ContentStoreImpl implements ContentStore {
 
     private String clientVersion;
 
+    private boolean prefetchSpaceContents = false;
+
     /**
      * Creates a ContentStore. This ContentStore uses the default number of
      * retries when a failure occurs (3).
@@ -150,6 +148,17 @@ public class ContentStoreImpl implements ContentStore {
         this.retryExceptionHandler = retryExceptionHandler;
     }
 
+    /**
+     * Determines whether iterators returned by getSpaceContents() retrieve
+     * the next chunk of the listing in the background while the current
+     * chunk is consumed. Disabled by default.
+     *
+     * @param prefetchSpaceContents true to enable listing prefetch
+     */
+    public void setPrefetchSpaceContents(boolean prefetchSpaceContents) {
+        this.prefetchSpaceContents = prefetchSpaceContents;
+    }
+
     public String getBaseURL() {
         return baseURL;
     }
@@ -281,18 +290,15 @@ public class ContentStoreImpl implements ContentStore {
         try {
             HttpResponse response = restHelper.get(url);
             checkResponse(response, HttpStatus.SC_OK);
-            String responseText = response.getResponseBody();
-            if (responseText != null) {
+            InputStream responseStream = response.getResponseStream();
+            if (responseStream != null) {
                 List<String> spaceIds = new ArrayList<String>();
-                InputStream is =
-                    new ByteArrayInputStream(responseText.getBytes("UTF-8"));
-                SAXBuilder builder = new SAXBuilder();
-                Document doc = builder.build(is);
-                Element spacesElem = doc.getRootElement();
-                Iterator<?> spaceList = spacesElem.getChildren().iterator();
-                while (spaceList.hasNext()) {
-                    Element spaceElem = (Element) spaceList.next();
-                    spaceIds.add((spaceElem.getAttributeValue("id")));
+                try (SpaceListingReader reader =
+                         new SpaceListingReader(responseStream)) {
+                    String spaceId;
+                    while ((spaceId = reader.nextSpaceId()) != null) {
+                        spaceIds.add(spaceId);
+                    }
                 }
                 return spaceIds;
             } else {
@@ -327,7 +333,9 @@ public class ContentStoreImpl implements ContentStore {
             @Override
             public Iterator<String> retry() throws ContentStoreException {
                 // The actual method being executed
-                return new ContentIterator(store, spaceId, prefix);
+                return new ContentIterator(store, spaceId, prefix,
+                                           StorageProvider.DEFAULT_MAX_RESULTS,
+                                           prefetchSpaceContents);
             }
         });
     }
@@ -363,19 +371,15 @@ public class ContentStoreImpl implements ContentStore {
             Space space = new Space();
             space.setProperties(extractPropertiesFromHeaders(response));
 
-            String responseText = response.getResponseBody();
-            if (responseText != null) {
-                InputStream is =
-                    new ByteArrayInputStream(responseText.getBytes("UTF-8"));
-                SAXBuilder builder = new SAXBuilder();
-                Document doc = builder.build(is);
-                Element spaceElem = doc.getRootElement();
-
-                space.setId(spaceElem.getAttributeValue("id"));
-                Iterator<?> spaceContents = spaceElem.getChildren().iterator();
-                while (spaceContents.hasNext()) {
-                    Element contentElem = (Element) spaceContents.next();
-                    space.addContentId(contentElem.getText());
+            InputStream responseStream = response.getResponseStream();
+            if (responseStream != null) {
+                try (SpaceListingReader reader =
+                         new SpaceListingReader(responseStream)) {
+                    space.setId(reader.getSpaceId());
+                    String contentId;
+                    while ((contentId = reader.nextContentId()) != null) {
+                        space.addContentId(contentId);
+                    }
                 }
             } else {
                 throw new ContentStoreException("Response body is empty");
@@ -0,0 +1,149 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads the XML space listings returned by DuraStore directly from the
+ * response stream, one entry at a time, rather than building a document
+ * tree of the entire listing. Handles both the space listing:
+ *
+ * <pre>
+ * &lt;space id="space1"&gt;&lt;item&gt;content1&lt;/item&gt;...&lt;/space&gt;
+ * </pre>
+ *
+ * and the list of spaces:
+ *
+ * <pre>
+ * &lt;spaces&gt;&lt;space id="space1" /&gt;...&lt;/spaces&gt;
+ * </pre>
+ *
+ * Closing the reader closes the underlying stream.
+ */
+public class SpaceListingReader implements Closeable {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createFactory();
+
+    private InputStream stream;
+    private XMLStreamReader reader;
+    private String rootId;
+    private boolean done = false;
+
+    /**
+     * Reads the listing up to the end of the root element start tag.
+     *
+     * @param stream XML listing
+     * @throws XMLStreamException if the stream does not contain XML
+     */
+    public SpaceListingReader(InputStream stream) throws XMLStreamException {
+        this.stream = stream;
+        this.reader = XML_INPUT_FACTORY.createXMLStreamReader(stream);
+        reader.nextTag();
+        rootId = reader.getAttributeValue(null, "id");
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                            false);
+        return factory;
+    }
+
+    /**
+     * @return the id attribute of the root element, which is the space ID
+     * of a space listing
+     */
+    public String getSpaceId() {
+        return rootId;
+    }
+
+    /**
+     * Reads the next content ID from a space listing.
+     *
+     * @return the next content ID, or null if the end of the listing has
+     * been reached
+     */
+    public String nextContentId() throws XMLStreamException {
+        if (!nextEntry()) {
+            return null;
+        }
+        return reader.getElementText();
+    }
+
+    /**
+     * Reads the next space ID from a list of spaces.
+     *
+     * @return the next space ID, or null if the end of the list has
+     * been reached
+     */
+    public String nextSpaceId() throws XMLStreamException {
+        if (!nextEntry()) {
+            return null;
+        }
+        String spaceId = reader.getAttributeValue(null, "id");
+        skipElement();
+        return spaceId;
+    }
+
+    /*
+     * Moves to the start of the next child of the root element
+     */
+    private boolean nextEntry() throws XMLStreamException {
+        if (done) {
+            return false;
+        }
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                // End of the root element
+                done = true;
+                return false;
+            }
+        }
+        done = true;
+        return false;
+    }
+
+    /*
+     * Moves to the end of the current element
+     */
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            stream.close();
+        }
+    }
+
+}
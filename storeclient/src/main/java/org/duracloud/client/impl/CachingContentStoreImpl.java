@@ -7,20 +7,28 @@
  */
 package org.duracloud.client.impl;
 
+import java.io.InputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.duracloud.client.ContentStoreImpl;
+import org.duracloud.common.model.AclType;
 import org.duracloud.common.web.RestHttpHelper;
 import org.duracloud.error.ContentStoreException;
+import org.duracloud.error.NotFoundException;
 import org.duracloud.storage.domain.StorageProviderType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This class retains the results of the initial call to:
- * getSpaces()
+ * This class retains the results of calls to:
+ * getSpaces(), getSpaceProperties(), getSpaceACLs(),
+ * getContentProperties(), and contentExists()
  * <p/>
- * and returns this cached value on subsequent calls.
+ * and returns these cached values on subsequent calls, until the cached
+ * value expires or is invalidated by a change made through this store.
+ * Changes made by other clients are seen once the cached value expires.
  *
  * @author Andrew Woods
  * Date: Nov 30, 2010
@@ -30,24 +38,234 @@ public class CachingContentStoreImpl extends ContentStoreImpl {
     private static final Logger log = LoggerFactory.getLogger(
         CachingContentStoreImpl.class);
 
-    private List<String> spaces;
+    public static final long DEFAULT_CACHE_TIME_TO_LIVE = 60 * 1000;
+    public static final int DEFAULT_CACHE_MAX_SIZE = 1000;
+
+    private static final String SPACES_KEY = "spaces";
+
+    private ExpiringCache<String, List<String>> spaces;
+    private ExpiringCache<String, Map<String, String>> spaceProperties;
+    private ExpiringCache<String, Map<String, AclType>> spaceACLs;
+    private ExpiringCache<String, Map<String, String>> contentProperties;
+    private ExpiringCache<String, Boolean> contentExists;
 
     public CachingContentStoreImpl(String baseURL,
                                    StorageProviderType type,
                                    String storeId,
                                    Boolean writable,
                                    RestHttpHelper restHelper) {
+        this(baseURL,
+             type,
+             storeId,
+             writable,
+             restHelper,
+             DEFAULT_CACHE_TIME_TO_LIVE,
+             DEFAULT_CACHE_MAX_SIZE);
+    }
+
+    /**
+     * @param cacheTimeToLive milliseconds for which a cached value is used
+     * @param cacheMaxSize    maximum number of spaces and of content items
+     *                        for which values are cached
+     */
+    public CachingContentStoreImpl(String baseURL,
+                                   StorageProviderType type,
+                                   String storeId,
+                                   Boolean writable,
+                                   RestHttpHelper restHelper,
+                                   long cacheTimeToLive,
+                                   int cacheMaxSize) {
         super(baseURL, type, storeId, writable, restHelper);
+        this.spaces = new ExpiringCache<>(cacheTimeToLive, 1);
+        this.spaceProperties = new ExpiringCache<>(cacheTimeToLive, cacheMaxSize);
+        this.spaceACLs = new ExpiringCache<>(cacheTimeToLive, cacheMaxSize);
+        this.contentProperties = new ExpiringCache<>(cacheTimeToLive, cacheMaxSize);
+        this.contentExists = new ExpiringCache<>(cacheTimeToLive, cacheMaxSize);
     }
 
     @Override
     public List<String> getSpaces() throws ContentStoreException {
         log.debug("enter: getSpaces()");
-        if (null == this.spaces) {
+        List<String> cached = spaces.get(SPACES_KEY);
+        if (null == cached) {
             log.debug("populating cache.");
-            this.spaces = super.getSpaces();
+            cached = super.getSpaces();
+            spaces.put(SPACES_KEY, cached);
+        }
+        return cached;
+    }
+
+    @Override
+    public Map<String, String> getSpaceProperties(String spaceId)
+        throws ContentStoreException {
+        Map<String, String> cached = spaceProperties.get(spaceId);
+        if (null == cached) {
+            cached = super.getSpaceProperties(spaceId);
+            spaceProperties.put(spaceId, cached);
+        }
+        return new HashMap<>(cached);
+    }
+
+    @Override
+    public Map<String, AclType> getSpaceACLs(String spaceId)
+        throws ContentStoreException {
+        Map<String, AclType> cached = spaceACLs.get(spaceId);
+        if (null == cached) {
+            cached = super.getSpaceACLs(spaceId);
+            spaceACLs.put(spaceId, cached);
+        }
+        return new HashMap<>(cached);
+    }
+
+    @Override
+    public Map<String, String> getContentProperties(String spaceId,
+                                                    String contentId)
+        throws ContentStoreException {
+        String key = getContentKey(spaceId, contentId);
+        Map<String, String> cached = contentProperties.get(key);
+        if (null == cached) {
+            try {
+                cached = super.getContentProperties(spaceId, contentId);
+            } catch (NotFoundException e) {
+                contentExists.put(key, false);
+                throw e;
+            }
+            contentProperties.put(key, cached);
+            contentExists.put(key, true);
+        }
+        return new HashMap<>(cached);
+    }
+
+    @Override
+    public boolean contentExists(String spaceId, String contentId)
+        throws ContentStoreException {
+        String key = getContentKey(spaceId, contentId);
+        Boolean cached = contentExists.get(key);
+        if (null == cached) {
+            cached = super.contentExists(spaceId, contentId);
+            contentExists.put(key, cached);
+        }
+        return cached;
+    }
+
+    @Override
+    public void createSpace(String spaceId) throws ContentStoreException {
+        try {
+            super.createSpace(spaceId);
+        } finally {
+            invalidateSpace(spaceId);
+        }
+    }
+
+    @Override
+    public void deleteSpace(String spaceId) throws ContentStoreException {
+        try {
+            super.deleteSpace(spaceId);
+        } finally {
+            invalidateSpace(spaceId);
+            String prefix = getContentKey(spaceId, "");
+            contentProperties.removeIf(key -> key.startsWith(prefix));
+            contentExists.removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    @Override
+    public void setSpaceACLs(String spaceId, Map<String, AclType> spaceACLs)
+        throws ContentStoreException {
+        try {
+            super.setSpaceACLs(spaceId, spaceACLs);
+        } finally {
+            invalidateSpace(spaceId);
+        }
+    }
+
+    @Override
+    public String addContent(String spaceId,
+                             String contentId,
+                             InputStream content,
+                             long contentSize,
+                             String contentMimeType,
+                             String contentChecksum,
+                             Map<String, String> contentProperties)
+        throws ContentStoreException {
+        try {
+            return super.addContent(spaceId,
+                                    contentId,
+                                    content,
+                                    contentSize,
+                                    contentMimeType,
+                                    contentChecksum,
+                                    contentProperties);
+        } finally {
+            invalidateContent(spaceId, contentId);
+        }
+    }
+
+    @Override
+    public String copyContent(String srcSpaceId,
+                              String srcContentId,
+                              String destStoreId,
+                              String destSpaceId,
+                              String destContentId)
+        throws ContentStoreException {
+        try {
+            return super.copyContent(srcSpaceId,
+                                     srcContentId,
+                                     destStoreId,
+                                     destSpaceId,
+                                     destContentId);
+        } finally {
+            if (getStoreId().equals(destStoreId)) {
+                invalidateContent(destSpaceId, destContentId);
+            }
         }
-        return this.spaces;
+    }
+
+    @Override
+    public void deleteContent(String spaceId, String contentId)
+        throws ContentStoreException {
+        try {
+            super.deleteContent(spaceId, contentId);
+        } finally {
+            invalidateContent(spaceId, contentId);
+        }
+    }
+
+    @Override
+    public void setContentProperties(String spaceId,
+                                     String contentId,
+                                     Map<String, String> contentProperties)
+        throws ContentStoreException {
+        try {
+            super.setContentProperties(spaceId, contentId, contentProperties);
+        } finally {
+            invalidateContent(spaceId, contentId);
+        }
+    }
+
+    /*
+     * Space properties include the ACLs and the space item count, so they
+     * are invalidated along with the ACLs and with any content change.
+     */
+    private void invalidateSpace(String spaceId) {
+        spaces.clear();
+        spaceProperties.remove(spaceId);
+        spaceACLs.remove(spaceId);
+    }
+
+    private void invalidateContent(String spaceId, String contentId) {
+        String key = getContentKey(spaceId, contentId);
+        contentProperties.remove(key);
+        contentExists.remove(key);
+        spaceProperties.remove(spaceId);
+    }
+
+    /*
+     * Space IDs cannot include a slash, so the key prefix up to and
+     * including the slash identifies all content in a space
+     */
+    private String getContentKey(String spaceId, String contentId) {
+        return spaceId + "/" + contentId;
     }
 
 }
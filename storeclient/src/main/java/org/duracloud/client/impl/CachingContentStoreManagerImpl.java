@@ -34,6 +34,9 @@ public class CachingContentStoreManagerImpl extends ContentStoreManagerImpl {
 
     private Map<String, ContentStore> contentStores;
     private ContentStore primaryContentStore;
+    private long cacheTimeToLive =
+        CachingContentStoreImpl.DEFAULT_CACHE_TIME_TO_LIVE;
+    private int cacheMaxSize = CachingContentStoreImpl.DEFAULT_CACHE_MAX_SIZE;
 
     public CachingContentStoreManagerImpl(String host,
                                           String port,
@@ -67,7 +70,28 @@ public class CachingContentStoreManagerImpl extends ContentStoreManagerImpl {
                                            acct.getType(),
                                            acct.getId(),
                                            isWritable(acct),
-                                           getRestHelper());
+                                           getRestHelper(),
+                                           cacheTimeToLive,
+                                           cacheMaxSize);
+    }
+
+    /**
+     * Sets the time for which the content stores retain cached values.
+     * Applies to content stores created after this call.
+     *
+     * @param cacheTimeToLive in milliseconds
+     */
+    public void setCacheTimeToLive(long cacheTimeToLive) {
+        this.cacheTimeToLive = cacheTimeToLive;
+    }
+
+    /**
+     * Sets the maximum number of spaces and of content items for which the
+     * content stores retain cached values. Applies to content stores created
+     * after this call.
+     */
+    public void setCacheMaxSize(int cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
     }
 
     protected void setRestHelper(RestHttpHelper restHelper) {
@@ -0,0 +1,87 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.client.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A size-bounded cache whose entries expire a fixed time after they are
+ * added. When the cache is full, the least recently used entry is evicted.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+class ExpiringCache<K, V> {
+
+    private final long timeToLive;
+    private final Map<K, Entry<V>> entries;
+
+    /**
+     * @param timeToLive milliseconds for which an entry is retained
+     * @param maxSize    maximum number of entries retained
+     */
+    ExpiringCache(long timeToLive, final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        this.timeToLive = timeToLive;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the cached value, or null if there is none or it has expired
+     */
+    synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (null == entry) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expires) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + timeToLive));
+    }
+
+    synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all entries with keys which match the filter
+     */
+    synchronized void removeIf(Predicate<K> filter) {
+        entries.keySet().removeIf(filter);
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expires;
+
+        Entry(V value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+
+}
@@ -41,6 +41,52 @@ public class ContentIteratorTest {
         }
     }
 
+    @Test
+    public void testIteratorPrefetch() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            ContentStore testStore = new MockStore(i);
+            long maxResults = 10;
+            ContentIterator iterator =
+                new ContentIterator(testStore, "spaceId", "prefix", maxResults, true);
+
+            int count = 0;
+            while (iterator.hasNext()) {
+                Assert.assertEquals("test" + count, iterator.next());
+                count++;
+            }
+            Assert.assertEquals(i, count);
+        }
+    }
+
+    @Test
+    public void testIteratorPrefetchError() throws Exception {
+        ContentStore testStore = new MockStore(20) {
+            @Override
+            public Space getSpace(String spaceId,
+                                  String prefix,
+                                  long maxResults,
+                                  String marker) throws ContentStoreException {
+                if (marker != null) {
+                    throw new ContentStoreException("Expected error");
+                }
+                return super.getSpace(spaceId, prefix, maxResults, marker);
+            }
+        };
+        ContentIterator iterator =
+            new ContentIterator(testStore, "spaceId", "prefix", 10, true);
+        iterator.setMaxRetries(0);
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(iterator.next());
+        }
+        try {
+            iterator.hasNext();
+            Assert.fail("Exception expected");
+        } catch (RuntimeException e) {
+            assertNotNull(e.getCause());
+        }
+    }
+
     private class MockStore extends ContentStoreImpl {
 
         private List<String> contentItems;
@@ -145,7 +145,8 @@ public class ContentStoreImplTest {
         String xml = "<spaces><space id=\"space1\" /><space id=\"space2\" /></spaces>";
         String fullURL = baseURL + "/spaces" + "?storeID=" + storeId;
         EasyMock.expect(response.getStatusCode()).andReturn(200);
-        EasyMock.expect(response.getResponseBody()).andReturn(xml);
+        EasyMock.expect(response.getResponseStream())
+                .andReturn(new ByteArrayInputStream(xml.getBytes()));
         EasyMock.expect(restHelper.get(fullURL)).andReturn(response);
 
         replayMocks();
@@ -160,7 +161,8 @@ public class ContentStoreImplTest {
         String fullURL = baseURL + "/" + spaceId +
                          "?maxResults=" + StorageProvider.DEFAULT_MAX_RESULTS + "&storeID=" + storeId;
         EasyMock.expect(response.getStatusCode()).andReturn(200);
-        EasyMock.expect(response.getResponseBody()).andReturn(xml);
+        EasyMock.expect(response.getResponseStream())
+                .andReturn(new ByteArrayInputStream(xml.getBytes()));
         EasyMock.expect(restHelper.get(fullURL)).andReturn(response);
         EasyMock.expect(response.getResponseHeaders()).andReturn(new Header[0]);
 
@@ -178,7 +180,8 @@ public class ContentStoreImplTest {
         String fullURL = baseURL + "/" + spaceId +
                          "?maxResults=10&storeID=" + storeId;
         EasyMock.expect(response.getStatusCode()).andReturn(200);
-        EasyMock.expect(response.getResponseBody()).andReturn(xml);
+        EasyMock.expect(response.getResponseStream())
+                .andReturn(new ByteArrayInputStream(xml.getBytes()));
         EasyMock.expect(response.getResponseHeaders()).andReturn(new Header[0]);
 
         EasyMock.expect(restHelper.get(fullURL)).andReturn(response);
@@ -187,8 +190,10 @@ public class ContentStoreImplTest {
 
         Space space = contentStore.getSpace(spaceId, null, 10, null);
         Assert.assertNotNull(space);
+        Assert.assertEquals("space1", space.getId());
         List<String> spaceContents = space.getContentIds();
         Assert.assertEquals(2, spaceContents.size());
+        Assert.assertEquals("Image 1", spaceContents.get(0));
     }
 
     @Test
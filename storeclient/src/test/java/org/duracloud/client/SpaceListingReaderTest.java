@@ -0,0 +1,64 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Tests the SpaceListingReader
+ */
+public class SpaceListingReaderTest {
+
+    private SpaceListingReader createReader(String xml) throws Exception {
+        return new SpaceListingReader(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testReadSpace() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                     "<space id=\"space1\">\n" +
+                     "  <item>Image 1</item>\n" +
+                     "  <item>dir/a &amp; b</item>\n" +
+                     "</space>";
+        try (SpaceListingReader reader = createReader(xml)) {
+            assertEquals("space1", reader.getSpaceId());
+            assertEquals("Image 1", reader.nextContentId());
+            assertEquals("dir/a & b", reader.nextContentId());
+            assertNull(reader.nextContentId());
+            assertNull(reader.nextContentId());
+        }
+    }
+
+    @Test
+    public void testReadEmptySpace() throws Exception {
+        try (SpaceListingReader reader = createReader("<space id=\"space1\"/>")) {
+            assertEquals("space1", reader.getSpaceId());
+            assertNull(reader.nextContentId());
+        }
+    }
+
+    @Test
+    public void testReadSpaces() throws Exception {
+        String xml = "<spaces><space id=\"space1\" />" +
+                     "<space id=\"space2\"></space></spaces>";
+        try (SpaceListingReader reader = createReader(xml)) {
+            assertNull(reader.getSpaceId());
+            assertEquals("space1", reader.nextSpaceId());
+            assertEquals("space2", reader.nextSpaceId());
+            assertNull(reader.nextSpaceId());
+        }
+    }
+
+}
@@ -7,13 +7,22 @@
  */
 package org.duracloud.client.impl;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.apache.http.Header;
 import org.apache.http.HttpStatus;
+import org.apache.http.message.BasicHeader;
 import org.duracloud.common.web.RestHttpHelper;
 import org.duracloud.storage.domain.StorageProviderType;
 import org.easymock.EasyMock;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -26,31 +35,106 @@ public class CachingContentStoreImplTest {
     private CachingContentStoreImpl contentStore;
     private RestHttpHelper restHttpHelper;
 
+    private String spaceId = "space-id";
+    private String contentId = "dir/content-id";
+
     @Before
     public void setUp() throws Exception {
-        contentStore = new CachingContentStoreImpl("http://example.org",
-                                                   StorageProviderType.AMAZON_S3,
-                                                   "store-id",
-                                                   false,
-                                                   createMockRestHelper());
-    }
-
-    private RestHttpHelper createMockRestHelper() throws Exception {
         restHttpHelper = EasyMock.createMock("RestHttpHelper",
                                              RestHttpHelper.class);
+        contentStore = createContentStore(CachingContentStoreImpl.DEFAULT_CACHE_TIME_TO_LIVE);
+    }
+
+    @After
+    public void tearDown() {
+        EasyMock.verify(restHttpHelper);
+    }
+
+    private CachingContentStoreImpl createContentStore(long cacheTimeToLive) {
+        return new CachingContentStoreImpl("http://example.org",
+                                           StorageProviderType.AMAZON_S3,
+                                           "store-id",
+                                           false,
+                                           restHttpHelper,
+                                           cacheTimeToLive,
+                                           CachingContentStoreImpl.DEFAULT_CACHE_MAX_SIZE);
+    }
+
+    @Test
+    public void testGetSpaces() throws Exception {
         EasyMock.expect(restHttpHelper.get(EasyMock.isA(String.class)))
                 .andReturn(createHttpResponse())
                 .times(1);
+        EasyMock.replay(restHttpHelper);
+
+        contentStore.getSpaces();
+        contentStore.getSpaces();
+    }
+
+    @Test
+    public void testGetContentProperties() throws Exception {
+        EasyMock.expect(restHttpHelper.head(EasyMock.isA(String.class)))
+                .andReturn(createHeadResponse(HttpStatus.SC_OK))
+                .andReturn(createHeadResponse(HttpStatus.SC_OK));
+        EasyMock.expect(restHttpHelper.post(EasyMock.isA(String.class),
+                                            EasyMock.<String>isNull(),
+                                            EasyMock.<Map<String, String>>anyObject()))
+                .andReturn(createResponse(HttpStatus.SC_OK, null));
+        EasyMock.replay(restHttpHelper);
+
+        Map<String, String> props =
+            contentStore.getContentProperties(spaceId, contentId);
+        assertEquals("value", props.get("name"));
+
+        // Cached, and not affected by changes to the returned map
+        props.put("name", "changed");
+        assertEquals("value",
+                     contentStore.getContentProperties(spaceId, contentId).get("name"));
+        assertTrue(contentStore.contentExists(spaceId, contentId));
+
+        // Updating the properties invalidates the cached value
+        contentStore.setContentProperties(spaceId, contentId, new HashMap<>());
+        contentStore.getContentProperties(spaceId, contentId);
+    }
 
+    @Test
+    public void testContentExists() throws Exception {
+        EasyMock.expect(restHttpHelper.head(EasyMock.isA(String.class)))
+                .andReturn(createHeadResponse(HttpStatus.SC_NOT_FOUND))
+                .andReturn(createHeadResponse(HttpStatus.SC_NOT_FOUND));
+        EasyMock.expect(restHttpHelper.delete(EasyMock.isA(String.class)))
+                .andReturn(createResponse(HttpStatus.SC_OK, null));
         EasyMock.replay(restHttpHelper);
-        return restHttpHelper;
+
+        assertFalse(contentStore.contentExists(spaceId, contentId));
+        assertFalse(contentStore.contentExists(spaceId, contentId));
+
+        // Deleting the content invalidates the cached value
+        contentStore.deleteContent(spaceId, contentId);
+        assertFalse(contentStore.contentExists(spaceId, contentId));
     }
 
     @Test
-    public void testGetSpaces() throws Exception {
-        contentStore.getSpaces();
-        contentStore.getSpaces();
-        EasyMock.verify(restHttpHelper);
+    public void testCacheExpires() throws Exception {
+        contentStore = createContentStore(0);
+        EasyMock.expect(restHttpHelper.head(EasyMock.isA(String.class)))
+                .andReturn(createHeadResponse(HttpStatus.SC_OK))
+                .andReturn(createHeadResponse(HttpStatus.SC_OK));
+        EasyMock.replay(restHttpHelper);
+
+        assertTrue(contentStore.contentExists(spaceId, contentId));
+        assertTrue(contentStore.contentExists(spaceId, contentId));
+    }
+
+    private RestHttpHelper.HttpResponse createHeadResponse(int status) {
+        Header[] headers = {new BasicHeader("x-dura-meta-name", "value")};
+        return createResponse(status, headers);
+    }
+
+    private RestHttpHelper.HttpResponse createResponse(int status,
+                                                       Header[] headers) {
+        return RestHttpHelper.HttpResponse.buildMock(
+            status, headers, new ByteArrayInputStream(new byte[0]));
     }
 
     private RestHttpHelper.HttpResponse createHttpResponse() throws Exception {
@@ -105,6 +105,8 @@ public class SwiftStorageProvider extends S3StorageProvider {
             String err = "Could not delete Swift container with name " + bucketName
                          + " due to error: " + e.getMessage();
             throw new StorageException(err, e, RETRY);
+        } finally {
+            removeFromBucketCache(spaceId);
         }
 
         // Space properties are stored as tags with the S3 bucket.
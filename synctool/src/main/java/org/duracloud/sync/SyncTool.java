@@ -172,7 +172,7 @@ public class SyncTool {
                                           syncConfig.getPassword(),
                                           syncConfig.getStoreId());
 
-        syncEndpoint =
+        DuraStoreChunkSyncEndpoint chunkSyncEndpoint =
             new DuraStoreChunkSyncEndpoint(contentStore,
                                            syncConfig.getUsername(),
                                            syncConfig.getSpaceId(),
@@ -184,6 +184,11 @@ public class SyncTool {
                                            syncConfig.getUpdateSuffix(),
                                            syncConfig.getPrefix());
 
+        chunkSyncEndpoint.setMaxInFlightChunks(syncConfig.getChunkThreads());
+        if (syncConfig.isBulkCheck() && !syncConfig.isJumpStart()) {
+            chunkSyncEndpoint.loadChecksumIndex();
+        }
+        syncEndpoint = chunkSyncEndpoint;
         this.syncEndpoint.addEndPointListener(new EndPointLogger());
 
         syncManager = new SyncManager(syncConfig.getContentDirs(),
@@ -194,20 +199,24 @@ public class SyncTool {
     }
 
     private void startDirWalker() {
-        dirWalker = DirWalker.start(syncConfig.getContentDirs(), fileExclusionManager);
+        dirWalker = DirWalker.start(syncConfig.getContentDirs(),
+                                    fileExclusionManager,
+                                    syncConfig.getWalkThreads());
     }
 
     private void startRestartDirWalker(long lastBackup) {
         dirWalker = RestartDirWalker.start(syncConfig.getContentDirs(),
                                            lastBackup,
-                                           fileExclusionManager);
+                                           fileExclusionManager,
+                                           syncConfig.getWalkThreads());
     }
 
     private void startDeleteChecker() {
         deleteChecker = DeleteChecker.start(syncEndpoint,
                                             syncConfig.getSpaceId(),
                                             syncConfig.getContentDirs(),
-                                            syncConfig.getPrefix());
+                                            syncConfig.getPrefix(),
+                                            syncConfig.getNumThreads());
     }
 
     private void startDirMonitor() {
@@ -8,8 +8,14 @@
 package org.duracloud.sync.backup;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.io.FileUtils;
 import org.duracloud.sync.mgmt.ChangedList;
 import org.duracloud.sync.util.DirectoryUtil;
 import org.slf4j.Logger;
@@ -18,6 +24,12 @@ import org.slf4j.LoggerFactory;
 /**
  * Manages the backing up of the changed list on a consistent schedule.
  *
+ * Backups are written as a journal of changes to the list, the time of the
+ * most recent backup is recorded in a marker file alongside the journal.
+ * Backups written as full copies of the list by earlier versions are still
+ * loaded when no journal is available. The journal directory and the
+ * directory of full backups are both held in the work directory.
+ *
  * @author: Bill Branan
  * Date: Mar 19, 2010
  */
@@ -28,7 +40,9 @@ public class ChangedListBackupManager implements Runnable {
 
     public static final int SAVED_BACKUPS = 3;
     protected static final int DEFAULT_SLEEP_TIME = 5000; // 5 seconds
+    protected static final String BACKUP_TIME_FILE = "backup-time";
     private File backupDir;
+    private File journalDir;
     private long backupFrequency;
     private ChangedList changedList;
     private boolean continueBackup;
@@ -37,12 +51,16 @@ public class ChangedListBackupManager implements Runnable {
     private boolean backingUp = false;
 
     public ChangedListBackupManager(ChangedList changedList,
-                                    File backupDir,
+                                    File workDir,
                                     long backupFrequency, List<File> contentDirs) {
-        this.backupDir = new File(backupDir, "changeList");
+        this.backupDir = new File(workDir, "changeList");
         if (!this.backupDir.exists()) {
             this.backupDir.mkdir();
         }
+        this.journalDir = new File(workDir, "changeListJournal");
+        if (!this.journalDir.exists()) {
+            this.journalDir.mkdir();
+        }
 
         this.backupFrequency = backupFrequency;
         this.changedList = changedList;
@@ -59,7 +77,19 @@ public class ChangedListBackupManager implements Runnable {
      * @return the write time of the backup file, or -1 if no backup is available
      */
     public long loadBackup() {
-        long backupTime = -1;
+        long backupTime = readBackupTime();
+        if (backupTime > 0) {
+            try {
+                changedList.restoreJournal(journalDir, this.contentDirs);
+                return backupTime;
+            } catch (RuntimeException e) {
+                logger.error("Unable to load changed list journal: " +
+                             e.getMessage(), e);
+                return -1;
+            }
+        }
+
+        backupTime = -1;
         File[] backupDirFiles = getSortedBackupDirFiles();
         if (backupDirFiles.length > 0) {
             File latestBackup = backupDirFiles[0];
@@ -76,20 +106,64 @@ public class ChangedListBackupManager implements Runnable {
         return backupTime;
     }
 
+    private File getBackupTimeFile() {
+        return new File(journalDir, BACKUP_TIME_FILE);
+    }
+
+    /*
+     * Reads the time of the last journal backup, returns -1 if there is no
+     * journal backup available
+     */
+    private long readBackupTime() {
+        File backupTimeFile = getBackupTimeFile();
+        if (!backupTimeFile.exists()) {
+            return -1;
+        }
+
+        try {
+            String backupTime =
+                FileUtils.readFileToString(backupTimeFile, StandardCharsets.UTF_8);
+            return Long.parseLong(backupTime.trim());
+        } catch (IOException | NumberFormatException e) {
+            logger.error("Unable to read changed list backup time from " +
+                         backupTimeFile.getAbsolutePath() + ": " +
+                         e.getMessage());
+            return -1;
+        }
+    }
+
+    private void writeBackupTime(long backupTime) throws IOException {
+        File tempFile = new File(journalDir, BACKUP_TIME_FILE + ".tmp");
+        FileUtils.writeStringToFile(tempFile, String.valueOf(backupTime),
+                                    StandardCharsets.UTF_8);
+        Files.move(tempFile.toPath(), getBackupTimeFile().toPath(),
+                   StandardCopyOption.REPLACE_EXISTING);
+    }
+
     /**
-     * Runs the backup manager. Writes out files which are a backups of the
-     * changed list based on the set backup frequency. Retains SAVED_BACKUPS
-     * number of backup files, removes the rest.
+     * Runs the backup manager. Writes changes made to the changed list to
+     * the journal based on the set backup frequency. Once the journal has
+     * been written, backup files written by earlier versions are removed.
      */
     public void run() {
         while (continueBackup) {
-            if (changedListVersion < changedList.getVersion()) {
-                cleanupBackupDir(SAVED_BACKUPS);
-                String filename = String.valueOf(System.currentTimeMillis());
-                File persistFile = new File(backupDir, filename);
+            if (changedListVersion != changedList.getVersion() ||
+                !changedList.isJournalStarted()) {
                 backingUp = true;
-                changedListVersion = changedList.persist(persistFile);
-                backingUp = false;
+                try {
+                    long backupTime = System.currentTimeMillis();
+                    if (!changedList.isJournalStarted()) {
+                        changedList.startJournal(journalDir);
+                    }
+                    changedListVersion = changedList.persistJournal();
+                    writeBackupTime(backupTime);
+                    cleanupBackupDir(0);
+                } catch (IOException e) {
+                    logger.error("Unable to write changed list backup time: " +
+                                 e.getMessage(), e);
+                } finally {
+                    backingUp = false;
+                }
             }
 
             sleepAndCheck(backupFrequency);
@@ -138,13 +212,26 @@ public class ChangedListBackupManager implements Runnable {
         }
 
         synchronized (this) {
+            changedList.stopJournal();
+            FileUtils.deleteQuietly(journalDir);
+            journalDir.mkdir();
             cleanupBackupDir(0);
         }
 
     }
 
+    /*
+     * Lists the backup files written by earlier versions, newest first.
+     * Directories are not backups, so are not listed.
+     */
     private File[] getSortedBackupDirFiles() {
-        return DirectoryUtil.listFilesSortedByModDate(backupDir);
+        List<File> backupFiles = new ArrayList<>();
+        for (File file : DirectoryUtil.listFilesSortedByModDate(backupDir)) {
+            if (file.isFile()) {
+                backupFiles.add(file);
+            }
+        }
+        return backupFiles.toArray(new File[backupFiles.size()]);
     }
 
     public void endBackup() {
@@ -152,6 +239,7 @@ public class ChangedListBackupManager implements Runnable {
     }
 
     public boolean hasBackups() {
-        return getSortedBackupDirFiles().length > 0;
+        return getBackupTimeFile().exists() ||
+               getSortedBackupDirFiles().length > 0;
     }
 }
@@ -33,6 +33,8 @@ public class SyncToolConfig implements Serializable {
     private long pollFrequency;
     private long backupFrequency = DEFAULT_BACKUP_FREQUENCY;
     private int numThreads = 5;
+    private int walkThreads;
+    private int chunkThreads;
     private long maxFileSize;
     private boolean syncDeletes;
     private boolean cleanStart;
@@ -44,6 +46,7 @@ public class SyncToolConfig implements Serializable {
     private String updateSuffix = DEFAULT_UPDATE_SUFFIX;
     private String prefix;
     private boolean jumpStart = false;
+    private boolean bulkCheck = false;
 
     public String getPrintableConfig() {
         StringBuilder config = new StringBuilder();
@@ -80,6 +83,10 @@ public class SyncToolConfig implements Serializable {
         config.append("\n");
         config.append("SyncTool Threads: ");
         config.append(getNumThreads()).append("\n");
+        config.append("SyncTool Walk Threads: ");
+        config.append(getWalkThreads()).append("\n");
+        config.append("SyncTool Chunk Threads: ");
+        config.append(getChunkThreads()).append("\n");
         config.append("SyncTool Max File Size: ");
         config.append(getMaxFileSize()).append(" bytes\n");
         config.append("SyncTool Syncing Deletes: ");
@@ -94,6 +101,8 @@ public class SyncToolConfig implements Serializable {
         config.append(isCleanStart()).append("\n");
         config.append("Jump Start Mode: ");
         config.append(isJumpStart()).append("\n");
+        config.append("Bulk Check Mode: ");
+        config.append(isBulkCheck()).append("\n");
         config.append("SyncTool Exit on Completion: ");
         config.append(exitOnCompletion()).append("\n");
         config.append("Sync Updates: ");
@@ -199,6 +208,30 @@ public class SyncToolConfig implements Serializable {
         this.numThreads = numThreads;
     }
 
+    /**
+     * @return the number of threads used to walk the content directories,
+     * a value less than 1 indicates the default
+     */
+    public int getWalkThreads() {
+        return walkThreads;
+    }
+
+    public void setWalkThreads(int walkThreads) {
+        this.walkThreads = walkThreads;
+    }
+
+    /**
+     * @return the number of chunks of a single file which are uploaded
+     * concurrently, a value less than 1 indicates the default
+     */
+    public int getChunkThreads() {
+        return chunkThreads;
+    }
+
+    public void setChunkThreads(int chunkThreads) {
+        this.chunkThreads = chunkThreads;
+    }
+
     public long getMaxFileSize() {
         return maxFileSize;
     }
@@ -283,6 +316,14 @@ public class SyncToolConfig implements Serializable {
         this.jumpStart = jumpStart;
     }
 
+    public boolean isBulkCheck() {
+        return bulkCheck;
+    }
+
+    public void setBulkCheck(boolean bulkCheck) {
+        this.bulkCheck = bulkCheck;
+    }
+
     public long getBackupFrequency() {
         return backupFrequency;
     }
@@ -27,6 +27,7 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.duracloud.common.util.CommandLineToolUtil;
 import org.duracloud.common.util.ConsolePrompt;
+import org.duracloud.sync.walker.DirWalker;
 
 /**
  * Handles reading the configuration parameters for the Sync Tool
@@ -44,6 +45,8 @@ public class SyncToolConfigParser {
     protected static final int DEFAULT_PORT = 443;
     protected static final long DEFAULT_POLL_FREQUENCY = 10000;
     protected static final int DEFAULT_NUM_THREADS = 3;
+    protected static final int DEFAULT_WALK_THREADS = DirWalker.DEFAULT_PARALLELISM;
+    protected static final int DEFAULT_CHUNK_THREADS = 1;
     protected static final int DEFAULT_MAX_FILE_SIZE = 1; // 1 GB
     protected static final String context = "durastore";
 
@@ -138,6 +141,24 @@ public class SyncToolConfigParser {
         numThreads.setRequired(false);
         cmdOptions.addOption(numThreads);
 
+        Option walkThreads =
+            new Option("k", "walk-threads", true,
+                       "the number of threads used to walk the content " +
+                       "directories when searching for files to sync " +
+                       "(optional, default value is " +
+                       DEFAULT_WALK_THREADS + ")");
+        walkThreads.setRequired(false);
+        cmdOptions.addOption(walkThreads);
+
+        Option chunkThreads =
+            new Option("v", "chunk-threads", true,
+                       "the number of chunks of a single file which are " +
+                       "uploaded concurrently, for files larger than the " +
+                       "max file size (optional, default value is " +
+                       DEFAULT_CHUNK_THREADS + ")");
+        chunkThreads.setRequired(false);
+        cmdOptions.addOption(chunkThreads);
+
         Option maxFileSize =
             new Option("m", "max-file-size", true,
                        "the maximum size of a stored file in GB (value must " +
@@ -196,6 +217,18 @@ public class SyncToolConfigParser {
         jumpStart.setRequired(false);
         cmdOptions.addOption(jumpStart);
 
+        Option bulkCheck =
+            new Option("b", "bulk-check", false,
+                       "indicates that the sync tool should retrieve the " +
+                       "manifest of the DuraCloud space when it starts, and " +
+                       "use the checksums it lists to find content which is " +
+                       "already in DuraCloud, rather than checking each file " +
+                       "individually. This option is best used when resuming " +
+                       "the sync of a large data set. (optional, not set by " +
+                       "default)");
+        bulkCheck.setRequired(false);
+        cmdOptions.addOption(bulkCheck);
+
         Option exitOnCompletion =
             new Option("x", "exit-on-completion", false,
                        "indicates that the sync tool should exit once it has " +
@@ -392,6 +425,28 @@ public class SyncToolConfigParser {
             config.setNumThreads(DEFAULT_NUM_THREADS);
         }
 
+        if (cmd.hasOption("k")) {
+            try {
+                config.setWalkThreads(Integer.valueOf(cmd.getOptionValue("k")));
+            } catch (NumberFormatException e) {
+                throw new ParseException("The value for walk-threads (-k) " +
+                                         "must be a number.");
+            }
+        } else {
+            config.setWalkThreads(DEFAULT_WALK_THREADS);
+        }
+
+        if (cmd.hasOption("v")) {
+            try {
+                config.setChunkThreads(Integer.valueOf(cmd.getOptionValue("v")));
+            } catch (NumberFormatException e) {
+                throw new ParseException("The value for chunk-threads (-v) " +
+                                         "must be a number.");
+            }
+        } else {
+            config.setChunkThreads(DEFAULT_CHUNK_THREADS);
+        }
+
         if (cmd.hasOption("m")) {
             String error = "The value for max-file-size (-m) must be a " +
                            "number between 1 and 5.";
@@ -456,6 +511,12 @@ public class SyncToolConfigParser {
             config.setJumpStart(false);
         }
 
+        if (cmd.hasOption("b")) {
+            config.setBulkCheck(true);
+        } else {
+            config.setBulkCheck(false);
+        }
+
         if (cmd.hasOption("x")) {
             config.setExitOnCompletion(true);
         } else {
@@ -0,0 +1,109 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.sync.endpoint;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the MD5 checksums of the content items in a space, read from a
+ * TSV space manifest. Checksums are held as raw bytes rather than hex
+ * strings, to keep the index small for spaces with many content items.
+ *
+ * The index is a snapshot taken when the manifest was read, so a checksum
+ * found here is only a hint about the current state of the space.
+ */
+class ContentChecksumIndex {
+
+    private static final int MD5_LENGTH = 16;
+
+    private final Map<String, byte[]> checksums = new ConcurrentHashMap<>();
+
+    /**
+     * Reads the content IDs and checksums of a TSV manifest, in which each
+     * line (after the header) is: space ID, content ID, MD5 checksum.
+     * Lines which cannot be read, including those with a checksum which is
+     * not an MD5 hex value, are not indexed. The stream is not closed.
+     *
+     * @param manifest stream of the TSV manifest
+     * @return the number of content items indexed
+     */
+    int load(InputStream manifest) throws IOException {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(manifest, StandardCharsets.UTF_8));
+        reader.readLine(); // header
+
+        int count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int idStart = line.indexOf('\t');
+            int idEnd = line.lastIndexOf('\t');
+            if (idStart < 0 || idEnd <= idStart) {
+                continue;
+            }
+
+            byte[] checksum = decode(line.substring(idEnd + 1));
+            if (null != checksum) {
+                checksums.put(line.substring(idStart + 1, idEnd), checksum);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param contentId of the content item
+     * @return true if a checksum of the content item is indexed
+     */
+    boolean contains(String contentId) {
+        return checksums.containsKey(contentId);
+    }
+
+    /**
+     * @param contentId of the content item
+     * @param checksum  MD5 checksum (hex) to compare
+     * @return true if the indexed checksum of the content item is the given
+     * checksum, false if it differs or the content item is not indexed
+     */
+    boolean matches(String contentId, String checksum) {
+        byte[] indexed = checksums.get(contentId);
+        return null != indexed && Arrays.equals(indexed, decode(checksum));
+    }
+
+    /**
+     * Removes a content item from the index, for use when the content item
+     * is known to have changed.
+     */
+    void remove(String contentId) {
+        checksums.remove(contentId);
+    }
+
+    private byte[] decode(String hex) {
+        if (null == hex || hex.length() != MD5_LENGTH * 2) {
+            return null;
+        }
+
+        byte[] bytes = new byte[MD5_LENGTH];
+        for (int i = 0; i < MD5_LENGTH; i++) {
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+
+}
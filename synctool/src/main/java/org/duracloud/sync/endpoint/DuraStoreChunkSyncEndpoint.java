@@ -45,6 +45,7 @@ public class DuraStoreChunkSyncEndpoint extends DuraStoreSyncEndpoint {
 
     private boolean jumpStart;
     private FileChunkerOptions chunkerOptions;
+    private int maxInFlightChunks = 1;
 
     public DuraStoreChunkSyncEndpoint(ContentStore contentStore,
                                       String username,
@@ -94,6 +95,15 @@ public class DuraStoreChunkSyncEndpoint extends DuraStoreSyncEndpoint {
         stitcher = new FileStitcherImpl(new DuraStoreDataSource(contentStore));
     }
 
+    /**
+     * @param maxInFlightChunks number of chunks of a single file which may be
+     *                          uploaded concurrently, a value less than 1
+     *                          indicates the default (1)
+     */
+    public void setMaxInFlightChunks(int maxInFlightChunks) {
+        this.maxInFlightChunks = maxInFlightChunks > 0 ? maxInFlightChunks : 1;
+    }
+
     @Override
     protected Map<String, String> getContentProperties(String spaceId,
                                                        String contentId) {
@@ -203,6 +213,7 @@ public class DuraStoreChunkSyncEndpoint extends DuraStoreSyncEndpoint {
 
         DuracloudContentWriter contentWriter =
             new DuracloudContentWriter(store, getUsername(), true, this.jumpStart);
+        contentWriter.setMaxInFlightChunks(maxInFlightChunks);
         FileChunker chunker = new FileChunker(contentWriter, chunkerOptions);
         final String spaceId = getSpaceId();
         chunker.addContent(spaceId,
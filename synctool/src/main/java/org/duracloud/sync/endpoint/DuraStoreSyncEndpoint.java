@@ -18,6 +18,7 @@ import java.util.Map;
 
 import org.apache.commons.lang3.event.EventListenerSupport;
 import org.duracloud.client.ContentStore;
+import org.duracloud.common.constant.ManifestFormat;
 import org.duracloud.common.util.ContentIdUtil;
 import org.duracloud.common.util.DateUtil;
 import org.duracloud.error.ContentStoreException;
@@ -37,6 +38,10 @@ public class DuraStoreSyncEndpoint implements SyncEndpoint {
     private final Logger logger =
         LoggerFactory.getLogger(DuraStoreSyncEndpoint.class);
 
+    // Files at least this large are checksummed before the transfer, as they
+    // may be stored by multipart upload (see S3StorageProvider)
+    protected static final long UPFRONT_CHECKSUM_SIZE = 128L * 1024 * 1024;
+
     private ContentStore contentStore;
     private String username;
     private String spaceId;
@@ -47,6 +52,7 @@ public class DuraStoreSyncEndpoint implements SyncEndpoint {
     private String updateSuffix;
     private String storeId;
     private String prefix;
+    private volatile ContentChecksumIndex checksumIndex;
     EventListenerSupport<EndPointListener> listenerList;
 
     public DuraStoreSyncEndpoint(ContentStore contentStore,
@@ -95,6 +101,31 @@ public class DuraStoreSyncEndpoint implements SyncEndpoint {
              null);
     }
 
+    /**
+     * Loads the checksums of all content in the space from the space
+     * manifest, so that files which are already in sync can be recognized
+     * without retrieving the properties of each content item from DuraCloud.
+     * Files which are not in the manifest, or whose checksum does not match
+     * the manifest, are still checked individually, as are all files if the
+     * manifest cannot be retrieved.
+     */
+    public void loadChecksumIndex() {
+        logger.info("Loading manifest of space {} to determine which " +
+                    "files are already in sync", spaceId);
+        ContentChecksumIndex index = new ContentChecksumIndex();
+        try (InputStream manifest =
+                 contentStore.getManifest(spaceId, ManifestFormat.TSV)) {
+            int count = index.load(manifest);
+            logger.info("Loaded checksums of {} content items in space {}",
+                        count, spaceId);
+            this.checksumIndex = index;
+        } catch (ContentStoreException | IOException e) {
+            logger.warn("Unable to load manifest of space " + spaceId +
+                        ", each file will be checked individually: " +
+                        e.getMessage());
+        }
+    }
+
     protected String getUsername() {
         return this.username;
     }
@@ -133,6 +164,15 @@ public class DuraStoreSyncEndpoint implements SyncEndpoint {
                 }
             }
 
+            // The local file is only read to compare it to an indexed checksum
+            ContentChecksumIndex index = checksumIndex;
+            if (null != index && index.contains(contentId) && syncFile.exists() &&
+                index.matches(contentId, syncFile.getChecksum())) {
+                logger.debug("Checksum for local file {} matches " +
+                             "space manifest, no update needed.", absPath);
+                return result;
+            }
+
             Map<String, String> contentProperties =
                 getContentProperties(spaceId, contentId);
             boolean dcFileExists = (null != contentProperties);
@@ -242,6 +282,7 @@ public class DuraStoreSyncEndpoint implements SyncEndpoint {
                                          String absPath)
         throws ContentStoreException {
         logger.debug("Local file {} deleted, removing from DuraCloud.", absPath);
+        removeFromChecksumIndex(contentId);
         deleteContent(spaceId, contentId);
         return SyncResultType.DELETED;
     }
@@ -260,22 +301,39 @@ public class DuraStoreSyncEndpoint implements SyncEndpoint {
         throws ContentStoreException {
         logger.info("Adding local file {} to DuraCloud space {}" +
                     " with content ID {}", absPath, spaceId, contentId);
+        removeFromChecksumIndex(contentId);
         addUpdateContent(contentId, syncFile);
     }
 
+    private void removeFromChecksumIndex(String contentId) {
+        ContentChecksumIndex index = checksumIndex;
+        if (null != index) {
+            index.remove(contentId);
+        }
+    }
+
     protected void addUpdateContent(String contentId, MonitoredFile syncFile)
         throws ContentStoreException {
         InputStream syncStream = syncFile.getStream();
         Map<String, String> props = createProps(syncFile.getAbsolutePath(), this.username);
 
+        // If the checksum is not yet known, rather than reading the file an
+        // extra time it is computed as the file is transferred, and then
+        // compared to the checksum reported by DuraCloud. Large files may be
+        // stored by multipart upload, which needs the checksum up front.
+        String checksum = null;
+        if (syncFile.hasChecksum() || syncFile.length() >= UPFRONT_CHECKSUM_SIZE) {
+            checksum = syncFile.getChecksum();
+        }
+        String dcChecksum;
         try {
-            contentStore.addContent(spaceId,
-                                    contentId,
-                                    syncStream,
-                                    syncFile.length(),
-                                    syncFile.getMimetype(),
-                                    syncFile.getChecksum(),
-                                    props);
+            dcChecksum = contentStore.addContent(spaceId,
+                                                 contentId,
+                                                 syncStream,
+                                                 syncFile.length(),
+                                                 syncFile.getMimetype(),
+                                                 checksum,
+                                                 props);
         } finally {
             try {
                 syncStream.close();
@@ -284,6 +342,30 @@ public class DuraStoreSyncEndpoint implements SyncEndpoint {
                              contentId + ": " + e.getMessage(), e);
             }
         }
+
+        if (null == checksum) {
+            String localChecksum = syncFile.getChecksum();
+            if (!localChecksum.equals(dcChecksum)) {
+                // Nothing checked the content before it was stored, so the
+                // stored copy is removed; otherwise a retry would see it as
+                // an existing item and might not replace it
+                removeFailedContent(contentId);
+                throw new ContentStoreException(
+                    "Checksum of content " + contentId + " in DuraCloud (" +
+                    dcChecksum + ") does not match checksum of local file " +
+                    syncFile.getAbsolutePath() + " (" + localChecksum + ")");
+            }
+        }
+    }
+
+    private void removeFailedContent(String contentId) {
+        try {
+            contentStore.deleteContent(spaceId, contentId);
+        } catch (ContentStoreException e) {
+            logger.error("Unable to remove content " + contentId + " from " +
+                         "space " + spaceId + " after a checksum mismatch: " +
+                         e.getMessage(), e);
+        }
     }
 
     protected Map<String, String> createProps(String absolutePath, String username) {
@@ -7,15 +7,23 @@
  */
 package org.duracloud.sync.endpoint;
 
+import static org.duracloud.common.util.ChecksumUtil.Algorithm.MD5;
+
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
+import java.security.DigestInputStream;
 
 import org.duracloud.common.util.ChecksumUtil;
 import org.duracloud.common.util.MimetypeUtil;
 
 /**
+ * The checksum of the file is computed as the file is read through
+ * getStream(), so a file which is streamed in full does not need to be
+ * read a second time to determine its checksum.
+ *
  * @author: Bill Branan
  * Date: 10/20/11
  */
@@ -23,6 +31,7 @@ public class MonitoredFile {
 
     private File file;
     private MonitoredInputStream stream;
+    private DigestInputStream digestStream;
     private String checksum;
     private String mimetype;
 
@@ -67,7 +76,9 @@ public class MonitoredFile {
     public MonitoredInputStream getStream() {
         if (null == stream) {
             try {
-                stream = new MonitoredInputStream(file);
+                digestStream =
+                    ChecksumUtil.wrapStream(new FileInputStream(file), MD5);
+                stream = new MonitoredInputStream(digestStream);
             } catch (FileNotFoundException e) {
                 throw new RuntimeException("Could not get stream for " +
                                            "file: " + file.getAbsolutePath() + " due to " +
@@ -78,12 +89,28 @@ public class MonitoredFile {
     }
 
     public String getChecksum() {
+        if (null == checksum && isStreamFullyRead()) {
+            checksum = ChecksumUtil.getChecksum(digestStream);
+        }
         if (null == checksum) {
             checksum = computeChecksum(file);
         }
         return checksum;
     }
 
+    /**
+     * @return true if the checksum of this file can be provided without
+     * reading the file, either because it has already been computed or
+     * because the file has been read in full through getStream()
+     */
+    public boolean hasChecksum() {
+        return null != checksum || isStreamFullyRead();
+    }
+
+    private boolean isStreamFullyRead() {
+        return null != stream && stream.getBytesRead() == file.length();
+    }
+
     /*
      * Computes the checksum of a local file
      */
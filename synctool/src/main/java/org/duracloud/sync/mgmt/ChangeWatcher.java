@@ -7,11 +7,16 @@
  */
 package org.duracloud.sync.mgmt;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Watches for new items on the ChangedList.
+ * Watches for new items on the ChangedList. Changed files are reserved in
+ * batches, waiting for files to be added when the list is empty, and are
+ * handed to the ChangeHandler as soon as they are reserved.
  *
  * @author: Bill Branan
  * Date: Mar 17, 2010
@@ -20,7 +25,10 @@ public class ChangeWatcher implements Runnable {
 
     private final Logger logger = LoggerFactory.getLogger(ChangeWatcher.class);
 
-    private boolean continueWatch;
+    // Maximum number of changed files reserved at a time
+    protected static final int BATCH_SIZE = 100;
+
+    private volatile boolean continueWatch;
     private ChangedList changedList;
     private ChangeHandler handler;
     private long watchFrequency;
@@ -32,7 +40,9 @@ public class ChangeWatcher implements Runnable {
      *
      * @param changedList    the ChangedList to watch
      * @param handler        the ChangeHandler to notify
-     * @param watchFrequency how often to check for changes
+     * @param watchFrequency the maximum time to wait for a change before
+     *                       checking whether to continue watching, and the
+     *                       time to wait when the handler is not ready
      */
     public ChangeWatcher(ChangedList changedList,
                          ChangeHandler handler,
@@ -46,16 +56,30 @@ public class ChangeWatcher implements Runnable {
 
     public void run() {
         while (continueWatch) {
-            ChangedFile changedFile = changedList.reserve();
-            if (changedFile != null) {
-                boolean success = handler.handleChangedFile(changedFile);
-                if (success) {
+            List<ChangedFile> changedFiles;
+            try {
+                changedFiles = changedList.reserve(BATCH_SIZE,
+                                                   watchFrequency,
+                                                   TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                logger.warn("ChangeWatcher thread interrupted");
+                continue;
+            }
+
+            boolean handlerReady = true;
+            for (ChangedFile changedFile : changedFiles) {
+                if (continueWatch && handlerReady &&
+                    handler.handleChangedFile(changedFile)) {
                     status.startingWork();
                 } else {
+                    // Handler not ready or watch ended, return the file
+                    handlerReady = false;
                     changedFile.unreserve();
                 }
-            } else {
-                // List is empty or handler not ready, wait before next check
+            }
+
+            if (!handlerReady && continueWatch) {
+                // Handler not ready, wait before next check
                 sleep(watchFrequency);
             }
         }
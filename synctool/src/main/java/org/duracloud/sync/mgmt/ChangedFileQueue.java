@@ -0,0 +1,179 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.sync.mgmt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+
+/**
+ * A first-in-first-out queue of ChangedFiles which is held in a local file
+ * rather than in memory. Used by the ChangedList to hold files beyond those
+ * it keeps in memory. Nothing about the queued files is held in memory, so
+ * the queue may hold more than one entry for the same file; callers are
+ * expected to handle duplicates as entries are removed.
+ *
+ * This class is not thread-safe, callers are expected to synchronize access.
+ */
+public class ChangedFileQueue {
+
+    private File queueFile;
+    private DataOutputStream writer;
+    private DataInputStream reader;
+    private CountingInputStream readCounter;
+    private long readOffset = 0;
+    private long size = 0;
+
+    /**
+     * Adds a file to the end of the queue
+     */
+    public void add(ChangedFile changedFile) {
+        try {
+            if (null == writer) {
+                if (null == queueFile) {
+                    queueFile = File.createTempFile("changed-list-", ".queue");
+                    queueFile.deleteOnExit();
+                }
+                writer = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(queueFile, true)));
+            }
+            ChangedListJournal.writeChangedFile(writer, changedFile);
+            size++;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to add to changed file queue: " +
+                                       e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Removes and returns the file at the head of the queue, or null if the
+     * queue is empty.
+     */
+    public ChangedFile remove() {
+        if (size == 0) {
+            return null;
+        }
+
+        try {
+            writer.flush();
+            if (null == reader) {
+                readCounter = new CountingInputStream(new BufferedInputStream(
+                    new FileInputStream(queueFile)));
+                reader = new DataInputStream(readCounter);
+            }
+            ChangedFile changedFile = ChangedListJournal.readChangedFile(reader);
+            readOffset = readCounter.getByteCount();
+            size--;
+
+            if (size == 0) {
+                // All entries have been read, start the file over
+                clear();
+            }
+            return changedFile;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read from changed file " +
+                                       "queue: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the number of entries in the queue, including any duplicates
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Opens a view of the files currently in the queue. The view is not
+     * affected by later changes to the queue, so once opened it can be read
+     * without synchronizing access to the queue. The view must be closed
+     * once it has been read.
+     */
+    public Snapshot snapshot() throws IOException {
+        if (size == 0) {
+            return new Snapshot(null, 0);
+        }
+
+        writer.flush();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(queueFile)));
+        try {
+            IOUtils.skipFully(in, readOffset);
+        } catch (IOException e) {
+            IOUtils.closeQuietly(in);
+            throw e;
+        }
+        return new Snapshot(in, size);
+    }
+
+    /**
+     * Removes all files from the queue
+     */
+    public void clear() {
+        IOUtils.closeQuietly(reader);
+        IOUtils.closeQuietly(writer);
+        reader = null;
+        readCounter = null;
+        writer = null;
+        readOffset = 0;
+        size = 0;
+        if (null != queueFile) {
+            queueFile.delete();
+            queueFile = null;
+        }
+    }
+
+    /**
+     * The files which were in the queue when the snapshot was opened. Entries
+     * are only ever appended to a queue file, and a queue file which is
+     * emptied is replaced rather than rewritten, so the entries read here
+     * are those which were in the queue at that point.
+     */
+    public static class Snapshot implements Closeable {
+        private DataInputStream in;
+        private long size;
+
+        private Snapshot(DataInputStream in, long size) {
+            this.in = in;
+            this.size = size;
+        }
+
+        /**
+         * Passes each file in the snapshot, in order, to the given visitor.
+         * Can be called only once.
+         */
+        public void forEach(ChangedFileVisitor visitor) throws IOException {
+            for (long i = 0; i < size; i++) {
+                visitor.visit(ChangedListJournal.readChangedFile(in));
+            }
+            size = 0;
+        }
+
+        @Override
+        public void close() {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Receives ChangedFiles as they are read from storage
+     */
+    public interface ChangedFileVisitor {
+        void visit(ChangedFile changedFile) throws IOException;
+    }
+
+}
@@ -7,6 +7,9 @@
  */
 package org.duracloud.sync.mgmt;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -14,6 +17,8 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -22,6 +27,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.event.EventListenerSupport;
 import org.slf4j.Logger;
@@ -30,17 +36,34 @@ import org.slf4j.LoggerFactory;
 /**
  * The list of files which have been changed.
  *
+ * At most maxInMemory unreserved files are held in memory, files added beyond
+ * that point are held in a local file until there is room for them. When a
+ * journal is started, each change to the list is recorded so that the list
+ * can be restored without rewriting the full list on every backup.
+ *
  * @author: Bill Branan
  * Date: Mar 15, 2010
  */
 public class ChangedList implements Serializable {
 
     private static final Logger log = LoggerFactory.getLogger(ChangedList.class);
+
+    protected static final int DEFAULT_MAX_IN_MEMORY = 100000;
+    // Minimum number of journal entries before the journal is compacted
+    protected static final long MIN_COMPACTION_OPS = 100000;
+    // Number of files written by persist() between resets of the stream
+    private static final int PERSIST_RESET_INTERVAL = 1000;
+
     private LinkedHashMap<String, ChangedFile> fileList;
     private LinkedHashMap<String, ChangedFile> reservedFiles;
+    private transient ChangedFileQueue overflow;
+    private transient ChangedListJournal journal;
+    private transient boolean compacting = false;
+    private int maxInMemory = DEFAULT_MAX_IN_MEMORY;
+    private long minCompactionOps = MIN_COMPACTION_OPS;
     private ExecutorService executorService;
     private long listVersion;
-    private boolean shutdown = false;
+    private volatile boolean shutdown = false;
 
     private static ChangedList instance;
 
@@ -57,6 +80,7 @@ public class ChangedList implements Serializable {
     private ChangedList() {
         fileList = new LinkedHashMap<String, ChangedFile>();
         reservedFiles = new LinkedHashMap<String, ChangedFile>();
+        overflow = new ChangedFileQueue();
         this.fileExclusionManager = new FileExclusionManager();
         listVersion = 0;
         listeners =
@@ -72,6 +96,24 @@ public class ChangedList implements Serializable {
         this.fileExclusionManager = fileExclusionManager;
     }
 
+    /**
+     * Sets the maximum number of unreserved files to hold in memory
+     */
+    synchronized void setMaxInMemory(int maxInMemory) {
+        if (maxInMemory < 2) {
+            throw new IllegalArgumentException("maxInMemory must be at least 2");
+        }
+        this.maxInMemory = maxInMemory;
+    }
+
+    /**
+     * Sets the minimum number of journal entries before the journal is
+     * compacted
+     */
+    synchronized void setMinCompactionOps(long minCompactionOps) {
+        this.minCompactionOps = minCompactionOps;
+    }
+
     /**
      * Adds a changed file to the list of items to be processed. If the file
      * happens to match exclusion rules it will not be added to the list (and
@@ -96,8 +138,8 @@ public class ChangedList implements Serializable {
      *
      * @return the size of the list
      */
-    public int getListSize() {
-        return fileList.size();
+    public synchronized int getListSize() {
+        return (int) (fileList.size() + overflow.size());
     }
 
     /**
@@ -105,8 +147,40 @@ public class ChangedList implements Serializable {
      *
      * @return the size of the list
      */
-    public int getListSizeIncludingReservedFiles() {
-        return fileList.size() + reservedFiles.size();
+    public synchronized int getListSizeIncludingReservedFiles() {
+        return getListSize() + reservedFiles.size();
+    }
+
+    /**
+     * Adds a batch of changed files to the list of items to be processed.
+     * This has the same effect as calling addChangedFile() for each file,
+     * but the list is locked, and listeners are notified, only once.
+     *
+     * @param changedFiles files which have changed on the file system
+     * @return the number of files added, which excludes null files and files
+     * which match at least one exclusion rule
+     */
+    public int addChangedFiles(Collection<File> changedFiles) {
+        List<ChangedFile> toAdd = new ArrayList<>(changedFiles.size());
+        for (File file : changedFiles) {
+            if (null == file) {
+                log.warn("A file in the changedFiles parameter was " +
+                         "unexpectedly null. Ignored.");
+            } else if (!fileExclusionManager.isExcluded(file)) {
+                toAdd.add(new ChangedFile(file));
+            }
+        }
+        if (toAdd.isEmpty()) {
+            return 0;
+        }
+
+        synchronized (this) {
+            for (ChangedFile changedFile : toAdd) {
+                add(changedFile);
+            }
+            fireChangedEvent();
+        }
+        return toAdd.size();
     }
 
     synchronized boolean addChangedFile(ChangedFile changedFile) {
@@ -114,12 +188,59 @@ public class ChangedList implements Serializable {
         if (fileExclusionManager.isExcluded(file)) {
             return false;
         }
-        fileList.put(file.getAbsolutePath(), changedFile);
-        incrementVersion();
+        add(changedFile);
         fireChangedEvent();
         return true;
     }
 
+    private void add(ChangedFile changedFile) {
+        enqueue(changedFile);
+        if (null != journal) {
+            try {
+                journal.add(changedFile);
+            } catch (IOException e) {
+                journalFailed(e);
+            }
+        }
+        incrementVersion();
+    }
+
+    /*
+     * Adds to the in-memory list, unless it is full or files are already
+     * waiting in the overflow queue (in which case the file is added to the
+     * queue to retain ordering). A file which is already in the in-memory list
+     * is replaced in place. The overflow queue does not track its contents,
+     * so a file added again while in the queue is deduplicated when it is
+     * moved into memory (see refill). Threads waiting to reserve a file are
+     * woken.
+     */
+    private void enqueue(ChangedFile changedFile) {
+        String key = getKey(changedFile);
+        if (fileList.containsKey(key) ||
+            (overflow.size() == 0 && fileList.size() < maxInMemory)) {
+            fileList.put(key, changedFile);
+        } else {
+            overflow.add(changedFile);
+        }
+        notifyAll();
+    }
+
+    /*
+     * Moves files from the overflow queue into memory once the in-memory
+     * list has been half emptied. A file which is already in memory is
+     * replaced in place, so a file queued more than once is only listed once
+     * as long as its earlier entry has not yet been reserved.
+     */
+    private void refill() {
+        if (overflow.size() == 0 || fileList.size() > maxInMemory / 2) {
+            return;
+        }
+        while (overflow.size() > 0 && fileList.size() < maxInMemory) {
+            ChangedFile changedFile = overflow.remove();
+            fileList.put(getKey(changedFile), changedFile);
+        }
+    }
+
     protected void fireChangedEvent() {
         listeners.fire().listChanged(this);
     }
@@ -147,6 +268,14 @@ public class ChangedList implements Serializable {
     public synchronized void clear() {
         fileList.clear();
         reservedFiles.clear();
+        overflow.clear();
+        if (null != journal) {
+            try {
+                journal.clear();
+            } catch (IOException e) {
+                journalFailed(e);
+            }
+        }
         fireChangedEvent();
     }
 
@@ -161,11 +290,60 @@ public class ChangedList implements Serializable {
             return null;
         }
 
+        ChangedFile changedFile = reserveNext();
+        fireChangedEventAsync();
+        return changedFile;
+    }
+
+    /**
+     * Retrieves up to maxFiles changed files for processing and removes them
+     * from the list of unreserved files. If the list is empty, waits up to
+     * the given timeout for a file to be added. Returns an empty list if no
+     * file was added before the timeout expired or the list was shut down.
+     *
+     * @param maxFiles the maximum number of files to reserve
+     * @param timeout  the maximum time to wait for a file to be added
+     * @param unit     the unit of the timeout
+     * @return files which have changed on the file system
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized List<ChangedFile> reserve(int maxFiles,
+                                                  long timeout,
+                                                  TimeUnit unit)
+        throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + remaining;
+        while (fileList.isEmpty() && !shutdown && remaining > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+
+        List<ChangedFile> changedFiles = new ArrayList<>();
+        if (shutdown) {
+            return changedFiles;
+        }
+        while (!fileList.isEmpty() && changedFiles.size() < maxFiles) {
+            changedFiles.add(reserveNext());
+        }
+        if (!changedFiles.isEmpty()) {
+            fireChangedEventAsync();
+        }
+        return changedFiles;
+    }
+
+    private ChangedFile reserveNext() {
         String key = fileList.keySet().iterator().next();
         ChangedFile changedFile = fileList.remove(key);
         reservedFiles.put(key, changedFile);
+        refill();
+        if (null != journal) {
+            try {
+                journal.reserve(key);
+            } catch (IOException e) {
+                journalFailed(e);
+            }
+        }
         incrementVersion();
-        fireChangedEventAsync();
         return changedFile;
     }
 
@@ -182,82 +360,278 @@ public class ChangedList implements Serializable {
     }
 
     /**
-     * Writes out the current state of the ChangeList to the given file.
+     * Writes out the current state of the ChangeList to the given file. The
+     * files held in the overflow queue are streamed to the file rather than
+     * being read into memory.
      *
      * @param persistFile file to write state to
      * @return the version ID of the ChangedList which was persisted
      */
     public long persist(File persistFile) {
-        try {
-            FileOutputStream fileStream = new FileOutputStream(persistFile);
-            ObjectOutputStream oStream = new ObjectOutputStream((fileStream));
-
-            long persistVersion;
-            Map<String, ChangedFile> fileListCopy;
-            synchronized (this) {
-                fileListCopy = (Map<String, ChangedFile>) fileList.clone();
-                fileListCopy.putAll(reservedFiles);
-                persistVersion = listVersion;
+        long persistVersion;
+        ListSnapshot snapshot;
+        synchronized (this) {
+            try {
+                snapshot = new ListSnapshot();
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to persist File Changed " +
+                                           "List:" + e.getMessage(), e);
             }
+            persistVersion = listVersion;
+        }
 
-            oStream.writeObject(fileListCopy);
-            oStream.close();
+        try (final ObjectOutputStream oStream = new ObjectOutputStream(
+            new BufferedOutputStream(new FileOutputStream(persistFile)))) {
+            snapshot.writeTo(new ChangedListJournal.SnapshotWriter() {
+                private int count = 0;
+
+                @Override
+                public void write(ChangedFile changedFile, boolean reserved)
+                    throws IOException {
+                    oStream.writeObject(changedFile);
+                    // Keeps the stream from holding on to every file written
+                    if (++count % PERSIST_RESET_INTERVAL == 0) {
+                        oStream.reset();
+                    }
+                }
+            });
+            oStream.writeObject(null);
             return persistVersion;
         } catch (IOException e) {
             throw new RuntimeException("Unable to persist File Changed List:" +
                                        e.getMessage(), e);
+        } finally {
+            snapshot.close();
         }
     }
 
     /**
-     * Restores the state of the ChangedList using the given backup file
+     * Restores the state of the ChangedList using the given backup file.
+     * Backup files which hold the list as a single map, as written by
+     * earlier versions, can also be restored.
      *
      * @param persistFile file containing previous state
      * @param contentDirs content directories currently configured.
      */
     public synchronized void restore(File persistFile, List<File> contentDirs) {
-        try {
-            FileInputStream fileStream = new FileInputStream(persistFile);
-            ObjectInputStream oStream = new ObjectInputStream(fileStream);
+        try (ObjectInputStream oStream = new ObjectInputStream(
+            new BufferedInputStream(new FileInputStream(persistFile)))) {
             log.info("Restoring changed list from backup: {}", persistFile.getAbsolutePath());
-            synchronized (this) {
-                LinkedHashMap<String, ChangedFile> fileListFromDisk =
-                    (LinkedHashMap<String, ChangedFile>) oStream.readObject();
-
-                //remove files in change list that are not in the content dir list.
-                if (contentDirs != null && !contentDirs.isEmpty()) {
-
-                    Iterator<Entry<String, ChangedFile>> entries =
-                        fileListFromDisk.entrySet().iterator();
-                    while (entries.hasNext()) {
-                        Entry<String, ChangedFile> entry = entries.next();
-                        ChangedFile file = entry.getValue();
-                        boolean watched = false;
-                        for (File contentDir : contentDirs) {
-                            if (file.getFile()
-                                    .getAbsolutePath()
-                                    .startsWith(contentDir.getAbsolutePath()) &&
-                                !this.fileExclusionManager.isExcluded(file.getFile())) {
-                                watched = true;
-                                break;
-                            }
-                        }
-
-                        if (!watched) {
-                            entries.remove();
-                        }
-                    }
+            fileList.clear();
+            overflow.clear();
+
+            Object persisted = oStream.readObject();
+            if (persisted instanceof Map) {
+                Map<String, ChangedFile> fileListFromDisk =
+                    (Map<String, ChangedFile>) persisted;
+                for (ChangedFile file : fileListFromDisk.values()) {
+                    restoreFile(file, contentDirs);
                 }
+            } else {
+                while (null != persisted) {
+                    restoreFile((ChangedFile) persisted, contentDirs);
+                    persisted = oStream.readObject();
+                }
+            }
 
-                this.fileList = fileListFromDisk;
+            if (null != journal) {
+                compactJournal();
             }
-            oStream.close();
         } catch (Exception e) {
             throw new RuntimeException("Unable to restore File Changed List:" +
                                        e.getMessage(), e);
         }
     }
 
+    /*
+     * Skips files in the change list that are not in the content dir list.
+     */
+    private void restoreFile(ChangedFile file, List<File> contentDirs) {
+        if (isWatched(file, contentDirs)) {
+            enqueue(file);
+        }
+    }
+
+    private boolean isWatched(ChangedFile file, List<File> contentDirs) {
+        if (contentDirs == null || contentDirs.isEmpty()) {
+            return true;
+        }
+
+        for (File contentDir : contentDirs) {
+            if (file.getFile()
+                    .getAbsolutePath()
+                    .startsWith(contentDir.getAbsolutePath()) &&
+                !this.fileExclusionManager.isExcluded(file.getFile())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Begins recording changes to the list in a journal in the given
+     * directory. The current state of the list is written as the starting
+     * point of the journal.
+     *
+     * @param journalDir directory in which to write the journal
+     */
+    public synchronized void startJournal(File journalDir) {
+        stopJournal();
+        journal = new ChangedListJournal(journalDir);
+        compactJournal();
+        if (null == journal) {
+            throw new RuntimeException("Unable to start File Changed List " +
+                                       "journal in " +
+                                       journalDir.getAbsolutePath());
+        }
+    }
+
+    /**
+     * @return true if changes to the list are being journaled
+     */
+    public synchronized boolean isJournalStarted() {
+        return null != journal;
+    }
+
+    /**
+     * Writes all changes made to the list since the last call to the journal.
+     * If the journal has grown larger than the list itself, it is compacted.
+     * The snapshot written by compaction is written without holding the lock
+     * on the list, so the list remains available while it is written.
+     *
+     * @return the version ID of the ChangedList which was persisted
+     */
+    public long persistJournal() {
+        ChangedListJournal compactingJournal;
+        long generation;
+        ListSnapshot snapshot;
+        long persistVersion;
+        synchronized (this) {
+            if (null == journal) {
+                throw new IllegalStateException("Changed list journal is not started");
+            }
+
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                journalFailed(e);
+                throw new RuntimeException("Unable to persist File Changed " +
+                                           "List journal: " + e.getMessage(), e);
+            }
+
+            persistVersion = listVersion;
+            long listSize = getListSizeIncludingReservedFiles();
+            if (compacting ||
+                journal.getOpCount() <= Math.max(minCompactionOps, listSize)) {
+                return persistVersion;
+            }
+
+            try {
+                generation = journal.roll();
+                snapshot = new ListSnapshot();
+            } catch (IOException e) {
+                journalFailed(e);
+                return persistVersion;
+            }
+            compactingJournal = journal;
+            compacting = true;
+        }
+
+        IOException failure = null;
+        try {
+            compactingJournal.writeSnapshot(generation, snapshot);
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            snapshot.close();
+        }
+
+        synchronized (this) {
+            compacting = false;
+            if (journal != compactingJournal) {
+                // Journaling was stopped while the snapshot was written
+                compactingJournal.discardSnapshot(generation);
+            } else if (null != failure) {
+                compactingJournal.discardSnapshot(generation);
+                journalFailed(failure);
+            } else {
+                try {
+                    journal.commitSnapshot(generation);
+                } catch (IOException e) {
+                    journalFailed(e);
+                }
+            }
+        }
+        return persistVersion;
+    }
+
+    /*
+     * Writes the full list as the journal snapshot and starts a new journal,
+     * holding the lock throughout. On failure, journaling is stopped.
+     */
+    private void compactJournal() {
+        try (ListSnapshot snapshot = new ListSnapshot()) {
+            journal.compact(snapshot);
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+    }
+
+    /**
+     * Stops recording changes to the list. Changes already recorded are
+     * written to the journal.
+     */
+    public synchronized void stopJournal() {
+        if (null != journal) {
+            journal.close(true);
+            journal = null;
+        }
+    }
+
+    private void journalFailed(IOException e) {
+        log.error("Unable to write to the changed list journal, journaling " +
+                  "is stopped: " + e.getMessage(), e);
+        journal.close(false);
+        journal = null;
+    }
+
+    /**
+     * Restores the state of the ChangedList from the journal in the given
+     * directory, then continues journaling to that directory. Changes made
+     * since the journal was last persisted are discarded.
+     *
+     * @param journalDir  directory containing the journal
+     * @param contentDirs content directories currently configured.
+     */
+    public synchronized void restoreJournal(File journalDir,
+                                            final List<File> contentDirs) {
+        if (null != journal) {
+            journal.close(false);
+            journal = null;
+        }
+
+        log.info("Restoring changed list from journal: {}",
+                 journalDir.getAbsolutePath());
+        fileList.clear();
+        overflow.clear();
+        try {
+            ChangedListJournal.restore(journalDir,
+                                       new ChangedFileQueue.ChangedFileVisitor() {
+                @Override
+                public void visit(ChangedFile changedFile) {
+                    if (isWatched(changedFile, contentDirs)) {
+                        enqueue(changedFile);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to restore File Changed List:" +
+                                       e.getMessage(), e);
+        }
+
+        startJournal(journalDir);
+    }
+
     public synchronized List<File> peek(int maxFiles) {
         List<File> files = new LinkedList<File>();
         Iterator<Entry<String, ChangedFile>> it = this.fileList.entrySet().iterator();
@@ -280,7 +654,17 @@ public class ChangedList implements Serializable {
      * @param changedFile
      */
     synchronized void remove(ChangedFile changedFile) {
-        this.reservedFiles.remove(getKey(changedFile));
+        String key = getKey(changedFile);
+        if (null != this.reservedFiles.remove(key)) {
+            if (null != journal) {
+                try {
+                    journal.remove(key);
+                } catch (IOException e) {
+                    journalFailed(e);
+                }
+            }
+            incrementVersion();
+        }
     }
 
     /**
@@ -290,9 +674,59 @@ public class ChangedList implements Serializable {
      * @param changedFile
      */
     synchronized void unreserve(ChangedFile changedFile) {
-        ChangedFile removedFile = this.reservedFiles.remove(getKey(changedFile));
-        if (removedFile != null && !this.fileList.containsKey(getKey(removedFile))) {
-            addChangedFile(removedFile);
+        String key = getKey(changedFile);
+        ChangedFile removedFile = this.reservedFiles.remove(key);
+        if (removedFile != null) {
+            if (null != journal) {
+                try {
+                    journal.remove(key);
+                } catch (IOException e) {
+                    journalFailed(e);
+                }
+            }
+            if (!this.fileList.containsKey(key)) {
+                addChangedFile(removedFile);
+            }
+        }
+    }
+
+    /*
+     * The contents of the list at the time it was created: reserved files,
+     * then the in-memory list, then the overflow queue. Must be created while
+     * holding the lock on the list, but can be written without it.
+     */
+    private class ListSnapshot implements ChangedListJournal.SnapshotSource,
+                                          Closeable {
+        private List<ChangedFile> reserved;
+        private List<ChangedFile> listed;
+        private ChangedFileQueue.Snapshot queued;
+
+        ListSnapshot() throws IOException {
+            reserved = new ArrayList<>(reservedFiles.values());
+            listed = new ArrayList<>(fileList.values());
+            queued = overflow.snapshot();
+        }
+
+        @Override
+        public void writeTo(final ChangedListJournal.SnapshotWriter writer)
+            throws IOException {
+            for (ChangedFile changedFile : reserved) {
+                writer.write(changedFile, true);
+            }
+            for (ChangedFile changedFile : listed) {
+                writer.write(changedFile, false);
+            }
+            queued.forEach(new ChangedFileQueue.ChangedFileVisitor() {
+                @Override
+                public void visit(ChangedFile changedFile) throws IOException {
+                    writer.write(changedFile, false);
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            queued.close();
         }
     }
 
@@ -302,7 +736,12 @@ public class ChangedList implements Serializable {
 
     public void shutdown() {
         executorService.shutdown();
-        shutdown = true;
+        synchronized (this) {
+            stopJournal();
+            overflow.clear();
+            shutdown = true;
+            notifyAll();
+        }
         ChangedList.instance = null;
     }
 
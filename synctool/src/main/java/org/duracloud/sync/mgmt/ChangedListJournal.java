@@ -0,0 +1,440 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.sync.mgmt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.duracloud.sync.mgmt.ChangedFileQueue.ChangedFileVisitor;
+
+/**
+ * Persists the state of the ChangedList as a snapshot file plus an
+ * append-only journal of the add, reserve, and remove operations performed
+ * since the snapshot was written. Writing the journal costs time
+ * proportional to the number of changes, rather than to the size of the
+ * list. Compaction starts a new, empty journal and rewrites the snapshot
+ * from the state of the list at that point.
+ *
+ * Each journal is numbered with a generation, and the snapshot records the
+ * generation of the journal which follows it. The previous journal is kept
+ * until the new snapshot is in place, so the snapshot can be written while
+ * operations continue to be recorded in the new journal; if it is never
+ * completed, both journals are applied to the previous snapshot.
+ *
+ * This class is not thread-safe, callers are expected to synchronize access.
+ */
+public class ChangedListJournal {
+
+    protected static final String SNAPSHOT_FILE = "changed-list.snapshot";
+    protected static final String JOURNAL_FILE = "changed-list.journal.";
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_RESERVE = 2;
+    private static final byte OP_REMOVE = 3;
+    private static final byte OP_CLEAR = 4;
+
+    private File journalDir;
+    private File snapshotFile;
+    private FileOutputStream journalFileStream;
+    private DataOutputStream journal;
+    private long generation;
+    private long opCount = 0;
+
+    public ChangedListJournal(File journalDir) {
+        this.journalDir = journalDir;
+        this.snapshotFile = new File(journalDir, SNAPSHOT_FILE);
+        this.generation = getLatestGeneration(journalDir);
+    }
+
+    /**
+     * @return true if a snapshot exists in the given directory
+     */
+    public static boolean exists(File journalDir) {
+        return new File(journalDir, SNAPSHOT_FILE).exists();
+    }
+
+    public void add(ChangedFile changedFile) throws IOException {
+        journal.writeByte(OP_ADD);
+        writeChangedFile(journal, changedFile);
+        opCount++;
+    }
+
+    public void reserve(String path) throws IOException {
+        journal.writeByte(OP_RESERVE);
+        journal.writeUTF(path);
+        opCount++;
+    }
+
+    public void remove(String path) throws IOException {
+        journal.writeByte(OP_REMOVE);
+        journal.writeUTF(path);
+        opCount++;
+    }
+
+    /**
+     * Records that all files were removed from the list
+     */
+    public void clear() throws IOException {
+        journal.writeByte(OP_CLEAR);
+        opCount++;
+    }
+
+    /**
+     * Writes all buffered operations to the journal file
+     */
+    public void flush() throws IOException {
+        journal.flush();
+    }
+
+    /**
+     * @return the number of operations recorded since the last compaction
+     */
+    public long getOpCount() {
+        return opCount;
+    }
+
+    /**
+     * Replaces the snapshot with the entries provided by the source and
+     * starts a new journal.
+     *
+     * @param source provides every entry in the ChangedList
+     */
+    public void compact(SnapshotSource source) throws IOException {
+        long snapshotGeneration = roll();
+        writeSnapshot(snapshotGeneration, source);
+        commitSnapshot(snapshotGeneration);
+    }
+
+    /**
+     * Closes the current journal and starts a new one. A snapshot of the
+     * list as of this point should then be written for the returned
+     * generation.
+     *
+     * @return the generation of the new journal
+     */
+    public long roll() throws IOException {
+        close(true);
+        generation++;
+        journalFileStream =
+            new FileOutputStream(getJournalFile(journalDir, generation), false);
+        journal = new DataOutputStream(new BufferedOutputStream(journalFileStream));
+        opCount = 0;
+        return generation;
+    }
+
+    /**
+     * Writes the entries provided by the source as the snapshot for the
+     * given generation. The snapshot is not used until it is committed.
+     * This method does not touch the journal, so it may be called while
+     * operations are being recorded.
+     *
+     * @param snapshotGeneration generation returned by roll()
+     * @param source             provides every entry in the ChangedList
+     */
+    public void writeSnapshot(long snapshotGeneration, SnapshotSource source)
+        throws IOException {
+        File tempFile = getTempSnapshotFile(snapshotGeneration);
+        try (final DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeLong(snapshotGeneration);
+            source.writeTo(new SnapshotWriter() {
+                @Override
+                public void write(ChangedFile changedFile, boolean reserved)
+                    throws IOException {
+                    out.writeBoolean(reserved);
+                    writeChangedFile(out, changedFile);
+                }
+            });
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the one written for the given generation,
+     * and removes the journals which preceded it.
+     */
+    public void commitSnapshot(long snapshotGeneration) throws IOException {
+        Files.move(getTempSnapshotFile(snapshotGeneration).toPath(),
+                   snapshotFile.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING);
+        for (File file : listJournalFiles(journalDir)) {
+            if (getGeneration(file) < snapshotGeneration) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Removes the snapshot written for the given generation without using it
+     */
+    public void discardSnapshot(long snapshotGeneration) {
+        getTempSnapshotFile(snapshotGeneration).delete();
+    }
+
+    private File getTempSnapshotFile(long snapshotGeneration) {
+        return new File(journalDir,
+                        SNAPSHOT_FILE + "." + snapshotGeneration + ".tmp");
+    }
+
+    /**
+     * Closes the journal.
+     *
+     * @param flush true to write buffered operations before closing, false
+     *              to discard them
+     */
+    public void close(boolean flush) {
+        if (null == journal) {
+            return;
+        }
+
+        if (flush) {
+            IOUtils.closeQuietly(journal);
+        } else {
+            IOUtils.closeQuietly(journalFileStream);
+        }
+        journal = null;
+        journalFileStream = null;
+    }
+
+    /**
+     * Removes the snapshot and journal files
+     */
+    public void delete() {
+        close(false);
+        snapshotFile.delete();
+        for (File file : listJournalFiles(journalDir)) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Reads the snapshot and journal, passing each file which was in the
+     * list (either waiting or reserved) to the visitor. Memory use is
+     * proportional to the number of files touched since the last compaction.
+     *
+     * @param journalDir directory containing the snapshot and journal
+     * @param visitor    receives each file
+     */
+    public static void restore(File journalDir, ChangedFileVisitor visitor)
+        throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(new File(journalDir, SNAPSHOT_FILE))))) {
+            long snapshotGeneration = in.readLong();
+            JournalReplay replay = new JournalReplay();
+            readJournal(getJournalFile(journalDir, snapshotGeneration), replay);
+            // Written while a later snapshot was not yet completed
+            readJournal(getJournalFile(journalDir, snapshotGeneration + 1),
+                        replay);
+            Map<String, JournalState> states = replay.states;
+
+            while (!replay.cleared) {
+                boolean reserved;
+                ChangedFile changedFile;
+                try {
+                    reserved = in.readBoolean();
+                    changedFile = readChangedFile(in);
+                } catch (EOFException e) {
+                    break;
+                }
+
+                JournalState state =
+                    states.get(changedFile.getFile().getAbsolutePath());
+                if (null == state) {
+                    visitor.visit(changedFile);
+                } else {
+                    state.setSnapshotEntry(changedFile, reserved);
+                }
+            }
+
+            for (JournalState state : states.values()) {
+                if (state.inList()) {
+                    visitor.visit(state.changedFile);
+                }
+            }
+        }
+    }
+
+    private static void readJournal(File journalFile, JournalReplay replay)
+        throws IOException {
+        Map<String, JournalState> states = replay.states;
+        if (!journalFile.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(journalFile)))) {
+            while (true) {
+                try {
+                    byte op = in.readByte();
+                    if (op == OP_ADD) {
+                        ChangedFile changedFile = readChangedFile(in);
+                        getState(states, changedFile.getFile().getAbsolutePath())
+                            .add(changedFile);
+                    } else if (op == OP_RESERVE) {
+                        getState(states, in.readUTF()).reserve();
+                    } else if (op == OP_REMOVE) {
+                        getState(states, in.readUTF()).remove();
+                    } else if (op == OP_CLEAR) {
+                        states.clear();
+                        replay.cleared = true;
+                    } else {
+                        throw new IOException("Unexpected journal entry: " + op);
+                    }
+                } catch (EOFException e) {
+                    // End of journal, or a partial final entry
+                    break;
+                }
+            }
+        }
+    }
+
+    private static File getJournalFile(File journalDir, long generation) {
+        return new File(journalDir, JOURNAL_FILE + generation);
+    }
+
+    private static File[] listJournalFiles(File journalDir) {
+        File[] files = journalDir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(JOURNAL_FILE);
+            }
+        });
+        return null == files ? new File[0] : files;
+    }
+
+    private static long getGeneration(File journalFile) {
+        try {
+            return Long.parseLong(
+                journalFile.getName().substring(JOURNAL_FILE.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /*
+     * Finds the most recent generation of the snapshot or journal in the
+     * directory, so that a new journal does not reuse an existing file.
+     */
+    private static long getLatestGeneration(File journalDir) {
+        long latest = 0;
+        for (File file : listJournalFiles(journalDir)) {
+            latest = Math.max(latest, getGeneration(file));
+        }
+
+        File snapshot = new File(journalDir, SNAPSHOT_FILE);
+        if (snapshot.exists()) {
+            try (DataInputStream in = new DataInputStream(
+                new FileInputStream(snapshot))) {
+                latest = Math.max(latest, in.readLong());
+            } catch (IOException e) {
+                // Unreadable snapshot, it will be replaced
+            }
+        }
+        return latest;
+    }
+
+    private static JournalState getState(Map<String, JournalState> states,
+                                         String path) {
+        JournalState state = states.get(path);
+        if (null == state) {
+            state = new JournalState();
+            states.put(path, state);
+        }
+        return state;
+    }
+
+    static void writeChangedFile(DataOutput out, ChangedFile changedFile)
+        throws IOException {
+        out.writeInt(changedFile.getSyncAttempts());
+        out.writeUTF(changedFile.getFile().getAbsolutePath());
+    }
+
+    static ChangedFile readChangedFile(DataInput in) throws IOException {
+        int syncAttempts = in.readInt();
+        return new ChangedFile(new File(in.readUTF()), syncAttempts);
+    }
+
+    /**
+     * Provides the full contents of the ChangedList for compaction
+     */
+    public interface SnapshotSource {
+        void writeTo(SnapshotWriter writer) throws IOException;
+    }
+
+    /**
+     * Receives each entry of the ChangedList during compaction
+     */
+    public interface SnapshotWriter {
+        void write(ChangedFile changedFile, boolean reserved) throws IOException;
+    }
+
+    /**
+     * The effect of the journal on the list. When the list was cleared, none
+     * of the snapshot entries remain.
+     */
+    private static class JournalReplay {
+        private Map<String, JournalState> states = new LinkedHashMap<>();
+        private boolean cleared = false;
+    }
+
+    /**
+     * The effect of journaled operations on a single file. A null value
+     * indicates that the state was not changed by the journal and is taken
+     * from the snapshot.
+     */
+    private static class JournalState {
+        private ChangedFile changedFile;
+        private Boolean listed;
+        private Boolean reserved;
+        private boolean snapshotListed = false;
+        private boolean snapshotReserved = false;
+
+        void add(ChangedFile changedFile) {
+            this.changedFile = changedFile;
+            this.listed = true;
+        }
+
+        void reserve() {
+            this.listed = false;
+            this.reserved = true;
+        }
+
+        void remove() {
+            this.reserved = false;
+        }
+
+        void setSnapshotEntry(ChangedFile changedFile, boolean reserved) {
+            this.snapshotListed = !reserved;
+            this.snapshotReserved = reserved;
+            if (null == this.changedFile) {
+                this.changedFile = changedFile;
+            }
+        }
+
+        boolean inList() {
+            boolean isListed = null != listed ? listed : snapshotListed;
+            boolean isReserved = null != reserved ? reserved : snapshotReserved;
+            return null != changedFile && (isListed || isReserved);
+        }
+    }
+
+}
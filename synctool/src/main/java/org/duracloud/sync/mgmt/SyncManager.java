@@ -10,10 +10,13 @@ package org.duracloud.sync.mgmt;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -35,15 +38,21 @@ public class SyncManager implements ChangeHandler {
 
     private ChangeWatcher changeWatcher;
     private List<File> watchDirs;
+    private String[] watchDirPrefixes;
     private SyncEndpoint endpoint;
     private ExecutorService watcherPool;
     private ThreadPoolExecutor workerPool;
-    private ArrayList<SyncWorker> workerList;
+    private Semaphore workerPermits;
+    private Map<String, SyncWorker> workers;
 
     /**
      * Creates a SyncManager which, when started, will watch for updates to
      * the ChangedList and kick off SyncWorkers to handle any changed files.
      *
+     * Up to as many changed files as there are threads are queued waiting
+     * for a worker. When the queue is full, handling a changed file blocks
+     * until a worker becomes available.
+     *
      * @param endpoint
      * @param threads
      * @param frequency
@@ -54,6 +63,14 @@ public class SyncManager implements ChangeHandler {
                        long frequency) {
         logger.info("Starting Sync Manager with " + threads + " threads");
         this.watchDirs = watchDirs;
+        this.watchDirPrefixes = new String[watchDirs.size()];
+        for (int i = 0; i < watchDirs.size(); i++) {
+            String watchDirPath = watchDirs.get(i).getPath();
+            if (!watchDirPath.endsWith(File.separator)) {
+                watchDirPath += File.separator;
+            }
+            watchDirPrefixes[i] = watchDirPath;
+        }
         this.endpoint = endpoint;
         changeWatcher = new ChangeWatcher(ChangedList.getInstance(),
                                           this,
@@ -67,9 +84,11 @@ public class SyncManager implements ChangeHandler {
                                    threads,
                                    Long.MAX_VALUE,
                                    TimeUnit.NANOSECONDS,
-                                   new SynchronousQueue(),
+                                   new LinkedBlockingQueue<Runnable>(threads),
                                    new ThreadPoolExecutor.AbortPolicy());
-        workerList = new ArrayList<SyncWorker>();
+        // Permits for each running or queued worker
+        workerPermits = new Semaphore(threads * 2);
+        workers = new ConcurrentHashMap<>();
     }
 
     /**
@@ -98,70 +117,74 @@ public class SyncManager implements ChangeHandler {
     }
 
     /**
-     * Notifies the SyncManager that a file has changed
+     * Notifies the SyncManager that a file has changed. If all workers are
+     * busy and the queue of files waiting for a worker is full, this waits
+     * until a worker is available.
      *
      * @param changedFile the changed file
      * @returns true if file accepted for processing, false otherwise
      */
-    public synchronized boolean handleChangedFile(ChangedFile changedFile) {
+    public boolean handleChangedFile(ChangedFile changedFile) {
         File watchDir = getWatchDir(changedFile.getFile());
-        SyncWorker worker = new SyncWorker(changedFile, watchDir, endpoint);
+        final SyncWorker worker = new SyncWorker(changedFile, watchDir, endpoint);
+        final String filePath = worker.getMonitoredFile().getAbsolutePath();
+
+        try {
+            workerPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
 
+        workers.put(filePath, worker);
         try {
-            addToWorkerList(worker);
-            workerPool.execute(worker);
+            workerPool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        worker.run();
+                    } finally {
+                        workerComplete(filePath, worker);
+                    }
+                }
+            });
             return true;
         } catch (RejectedExecutionException e) {
-            workerList.remove(worker);
+            workerComplete(filePath, worker);
             return false;
         }
     }
 
+    private void workerComplete(String filePath, SyncWorker worker) {
+        workers.remove(filePath, worker);
+        workerPermits.release();
+    }
+
     /*
      * Determines which of the watched directories includes the changed file.
      * Returns null if the file is not included in any watch directories.
      */
     protected File getWatchDir(File changedFile) {
-        for (File watchDir : watchDirs) {
-            File changedFileParent = changedFile.getParentFile();
-            while (changedFileParent != null) {
-                if (changedFileParent.equals(watchDir)) {
-                    return watchDir;
-                } else {
-                    changedFileParent = changedFileParent.getParentFile();
-                }
+        String changedFilePath = changedFile.getPath();
+        // File paths are case insensitive on Windows
+        boolean ignoreCase = File.separatorChar == '\\';
+        for (int i = 0; i < watchDirPrefixes.length; i++) {
+            String prefix = watchDirPrefixes[i];
+            if (changedFilePath.length() > prefix.length() &&
+                changedFilePath.regionMatches(ignoreCase, 0, prefix, 0,
+                                              prefix.length())) {
+                return watchDirs.get(i);
             }
         }
         return null;
     }
 
-    private void addToWorkerList(SyncWorker workerToAdd) {
-        cleanWorkerList();
-        for (int i = 0; i < workerList.size(); i++) {
-            SyncWorker worker = workerList.get(i);
-            if (worker.getMonitoredFile().getAbsolutePath().equals(
-                workerToAdd.getMonitoredFile().getAbsolutePath())) {
-                workerList.remove(i);
-            }
-        }
-        workerList.add(workerToAdd);
-    }
-
-    private void cleanWorkerList() {
-        for (int i = 0; i < workerList.size(); i++) {
-            SyncWorker worker = workerList.get(i);
-            if (worker.isComplete()) {
-                workerList.remove(i);
-            }
-        }
-    }
-
-    public synchronized List<MonitoredFile> getFilesInTransfer() {
-        cleanWorkerList();
+    public List<MonitoredFile> getFilesInTransfer() {
         List<MonitoredFile> monitoredFiles = new ArrayList<MonitoredFile>();
-        List<SyncWorker> workers = new ArrayList<>(workerList);
-        for (SyncWorker worker : workers) {
-            monitoredFiles.add(worker.getMonitoredFile());
+        for (SyncWorker worker : workers.values()) {
+            if (!worker.isComplete()) {
+                monitoredFiles.add(worker.getMonitoredFile());
+            }
         }
         return monitoredFiles;
     }
@@ -20,6 +20,10 @@ import org.slf4j.LoggerFactory;
 /**
  * Monitors of local file system directories for changes.
  *
+ * By default, changes are detected using native file system notifications
+ * (see DirectoryWatcher). Polling is used for any directory which cannot be
+ * watched natively, or for all directories when native watching is disabled.
+ *
  * @author: Bill Branan
  * Date: Mar 12, 2010
  */
@@ -28,6 +32,8 @@ public class DirectoryUpdateMonitor {
     private final Logger logger = LoggerFactory.getLogger(SyncManager.class);
 
     private FileAlterationMonitor monitor;
+    private DirectoryWatcher watcher;
+    private DirectoryListener listener;
 
     /**
      * Creates a directory update monitor which, when started, will notify
@@ -39,39 +45,75 @@ public class DirectoryUpdateMonitor {
     public DirectoryUpdateMonitor(List<File> directories,
                                   long pollFrequency,
                                   boolean syncDeletes) {
+        this(directories, pollFrequency, syncDeletes, true);
+    }
+
+    /**
+     * Creates a directory update monitor which, when started, will notify
+     * on changes within the given directories.
+     *
+     * @param directories     to monitor
+     * @param pollFrequency   how often the monitor should look for changes
+     *                        when polling
+     * @param useWatchService true to use native file system notifications
+     *                        where possible, false to always poll
+     */
+    public DirectoryUpdateMonitor(List<File> directories,
+                                  long pollFrequency,
+                                  boolean syncDeletes,
+                                  boolean useWatchService) {
         monitor = new FileAlterationMonitor(pollFrequency);
+        listener = new DirectoryListener(syncDeletes);
 
         for (File watchDir : directories) {
-            if (watchDir.exists()) {
-                FileAlterationObserver observer;
-                if (watchDir.isDirectory()) {
-                    observer =
-                        new FileAlterationObserver(watchDir);
-                } else {
-                    final File file = watchDir;
-                    observer =
-                        new FileAlterationObserver(watchDir.getParentFile(), new FileFilter() {
-                            @Override
-                            public boolean accept(File pathname) {
-                                return (file.equals(pathname));
-                            }
-                        });
-                }
-
-                observer.addListener(new DirectoryListener(syncDeletes));
-                monitor.addObserver(observer);
-
-            } else {
+            if (!watchDir.exists()) {
                 throw new RuntimeException("Path " + watchDir.getAbsolutePath() + " does not exist");
             }
+            if (!useWatchService) {
+                addPollingObserver(watchDir);
+            }
+        }
+
+        if (useWatchService) {
+            watcher = new DirectoryWatcher(directories, listener);
         }
     }
 
+    private void addPollingObserver(File watchDir) {
+        FileAlterationObserver observer;
+        if (watchDir.isDirectory()) {
+            observer =
+                new FileAlterationObserver(watchDir);
+        } else {
+            final File file = watchDir;
+            observer =
+                new FileAlterationObserver(watchDir.getParentFile(), new FileFilter() {
+                    @Override
+                    public boolean accept(File pathname) {
+                        return (file.equals(pathname));
+                    }
+                });
+        }
+
+        observer.addListener(listener);
+        monitor.addObserver(observer);
+    }
+
     /**
      * Starts the monitor watching for updates.
      */
     public void startMonitor() {
         logger.info("Starting Directory Update Monitor");
+        if (null != watcher) {
+            try {
+                for (File watchDir : watcher.start()) {
+                    addPollingObserver(watchDir);
+                }
+            } catch (IllegalStateException e) {
+                logger.info("Directory watcher is already started: " + e.getMessage());
+            }
+        }
+
         try {
             monitor.start();
         } catch (IllegalStateException e) {
@@ -86,6 +128,14 @@ public class DirectoryUpdateMonitor {
      */
     public void stopMonitor() {
         logger.info("Stopping Directory Update Monitor");
+        if (null != watcher) {
+            try {
+                watcher.stop();
+            } catch (IllegalStateException e) {
+                logger.info("Directory watcher is already stopped: " + e.getMessage());
+            }
+        }
+
         try {
             monitor.stop();
         } catch (IllegalStateException e) {
@@ -0,0 +1,367 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.sync.monitor;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.monitor.FileAlterationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches local file system directories for changes using the native
+ * file system notification support provided by a WatchService, rather than
+ * by polling. Each directory in a watched tree is registered with the
+ * WatchService, and directories created after the watch begins are
+ * registered as they appear.
+ *
+ * When the WatchService drops events (an overflow), the affected directory
+ * tree is rescanned and files modified since the last events were handled
+ * are reported as changed. Deletes which occur during an overflow, or while
+ * the watcher is stopped, are not reported.
+ */
+public class DirectoryWatcher {
+
+    // Allowance for file systems which record modification times in seconds
+    private static final long TIMESTAMP_GRANULARITY = 1000;
+
+    private final Logger logger =
+        LoggerFactory.getLogger(DirectoryWatcher.class);
+
+    private final List<File> roots;
+    private final FileAlterationListener listener;
+
+    private final Map<WatchKey, WatchedDir> keys = new ConcurrentHashMap<>();
+    private final Map<Path, WatchedDir> dirs = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+    private Thread watchThread;
+    private long stopTime = -1;
+
+    /**
+     * @param roots    directories (or individual files) to watch
+     * @param listener to be notified of changes
+     */
+    public DirectoryWatcher(List<File> roots, FileAlterationListener listener) {
+        this.roots = new ArrayList<>(roots);
+        this.listener = listener;
+    }
+
+    /**
+     * Registers all watched directories and begins handling change events.
+     * If the watcher has been stopped previously, files changed while it
+     * was stopped are reported.
+     *
+     * @return roots which could not be watched, these should be monitored
+     * by other means
+     */
+    public synchronized List<File> start() {
+        if (null != watchService) {
+            throw new IllegalStateException("Directory watcher is already started");
+        }
+
+        List<File> failed = new ArrayList<>();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("Unable to create a file system watch service: " +
+                        e.getMessage());
+            failed.addAll(roots);
+            roots.clear();
+            return failed;
+        }
+
+        long reportSince = stopTime < 0 ? -1 : stopTime - TIMESTAMP_GRANULARITY;
+        for (File root : roots) {
+            Path rootPath = root.toPath().toAbsolutePath();
+            try {
+                if (root.isDirectory()) {
+                    registerTree(rootPath, reportSince);
+                } else {
+                    register(rootPath.getParent(), false, rootPath.getFileName());
+                    if (reportSince >= 0 && root.lastModified() >= reportSince) {
+                        listener.onFileChange(root);
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to watch " + root.getAbsolutePath() +
+                            " for changes, falling back to polling: " +
+                            e.getMessage());
+                cancelTree(rootPath);
+                failed.add(root);
+            }
+        }
+        roots.removeAll(failed);
+
+        final WatchService service = watchService;
+        watchThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                processEvents(service);
+            }
+        }, "directory-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+
+        return failed;
+    }
+
+    /**
+     * Stops handling change events and releases all watch registrations.
+     */
+    public synchronized void stop() {
+        if (null == watchService) {
+            throw new IllegalStateException("Directory watcher is not started");
+        }
+
+        stopTime = System.currentTimeMillis();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Error closing watch service: " + e.getMessage());
+        }
+        watchService = null;
+        keys.clear();
+        dirs.clear();
+
+        try {
+            watchThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void processEvents(WatchService service) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            WatchedDir dir = keys.get(key);
+            if (null == dir) {
+                key.reset();
+                continue;
+            }
+
+            long processingTime = System.currentTimeMillis();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                try {
+                    handleEvent(dir, event);
+                } catch (ClosedWatchServiceException e) {
+                    return;
+                } catch (Exception e) {
+                    logger.error("Error handling change in " + dir.path +
+                                 ": " + e.getMessage(), e);
+                }
+            }
+            dir.lastProcessed = processingTime;
+
+            if (!key.reset()) {
+                // Directory is no longer accessible
+                keys.remove(key);
+            }
+        }
+    }
+
+    private void handleEvent(WatchedDir dir, WatchEvent<?> event)
+        throws IOException {
+        WatchEvent.Kind<?> kind = event.kind();
+        if (kind == OVERFLOW) {
+            logger.warn("Change events were dropped for {}, rescanning",
+                        dir.path);
+            rescan(dir);
+            return;
+        }
+
+        Path child = dir.path.resolve((Path) event.context());
+        if (!dir.accepts(child.getFileName())) {
+            return;
+        }
+
+        File file = child.toFile();
+        if (kind == ENTRY_CREATE) {
+            if (Files.isDirectory(child)) {
+                if (dir.recursive) {
+                    registerTree(child, 0);
+                }
+            } else {
+                dirs.remove(child);
+                listener.onFileCreate(file);
+            }
+        } else if (kind == ENTRY_MODIFY) {
+            if (!Files.isDirectory(child)) {
+                listener.onFileChange(file);
+            }
+        } else if (kind == ENTRY_DELETE) {
+            WatchedDir deletedDir = dirs.remove(child);
+            if (null != deletedDir) {
+                deletedDir.key.cancel();
+                keys.remove(deletedDir.key);
+            } else {
+                listener.onFileDelete(file);
+            }
+        }
+    }
+
+    /**
+     * Reports files which may have changed without a corresponding event.
+     */
+    private void rescan(WatchedDir dir) throws IOException {
+        long since = dir.lastProcessed - TIMESTAMP_GRANULARITY;
+        if (dir.recursive) {
+            registerTree(dir.path, since);
+        } else {
+            for (Path fileName : dir.getFiles()) {
+                File file = dir.path.resolve(fileName).toFile();
+                if (file.exists() && file.lastModified() >= since) {
+                    listener.onFileChange(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a directory and all of its subdirectories.
+     *
+     * @param root        top of the tree to register
+     * @param reportSince files in the tree modified at or after this time are
+     *                    reported as changed, use -1 to report no files
+     */
+    private void registerTree(Path root, final long reportSince)
+        throws IOException {
+        Files.walkFileTree(root,
+                           EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+                           Integer.MAX_VALUE,
+                           new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir,
+                                                     BasicFileAttributes attrs)
+                throws IOException {
+                register(dir, true, null);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file,
+                                             BasicFileAttributes attrs) {
+                if (reportSince >= 0 && attrs.isRegularFile() &&
+                    attrs.lastModifiedTime().toMillis() >= reportSince) {
+                    if (reportSince == 0) {
+                        listener.onFileCreate(file.toFile());
+                    } else {
+                        listener.onFileChange(file.toFile());
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                logger.warn("Unable to read {} while registering for " +
+                            "changes: {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Registers a single directory. When a file name is provided, only
+     * changes to that file are reported (unless the directory is also
+     * registered in full).
+     */
+    private synchronized void register(Path dir, boolean recursive, Path fileName)
+        throws IOException {
+        if (null == watchService) {
+            throw new ClosedWatchServiceException();
+        }
+
+        WatchKey key = dir.register(watchService,
+                                    ENTRY_CREATE,
+                                    ENTRY_MODIFY,
+                                    ENTRY_DELETE);
+        WatchedDir watched = keys.get(key);
+        if (null == watched) {
+            watched = new WatchedDir(key, dir);
+            keys.put(key, watched);
+            dirs.put(dir, watched);
+        }
+        watched.include(recursive, fileName);
+    }
+
+    private synchronized void cancelTree(Path root) {
+        for (WatchedDir dir : new ArrayList<>(dirs.values())) {
+            if (dir.path.startsWith(root)) {
+                dir.key.cancel();
+                keys.remove(dir.key);
+                dirs.remove(dir.path);
+            }
+        }
+    }
+
+    /**
+     * A directory registered with the watch service
+     */
+    private static class WatchedDir {
+        private final WatchKey key;
+        private final Path path;
+        private boolean recursive = false;
+        // null indicates that all files in the directory are watched
+        private Set<Path> files = new HashSet<>();
+        private volatile long lastProcessed = System.currentTimeMillis();
+
+        WatchedDir(WatchKey key, Path path) {
+            this.key = key;
+            this.path = path;
+        }
+
+        synchronized void include(boolean recursive, Path fileName) {
+            if (recursive || null == fileName) {
+                this.recursive = this.recursive || recursive;
+                this.files = null;
+            } else if (null != files) {
+                files.add(fileName);
+            }
+        }
+
+        synchronized boolean accepts(Path fileName) {
+            return null == files || files.contains(fileName);
+        }
+
+        synchronized Set<Path> getFiles() {
+            return null == files ? new HashSet<>() : new HashSet<>(files);
+        }
+    }
+
+}
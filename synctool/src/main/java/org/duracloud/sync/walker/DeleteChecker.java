@@ -8,8 +8,12 @@
 package org.duracloud.sync.walker;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.duracloud.common.retry.Retriable;
 import org.duracloud.common.retry.Retrier;
@@ -26,13 +30,16 @@ public class DeleteChecker implements Runnable {
     private final Logger logger =
         LoggerFactory.getLogger(DeleteChecker.class);
 
+    public static final int DEFAULT_DELETE_THREADS = 3;
+
     private SyncEndpoint syncEndpoint;
     private String spaceId;
     private Iterator<String> filesList;
     private List<File> syncDirs;
-    private boolean complete = false;
-    private boolean stopped = false;
+    private volatile boolean complete = false;
+    private volatile boolean stopped = false;
     private String prefix;
+    private int deleteThreads;
 
     /**
      * Creates a delete checker
@@ -44,10 +51,27 @@ public class DeleteChecker implements Runnable {
                             String spaceId,
                             List<File> syncDirs,
                             String prefix) {
+        this(syncEndpoint, spaceId, syncDirs, prefix, DEFAULT_DELETE_THREADS);
+    }
+
+    /**
+     * Creates a delete checker
+     *
+     * @param syncEndpoint  the endpoint to which files are synced
+     * @param syncDirs      the list of local source directories being synced
+     * @param deleteThreads the number of threads used to delete content
+     */
+    protected DeleteChecker(SyncEndpoint syncEndpoint,
+                            String spaceId,
+                            List<File> syncDirs,
+                            String prefix,
+                            int deleteThreads) {
         this.syncEndpoint = syncEndpoint;
         this.spaceId = spaceId;
         this.syncDirs = syncDirs;
         this.prefix = prefix;
+        this.deleteThreads =
+            deleteThreads > 0 ? deleteThreads : DEFAULT_DELETE_THREADS;
 
         this.filesList = syncEndpoint.getFilesList();
     }
@@ -60,6 +84,13 @@ public class DeleteChecker implements Runnable {
      * (i.e. the source file has been deleted.) Each file of this type is
      * removed from the endpoint.
      *
+     * The endpoint lists its files in sorted order, so each sync directory is
+     * enumerated in the same order and the two are compared in a single merge
+     * pass, rather than checking for each listed file on the file system. An
+     * item which is not found by the merge (including any item listed out of
+     * order) is checked on the file system before it is deleted. Deletes are
+     * performed concurrently by a bounded pool of threads.
+     *
      * Note that if a prefix is used, all files in the endpoint that do not
      * have the prefix will be removed (as they cannot be consistent with
      * what the content ID will be for files pushed up with the prefix.)
@@ -67,25 +98,61 @@ public class DeleteChecker implements Runnable {
     public void run() {
         logger.info("Running Delete Checker");
 
-        while (filesList.hasNext() && !stopped) {
-            String contentId = filesList.next();
-            if (null != prefix) { // A prefix is being used
-                if (contentId.startsWith(prefix)) {
-                    if (!exists(contentId.substring(prefix.length()))) {
-                        deleteContent(contentId);
+        List<LocalFiles> localFiles = new ArrayList<>();
+        for (File syncDir : syncDirs) {
+            localFiles.add(new LocalFiles(syncDir));
+        }
+
+        // Queued deletes are bounded, when the queue is full the listing
+        // thread performs the delete itself
+        ThreadPoolExecutor deletePool =
+            new ThreadPoolExecutor(deleteThreads,
+                                   deleteThreads,
+                                   0L,
+                                   TimeUnit.MILLISECONDS,
+                                   new ArrayBlockingQueue<>(deleteThreads * 100),
+                                   new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            while (filesList.hasNext() && !stopped) {
+                final String contentId = filesList.next();
+                boolean delete;
+                if (null != prefix) { // A prefix is being used
+                    if (contentId.startsWith(prefix)) {
+                        delete = !exists(contentId.substring(prefix.length()),
+                                         localFiles);
+                    } else { // Content Id does not start with prefix
+                        delete = true;
                     }
-                } else { // Content Id does not start with prefix
-                    deleteContent(contentId);
+                } else { // A prefix is not being used
+                    delete = !exists(contentId, localFiles);
+                }
+
+                if (delete) {
+                    deletePool.execute(() -> deleteContent(contentId));
                 }
-            } else { // A prefix is not being used
-                if (!exists(contentId)) {
-                    deleteContent(contentId);
+            }
+        } finally {
+            deletePool.shutdown();
+            try {
+                while (!deletePool.awaitTermination(1, TimeUnit.MINUTES)) {
+                    logger.info("Waiting for content deletes to complete");
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
         complete = true;
     }
 
+    private boolean exists(String fileToCheck, List<LocalFiles> localFiles) {
+        for (LocalFiles files : localFiles) {
+            if (files.contains(fileToCheck)) {
+                return true;
+            }
+        }
+        return exists(fileToCheck);
+    }
+
     private boolean exists(String fileToCheck) {
         boolean exists = false;
         for (File syncDir : syncDirs) {
@@ -127,9 +194,45 @@ public class DeleteChecker implements Runnable {
                                       String spaceId,
                                       List<File> syncDirs,
                                       String prefix) {
+        return start(syncEndpoint, spaceId, syncDirs, prefix,
+                     DEFAULT_DELETE_THREADS);
+    }
+
+    public static DeleteChecker start(SyncEndpoint syncEndpoint,
+                                      String spaceId,
+                                      List<File> syncDirs,
+                                      String prefix,
+                                      int deleteThreads) {
         DeleteChecker deleteChecker =
-            new DeleteChecker(syncEndpoint, spaceId, syncDirs, prefix);
+            new DeleteChecker(syncEndpoint, spaceId, syncDirs, prefix,
+                              deleteThreads);
         (new Thread(deleteChecker)).start();
         return deleteChecker;
     }
+
+    /*
+     * The files in a sync directory, enumerated in sorted order. Advancing
+     * through the files to find a given path allows a sorted list of paths to
+     * be checked in a single pass.
+     */
+    private static class LocalFiles {
+        private final Iterator<String> files;
+        private String current;
+
+        LocalFiles(File syncDir) {
+            this.files = new SortedFileIterator(syncDir);
+            this.current = files.hasNext() ? files.next() : null;
+        }
+
+        /**
+         * @return true if the path was found, false if it does not exist or
+         * precedes a path which has already been checked
+         */
+        boolean contains(String path) {
+            while (null != current && current.compareTo(path) < 0) {
+                current = files.hasNext() ? files.next() : null;
+            }
+            return path.equals(current);
+        }
+    }
 }
@@ -9,11 +9,16 @@ package org.duracloud.sync.walker;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.commons.io.DirectoryWalker;
 import org.duracloud.sync.mgmt.ChangedList;
 import org.duracloud.sync.mgmt.FileExclusionManager;
 import org.slf4j.Logger;
@@ -25,28 +30,46 @@ import org.slf4j.LoggerFactory;
  * directories will also be added to the changed file list. This is the
  * starting point for synchronization.
  *
+ * Each directory tree is walked in parallel by a fork/join pool: every
+ * directory is listed by a separate task, and the files found in a
+ * directory are added to the changed file list in batches.
+ *
  * @author: Bill Branan
  * Date: Mar 17, 2010
  */
-public class DirWalker extends DirectoryWalker implements Runnable {
+public class DirWalker implements Runnable {
 
     private final Logger logger = LoggerFactory.getLogger(DirWalker.class);
 
+    public static final int DEFAULT_PARALLELISM = 4;
+    protected static final int BATCH_SIZE = 1000;
+
     private static DirWalker dirWalker;
-    private boolean continueWalk;
+    private volatile boolean continueWalk;
 
     private List<File> filesAndDirs;
 
     protected final ChangedList changedList;
-    private int files = 0;
-    private boolean complete = false;
+    private final AtomicInteger files = new AtomicInteger(0);
+    private volatile boolean complete = false;
     protected FileExclusionManager fileExclusionManager;
+    private final int parallelism;
 
     protected DirWalker(List<File> filesAndDirs, FileExclusionManager fileExclusionManager) {
-        super();
+        this(filesAndDirs, fileExclusionManager, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param parallelism the number of threads used to walk the directory
+     *                    trees, a value less than 1 indicates the default
+     */
+    protected DirWalker(List<File> filesAndDirs,
+                        FileExclusionManager fileExclusionManager,
+                        int parallelism) {
         this.filesAndDirs = filesAndDirs;
         this.changedList = ChangedList.getInstance();
         this.fileExclusionManager = fileExclusionManager;
+        this.parallelism = parallelism > 0 ? parallelism : DEFAULT_PARALLELISM;
     }
 
     public void run() {
@@ -58,6 +81,7 @@ public class DirWalker extends DirectoryWalker implements Runnable {
     }
 
     protected void walkDirs() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
         try {
             continueWalk = true;
             for (File item : filesAndDirs) {
@@ -65,14 +89,15 @@ public class DirWalker extends DirectoryWalker implements Runnable {
 
                     if (item.isDirectory()) { // Directory
                         try {
-                            List results = new ArrayList();
-                            walk(item, results);
-                        } catch (IOException e) {
+                            pool.invoke(new DirectoryTask(item, 0));
+                        } catch (RuntimeException e) {
                             throw new RuntimeException("Error walking directory " +
                                                        item.getAbsolutePath() + ":" + e.getMessage(), e);
                         }
                     } else { // File
-                        handleFile(item, 0, null);
+                        List<File> batch = new ArrayList<>(1);
+                        handleFile(item, 0, batch);
+                        addFiles(batch);
                     }
                 } else {
                     String filename = "null";
@@ -94,49 +119,138 @@ public class DirWalker extends DirectoryWalker implements Runnable {
 
         } catch (Exception e) {
             logger.error("dir walker failed: " + e.getMessage(), e);
+        } finally {
+            pool.shutdown();
         }
 
         complete = true;
     }
 
-    @Override
+    /**
+     * Determines whether a directory should be walked. This may be called
+     * concurrently from multiple threads.
+     *
+     * @param directory the directory
+     * @param depth     of the directory relative to the walked directory
+     * @param results   not used
+     * @return true if the contents of the directory should be walked
+     */
     protected boolean handleDirectory(File directory,
                                       int depth,
-                                      Collection results)
+                                      Collection<File> results)
         throws IOException {
         return !this.fileExclusionManager.isExcluded(directory);
     }
 
-    @Override
-    protected void handleFile(File file, int depth, Collection results) {
+    /**
+     * Handles a file found in the walk by adding it to the results if it is
+     * to be included in the changed file list. This may be called
+     * concurrently from multiple threads, but never concurrently for the
+     * same results.
+     *
+     * @param file    the file
+     * @param depth   of the file relative to the walked directory
+     * @param results the batch of files to be added to the changed file list
+     */
+    protected void handleFile(File file, int depth, Collection<File> results) {
         if (null == file) {
             logger.warn("The file parameter is unexpectedly null. Ignoring...");
         } else if (!this.fileExclusionManager.isExcluded(file)) {
-            if (changedList.addChangedFile(file)) {
-                ++files;
-            }
+            results.add(file);
+        }
+    }
+
+    private void addFiles(List<File> batch) {
+        if (!batch.isEmpty()) {
+            files.addAndGet(changedList.addChangedFiles(batch));
+            batch.clear();
         }
     }
 
-    @Override
-    protected boolean handleIsCancelled(File file,
-                                        int depth,
-                                        Collection results) throws IOException {
-        return !continueWalk;
+    /*
+     * Lists a single directory, handling the files it contains and forking
+     * a new task for each subdirectory.
+     */
+    private class DirectoryTask extends RecursiveAction {
+        private final File directory;
+        private final int depth;
+
+        DirectoryTask(File directory, int depth) {
+            this.directory = directory;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (!continueWalk) {
+                return;
+            }
+
+            List<DirectoryTask> subTasks = new ArrayList<>();
+            List<File> batch = new ArrayList<>();
+            try {
+                if (!handleDirectory(directory, depth, null)) {
+                    return;
+                }
+
+                try (DirectoryStream<Path> stream =
+                         Files.newDirectoryStream(directory.toPath())) {
+                    for (Path path : stream) {
+                        if (!continueWalk) {
+                            break;
+                        }
+
+                        File child = path.toFile();
+                        if (Files.isDirectory(path)) {
+                            DirectoryTask subTask =
+                                new DirectoryTask(child, depth + 1);
+                            subTask.fork();
+                            subTasks.add(subTask);
+                        } else {
+                            handleFile(child, depth + 1, batch);
+                            if (batch.size() >= BATCH_SIZE) {
+                                addFiles(batch);
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Unreadable directories are skipped, as in a File listing
+                logger.warn("Unable to read directory " +
+                            directory.getAbsolutePath() + ", skipping: " +
+                            e.getMessage());
+            } finally {
+                addFiles(batch);
+            }
+
+            for (DirectoryTask subTask : subTasks) {
+                subTask.join();
+            }
+        }
     }
 
     public static DirWalker start(List<File> topDirs, FileExclusionManager fileExclusionManager) {
-        dirWalker = new DirWalker(topDirs, fileExclusionManager);
+        return start(topDirs, fileExclusionManager, DEFAULT_PARALLELISM);
+    }
+
+    public static DirWalker start(List<File> topDirs,
+                                  FileExclusionManager fileExclusionManager,
+                                  int parallelism) {
+        dirWalker = new DirWalker(topDirs, fileExclusionManager, parallelism);
         (new Thread(dirWalker)).start();
         return dirWalker;
     }
 
+    protected int getParallelism() {
+        return parallelism;
+    }
+
     public boolean walkComplete() {
         return complete;
     }
 
     public int getFilesCount() {
-        return files;
+        return files.get();
     }
 
 }
@@ -10,6 +10,7 @@ package org.duracloud.sync.walker;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.duracloud.sync.mgmt.FileExclusionManager;
@@ -35,9 +36,16 @@ public class RestartDirWalker extends DirWalker {
     protected RestartDirWalker(List<File> topDirs,
                                long lastBackup,
                                FileExclusionManager fileExclusionManager) {
-        super(topDirs, fileExclusionManager);
+        this(topDirs, lastBackup, fileExclusionManager, DEFAULT_PARALLELISM);
+    }
+
+    protected RestartDirWalker(List<File> topDirs,
+                               long lastBackup,
+                               FileExclusionManager fileExclusionManager,
+                               int parallelism) {
+        super(topDirs, fileExclusionManager, parallelism);
         this.lastBackup = lastBackup;
-        changedDirs = new ArrayList<File>();
+        changedDirs = Collections.synchronizedList(new ArrayList<File>());
     }
 
     @Override
@@ -46,13 +54,15 @@ public class RestartDirWalker extends DirWalker {
 
         // Walk and add all files in directories which have changed
         if (changedDirs.size() > 0) {
-            DirWalker dirWalker = new DirWalker(changedDirs, fileExclusionManager);
+            DirWalker dirWalker = new DirWalker(changedDirs,
+                                                fileExclusionManager,
+                                                getParallelism());
             dirWalker.walkDirs();
         }
     }
 
     @Override
-    protected void handleFile(File file, int depth, Collection results) {
+    protected void handleFile(File file, int depth, Collection<File> results) {
         if (file.lastModified() > lastBackup) {
             super.handleFile(file, depth, results);
         }
@@ -61,7 +71,7 @@ public class RestartDirWalker extends DirWalker {
     @Override
     protected boolean handleDirectory(File directory,
                                       int depth,
-                                      Collection results) {
+                                      Collection<File> results) {
         if (directory.lastModified() > lastBackup) {
             changedDirs.add(directory);
         }
@@ -71,8 +81,15 @@ public class RestartDirWalker extends DirWalker {
     public static DirWalker start(List<File> topDirs,
                                   long lastBackup,
                                   FileExclusionManager fileExclusionManager) {
+        return start(topDirs, lastBackup, fileExclusionManager, DEFAULT_PARALLELISM);
+    }
+
+    public static DirWalker start(List<File> topDirs,
+                                  long lastBackup,
+                                  FileExclusionManager fileExclusionManager,
+                                  int parallelism) {
         RestartDirWalker dirWalker =
-            new RestartDirWalker(topDirs, lastBackup, fileExclusionManager);
+            new RestartDirWalker(topDirs, lastBackup, fileExclusionManager, parallelism);
         (new Thread(dirWalker)).start();
         return dirWalker;
     }
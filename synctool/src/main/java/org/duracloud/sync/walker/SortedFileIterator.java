@@ -0,0 +1,125 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.sync.walker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterates over the files in a directory tree, providing the path of each
+ * file relative to the top directory, using '/' as the separator. Paths are
+ * provided in String order, which is achieved by listing one directory at a
+ * time: only the listings of the directories on the path to the current file
+ * are held in memory.
+ *
+ * Directories which cannot be read are skipped.
+ */
+class SortedFileIterator implements Iterator<String> {
+
+    private final Logger logger =
+        LoggerFactory.getLogger(SortedFileIterator.class);
+
+    private final Deque<Listing> listings = new ArrayDeque<>();
+    private String next;
+
+    SortedFileIterator(File topDir) {
+        listings.push(new Listing(topDir, ""));
+        next = findNext();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return null != next;
+    }
+
+    @Override
+    public String next() {
+        if (null == next) {
+            throw new NoSuchElementException();
+        }
+        String current = next;
+        next = findNext();
+        return current;
+    }
+
+    private String findNext() {
+        while (!listings.isEmpty()) {
+            Listing listing = listings.peek();
+            if (!listing.entries.hasNext()) {
+                listings.pop();
+                continue;
+            }
+
+            Entry entry = listing.entries.next();
+            String path = listing.pathPrefix + entry.name;
+            if (entry.directory) {
+                listings.push(new Listing(entry.file, path + "/"));
+            } else {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * The sorted entries of a single directory
+     */
+    private class Listing {
+        private final String pathPrefix;
+        private final Iterator<Entry> entries;
+
+        Listing(File dir, String pathPrefix) {
+            this.pathPrefix = pathPrefix;
+
+            List<Entry> dirEntries = new ArrayList<>();
+            try (DirectoryStream<Path> stream =
+                     Files.newDirectoryStream(dir.toPath())) {
+                for (Path path : stream) {
+                    dirEntries.add(new Entry(path.toFile(),
+                                             Files.isDirectory(path)));
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to read directory " +
+                            dir.getAbsolutePath() + ", skipping: " +
+                            e.getMessage());
+            }
+
+            // A directory sorts by its name followed by the separator, which
+            // places its contents correctly in order among its siblings
+            dirEntries.sort((a, b) -> a.sortKey.compareTo(b.sortKey));
+            this.entries = dirEntries.iterator();
+        }
+    }
+
+    private static class Entry {
+        private final File file;
+        private final String name;
+        private final boolean directory;
+        private final String sortKey;
+
+        Entry(File file, boolean directory) {
+            this.file = file;
+            this.name = file.getName();
+            this.directory = directory;
+            this.sortKey = directory ? name + "/" : name;
+        }
+    }
+
+}
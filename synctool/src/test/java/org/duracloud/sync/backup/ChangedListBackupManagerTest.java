@@ -8,11 +8,15 @@
 package org.duracloud.sync.backup;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 
 import org.apache.commons.io.FileUtils;
@@ -39,6 +43,7 @@ public class ChangedListBackupManagerTest extends SyncTestBase {
     @After
     public void tearDown() throws Exception {
         super.tearDown();
+        changedList.stopJournal();
         FileUtils.deleteDirectory(tempDir);
     }
 
@@ -70,4 +75,35 @@ public class ChangedListBackupManagerTest extends SyncTestBase {
         assertEquals(testFileName, changedFile.getFile().getName());
         assertNull(changedList.reserve());
     }
+
+    @Test
+    public void testLoadLegacyBackupWithJournalDir() throws Exception {
+        ChangedListBackupManager bkMan =
+            new ChangedListBackupManager(changedList, tempDir, 100, new LinkedList<File>());
+        assertFalse(bkMan.hasBackups());
+        assertEquals(-1, bkMan.loadBackup());
+
+        // A full backup of the list, as written by earlier versions
+        File file = new File(tempDir, "testfile");
+        LinkedHashMap<String, ChangedFile> fileList = new LinkedHashMap<>();
+        fileList.put(file.getAbsolutePath(), new ChangedFile(file));
+        long backupTime = System.currentTimeMillis();
+        File backupDir = new File(tempDir, "changeList");
+        try (ObjectOutputStream out = new ObjectOutputStream(
+            new FileOutputStream(new File(backupDir, String.valueOf(backupTime))))) {
+            out.writeObject(fileList);
+        }
+        // Directories alongside the backup are not backups
+        assertTrue(new File(backupDir, "not-a-backup").mkdir());
+        new File(backupDir, "not-a-backup").setLastModified(backupTime + 10000);
+        assertTrue(new File(tempDir, "changeListJournal").isDirectory());
+
+        assertTrue(bkMan.hasBackups());
+        assertEquals(backupTime, bkMan.loadBackup());
+
+        ChangedFile changedFile = changedList.reserve();
+        assertNotNull(changedFile);
+        assertEquals(file, changedFile.getFile());
+        assertNull(changedList.reserve());
+    }
 }
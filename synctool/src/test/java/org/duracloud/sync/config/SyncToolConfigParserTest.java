@@ -86,6 +86,8 @@ public class SyncToolConfigParserTest {
         argsMap.remove("-r");
         argsMap.remove("-i");
         argsMap.remove("-t");
+        argsMap.remove("-k");
+        argsMap.remove("-v");
         argsMap.remove("-m");
         argsMap.remove("-d");
         argsMap.remove("-l");
@@ -96,6 +98,7 @@ public class SyncToolConfigParserTest {
         argsMap.remove("-n");
         argsMap.remove("-o");
         argsMap.remove("-j");
+        argsMap.remove("-b");
 
         // Process configs, make sure optional params are set to defaults
         syncConfig =
@@ -106,6 +109,10 @@ public class SyncToolConfigParserTest {
         assertNull(syncConfig.getStoreId());
         assertEquals(SyncToolConfigParser.DEFAULT_NUM_THREADS,
                      syncConfig.getNumThreads());
+        assertEquals(SyncToolConfigParser.DEFAULT_WALK_THREADS,
+                     syncConfig.getWalkThreads());
+        assertEquals(SyncToolConfigParser.DEFAULT_CHUNK_THREADS,
+                     syncConfig.getChunkThreads());
         assertEquals(SyncToolConfigParser.DEFAULT_MAX_FILE_SIZE *
                      SyncToolConfigParser.GIGABYTE,
                      syncConfig.getMaxFileSize());
@@ -119,6 +126,7 @@ public class SyncToolConfigParserTest {
         assertFalse(syncConfig.isRenameUpdates());
         assertTrue(syncConfig.isSyncUpdates());
         assertFalse(syncConfig.isJumpStart());
+        assertFalse(syncConfig.isBulkCheck());
 
         // Make sure error is thrown on missing required params
         for (String arg : argsMap.keySet()) {
@@ -134,6 +142,10 @@ public class SyncToolConfigParserTest {
         addArgFailTest(argsMap, "-r", "nonNum", failMsg);
         failMsg = "Threads arg should require a numerical value";
         addArgFailTest(argsMap, "-t", "nonNum", failMsg);
+        failMsg = "Walk threads arg should require a numerical value";
+        addArgFailTest(argsMap, "-k", "nonNum", failMsg);
+        failMsg = "Chunk threads arg should require a numerical value";
+        addArgFailTest(argsMap, "-v", "nonNum", failMsg);
         failMsg = "Max file size arg should require a numerical value";
         addArgFailTest(argsMap, "-m", "nonNum", failMsg);
         failMsg = "Max file size arg should be between 1 and 5";
@@ -150,6 +162,8 @@ public class SyncToolConfigParserTest {
         argsMap.put("-i", "0");
         argsMap.put("-c", tempDir.getAbsolutePath());
         argsMap.put("-t", "5");
+        argsMap.put("-k", "2");
+        argsMap.put("-v", "3");
         argsMap.put("-u", "user");
         argsMap.put("-s", "mySpace");
         argsMap.put("-m", "2");
@@ -158,6 +172,7 @@ public class SyncToolConfigParserTest {
         argsMap.put("-x", "");
         argsMap.put("-a", "prefix/");
         argsMap.put("-j", "");
+        argsMap.put("-b", "");
         return argsMap;
     }
 
@@ -175,6 +190,10 @@ public class SyncToolConfigParserTest {
                      syncConfig.getContentDirs().get(0).getAbsolutePath());
         assertEquals(argsMap.get("-t"),
                      String.valueOf(syncConfig.getNumThreads()));
+        assertEquals(argsMap.get("-k"),
+                     String.valueOf(syncConfig.getWalkThreads()));
+        assertEquals(argsMap.get("-v"),
+                     String.valueOf(syncConfig.getChunkThreads()));
         assertEquals(argsMap.get("-u"), syncConfig.getUsername());
         assertEquals(argsMap.get("-s"), syncConfig.getSpaceId());
         assertEquals(argsMap.get("-m"),
@@ -184,6 +203,7 @@ public class SyncToolConfigParserTest {
         assertEquals(true, syncConfig.syncDeletes());
         assertEquals(true, syncConfig.isCleanStart());
         assertEquals(true, syncConfig.exitOnCompletion());
+        assertEquals(true, syncConfig.isBulkCheck());
     }
 
     private String[] mapToArray(HashMap<String, String> map) {
@@ -7,20 +7,29 @@
  */
 package org.duracloud.sync.endpoint;
 
+import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotNull;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.duracloud.client.ContentStore;
+import org.duracloud.common.constant.ManifestFormat;
 import org.duracloud.common.model.AclType;
 import org.duracloud.common.util.ChecksumUtil;
+import org.duracloud.error.ContentStoreException;
 import org.easymock.Capture;
 import org.easymock.CaptureType;
 import org.easymock.EasyMock;
+import org.easymock.IArgumentMatcher;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -91,18 +100,94 @@ public class DuraStoreSyncEndpointTest {
                                                 EasyMock.eq("text/plain"),
                                                 EasyMock.eq(checksum),
                                                 EasyMock.capture(propsCapture)))
-                .andReturn("");
+                .andReturn(checksum);
 
         replayMocks();
         setEndpoint(null, false);
 
         MonitoredFile monitoredFile = new MonitoredFile(contentFile);
+        monitoredFile.getChecksum();
         endpoint.addUpdateContent(contentId, monitoredFile);
 
         Map<String, String> props = propsCapture.getValue();
         assertNotNull(props);
     }
 
+    @Test
+    public void testAddFileChecksumWhileStreaming() throws Exception {
+        String contentId = "contentId";
+        FileUtils.writeStringToFile(contentFile, "content-file");
+        String checksum =
+            new ChecksumUtil(ChecksumUtil.Algorithm.MD5).generateChecksum(contentFile);
+
+        // Checksum is not known before the transfer, so none is sent
+        EasyMock.expect(contentStore.addContent(EasyMock.eq(spaceId),
+                                                EasyMock.eq(contentId),
+                                                streamRead(),
+                                                EasyMock.eq(contentFile.length()),
+                                                EasyMock.eq("text/plain"),
+                                                EasyMock.isNull(String.class),
+                                                EasyMock.isA(Map.class)))
+                .andReturn(checksum);
+
+        replayMocks();
+        setEndpoint(null, false);
+
+        MonitoredFile monitoredFile = new MonitoredFile(contentFile);
+        endpoint.addUpdateContent(contentId, monitoredFile);
+        assertEquals(checksum, monitoredFile.getChecksum());
+    }
+
+    @Test(expected = ContentStoreException.class)
+    public void testAddFileChecksumMismatch() throws Exception {
+        String contentId = "contentId";
+        FileUtils.writeStringToFile(contentFile, "content-file");
+
+        EasyMock.expect(contentStore.addContent(EasyMock.eq(spaceId),
+                                                EasyMock.eq(contentId),
+                                                streamRead(),
+                                                EasyMock.eq(contentFile.length()),
+                                                EasyMock.eq("text/plain"),
+                                                EasyMock.isNull(String.class),
+                                                EasyMock.isA(Map.class)))
+                .andReturn("invalid-checksum");
+
+        // The mismatched copy is removed, so a retry adds it again
+        contentStore.deleteContent(spaceId, contentId);
+        EasyMock.expectLastCall().once();
+
+        replayMocks();
+        setEndpoint(null, false);
+
+        endpoint.addUpdateContent(contentId, new MonitoredFile(contentFile));
+    }
+
+    /*
+     * Matches any InputStream, reading it fully as the store would
+     */
+    private static InputStream streamRead() {
+        EasyMock.reportMatcher(new IArgumentMatcher() {
+            @Override
+            public boolean matches(Object argument) {
+                if (!(argument instanceof InputStream)) {
+                    return false;
+                }
+                try {
+                    IOUtils.copy((InputStream) argument, new NullOutputStream());
+                } catch (IOException e) {
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void appendTo(StringBuffer buffer) {
+                buffer.append("streamRead()");
+            }
+        });
+        return null;
+    }
+
     @Test
     public void testSyncJumpstart() throws Exception {
         EasyMock.expect(contentStore.addContent(EasyMock.eq(spaceId),
@@ -121,4 +206,116 @@ public class DuraStoreSyncEndpointTest {
         endpoint.syncFile(monitoredFile, contentFile.getParentFile());
     }
 
+    @Test
+    public void testSyncWithChecksumIndex() throws Exception {
+        FileUtils.writeStringToFile(contentFile, "content-file");
+        String checksum =
+            new ChecksumUtil(ChecksumUtil.Algorithm.MD5).generateChecksum(contentFile);
+        String contentId = contentFile.getName();
+
+        String manifest = "space-id\tcontent-id\tMD5\n" +
+                          spaceId + "\t" + contentId + "\t" + checksum + "\n" +
+                          spaceId + "\tother\tnot-a-checksum\n";
+        EasyMock.expect(contentStore.getManifest(spaceId, ManifestFormat.TSV))
+                .andReturn(new ByteArrayInputStream(
+                    manifest.getBytes(StandardCharsets.UTF_8)));
+
+        // A file which matches the manifest is in sync without a check of
+        // the content properties in DuraCloud
+        replayMocks();
+        setEndpoint(null, false);
+        endpoint.loadChecksumIndex();
+
+        assertEquals(SyncResultType.ALREADY_IN_SYNC,
+                     endpoint.syncFileAndReturnDetailedResult(
+                         new MonitoredFile(contentFile), contentFile.getParentFile()));
+    }
+
+    @Test
+    public void testSyncWithChecksumIndexMismatch() throws Exception {
+        FileUtils.writeStringToFile(contentFile, "content-file");
+        String checksum =
+            new ChecksumUtil(ChecksumUtil.Algorithm.MD5).generateChecksum(contentFile);
+        String contentId = contentFile.getName();
+
+        // The manifest is out of date, so DuraCloud is checked
+        String manifest = "space-id\tcontent-id\tMD5\n" + spaceId + "\t" +
+                          contentId + "\t00000000000000000000000000000000\n";
+        EasyMock.expect(contentStore.getManifest(spaceId, ManifestFormat.TSV))
+                .andReturn(new ByteArrayInputStream(
+                    manifest.getBytes(StandardCharsets.UTF_8)));
+
+        Map<String, String> props = new HashMap<>();
+        props.put(ContentStore.CONTENT_CHECKSUM, checksum);
+        EasyMock.expect(contentStore.getContentProperties(spaceId, contentId))
+                .andReturn(props);
+
+        replayMocks();
+        setEndpoint(null, false);
+        endpoint.loadChecksumIndex();
+
+        assertEquals(SyncResultType.ALREADY_IN_SYNC,
+                     endpoint.syncFileAndReturnDetailedResult(
+                         new MonitoredFile(contentFile), contentFile.getParentFile()));
+    }
+
+    @Test
+    public void testSyncNewFileWithChecksumIndex() throws Exception {
+        FileUtils.writeStringToFile(contentFile, "content-file");
+        String checksum =
+            new ChecksumUtil(ChecksumUtil.Algorithm.MD5).generateChecksum(contentFile);
+        String contentId = contentFile.getName();
+
+        String manifest = "space-id\tcontent-id\tMD5\n" +
+                          spaceId + "\tother\t" + checksum + "\n";
+        EasyMock.expect(contentStore.getManifest(spaceId, ManifestFormat.TSV))
+                .andReturn(new ByteArrayInputStream(
+                    manifest.getBytes(StandardCharsets.UTF_8)));
+        EasyMock.expect(contentStore.getContentProperties(spaceId, contentId))
+                .andThrow(new ContentStoreException("not found"));
+
+        // A file which is not indexed is not read before the transfer, so
+        // its checksum is computed while streaming
+        EasyMock.expect(contentStore.addContent(EasyMock.eq(spaceId),
+                                                EasyMock.eq(contentId),
+                                                streamRead(),
+                                                EasyMock.eq(contentFile.length()),
+                                                EasyMock.eq("text/plain"),
+                                                EasyMock.isNull(String.class),
+                                                EasyMock.isA(Map.class)))
+                .andReturn(checksum);
+
+        replayMocks();
+        setEndpoint(null, false);
+        endpoint.loadChecksumIndex();
+
+        assertEquals(SyncResultType.ADDED,
+                     endpoint.syncFileAndReturnDetailedResult(
+                         new MonitoredFile(contentFile), contentFile.getParentFile()));
+    }
+
+    @Test
+    public void testSyncWithoutManifest() throws Exception {
+        FileUtils.writeStringToFile(contentFile, "content-file");
+        String checksum =
+            new ChecksumUtil(ChecksumUtil.Algorithm.MD5).generateChecksum(contentFile);
+        String contentId = contentFile.getName();
+
+        EasyMock.expect(contentStore.getManifest(spaceId, ManifestFormat.TSV))
+                .andThrow(new ContentStoreException("no manifest"));
+
+        Map<String, String> props = new HashMap<>();
+        props.put(ContentStore.CONTENT_CHECKSUM, checksum);
+        EasyMock.expect(contentStore.getContentProperties(spaceId, contentId))
+                .andReturn(props);
+
+        replayMocks();
+        setEndpoint(null, false);
+        endpoint.loadChecksumIndex();
+
+        assertEquals(SyncResultType.ALREADY_IN_SYNC,
+                     endpoint.syncFileAndReturnDetailedResult(
+                         new MonitoredFile(contentFile), contentFile.getParentFile()));
+    }
+
 }
@@ -15,8 +15,10 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import junit.framework.Assert;
+import org.apache.commons.io.FileUtils;
 import org.duracloud.sync.SyncTestBase;
 import org.junit.After;
 import org.junit.Before;
@@ -39,6 +41,9 @@ public class ChangedListTest extends SyncTestBase {
     @After
     public void tearDown() throws Exception {
         super.tearDown();
+        changedList.stopJournal();
+        changedList.setMaxInMemory(ChangedList.DEFAULT_MAX_IN_MEMORY);
+        changedList.setMinCompactionOps(ChangedList.MIN_COMPACTION_OPS);
         changedList.clear();
         changedFile.delete();
     }
@@ -55,6 +60,67 @@ public class ChangedListTest extends SyncTestBase {
         assertEquals(version + 2, changedList.getVersion());
     }
 
+    @Test
+    public void testAddChangedFiles() throws Exception {
+        long version = changedList.getVersion();
+        File otherFile = new File(changedFile.getParentFile(), "other-file");
+        assertEquals(2, changedList.addChangedFiles(
+            Arrays.asList(changedFile, null, otherFile)));
+        assertEquals(version + 2, changedList.getVersion());
+        assertEquals(2, changedList.getListSize());
+
+        assertEquals(changedFile, changedList.reserve().getFile());
+        assertEquals(otherFile, changedList.reserve().getFile());
+        assertNull(changedList.reserve());
+
+        assertEquals(0, changedList.addChangedFiles(new ArrayList<File>()));
+    }
+
+    @Test
+    public void testReserveBatch() throws Exception {
+        File file2 = new File(changedFile.getParentFile(), "file-2");
+        File file3 = new File(changedFile.getParentFile(), "file-3");
+        changedList.addChangedFiles(Arrays.asList(changedFile, file2, file3));
+
+        List<ChangedFile> reserved =
+            changedList.reserve(2, 0, TimeUnit.MILLISECONDS);
+        assertEquals(2, reserved.size());
+        assertEquals(changedFile, reserved.get(0).getFile());
+        assertEquals(file2, reserved.get(1).getFile());
+
+        reserved = changedList.reserve(2, 0, TimeUnit.MILLISECONDS);
+        assertEquals(1, reserved.size());
+        assertEquals(file3, reserved.get(0).getFile());
+        assertEquals(3, changedList.getListSizeIncludingReservedFiles());
+
+        // Waits for the timeout when the list is empty
+        long start = System.currentTimeMillis();
+        assertTrue(changedList.reserve(2, 100, TimeUnit.MILLISECONDS).isEmpty());
+        assertTrue(System.currentTimeMillis() - start >= 100);
+    }
+
+    @Test
+    public void testReserveBatchWaitsForAdd() throws Exception {
+        Thread adder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                changedList.addChangedFile(changedFile);
+            }
+        });
+        adder.start();
+
+        List<ChangedFile> reserved =
+            changedList.reserve(10, 10, TimeUnit.SECONDS);
+        assertEquals(1, reserved.size());
+        assertEquals(changedFile, reserved.get(0).getFile());
+        adder.join();
+    }
+
     @Test
     public void testChangedListPersist() throws Exception {
         changedList.addChangedFile(changedFile);
@@ -205,4 +271,163 @@ public class ChangedListTest extends SyncTestBase {
         Assert.assertEquals(0, changedList.getListSize());
     }
 
+    @Test
+    public void testOverflowRetainsOrder() throws Exception {
+        changedList.setMaxInMemory(4);
+        int fileCount = 20;
+        for (int i = 0; i < fileCount; i++) {
+            changedList.addChangedFile(new File("changedListTest-" + i + ".tmp"));
+        }
+        assertEquals(fileCount, changedList.getListSize());
+        assertEquals(4, changedList.peek(fileCount).size());
+
+        for (int i = 0; i < fileCount; i++) {
+            ChangedFile reserved = changedList.reserve();
+            assertEquals("changedListTest-" + i + ".tmp",
+                         reserved.getFile().getName());
+            reserved.remove();
+        }
+        assertNull(changedList.reserve());
+        assertEquals(0, changedList.getListSize());
+    }
+
+    @Test
+    public void testOverflowDuplicatesListedOnce() throws Exception {
+        changedList.setMaxInMemory(4);
+        for (int i = 0; i < 6; i++) {
+            changedList.addChangedFile(new File("changedListTest-" + i + ".tmp"));
+        }
+        // Duplicates in the overflow queue are counted until moved to memory
+        changedList.addChangedFile(new File("changedListTest-4.tmp"));
+        changedList.addChangedFile(new File("changedListTest-5.tmp"));
+        assertEquals(8, changedList.getListSize());
+
+        for (int i = 0; i < 6; i++) {
+            ChangedFile reserved = changedList.reserve();
+            assertEquals("changedListTest-" + i + ".tmp",
+                         reserved.getFile().getName());
+            reserved.remove();
+        }
+        assertNull(changedList.reserve());
+        assertEquals(0, changedList.getListSize());
+    }
+
+    @Test
+    public void testPersistOverflow() throws Exception {
+        changedList.setMaxInMemory(2);
+        File dir = changedFile.getParentFile();
+        for (int i = 0; i < 5; i++) {
+            changedList.addChangedFile(new File(dir, "changedListTest-" + i));
+        }
+        changedList.reserve();
+
+        File persistFile = File.createTempFile("persist", "file");
+        try {
+            changedList.persist(persistFile);
+            changedList.clear();
+            changedList.restore(persistFile, Arrays.asList(dir));
+            assertEquals(5, changedList.getListSize());
+        } finally {
+            persistFile.delete();
+        }
+    }
+
+    @Test
+    public void testJournalCompaction() throws Exception {
+        File journalDir = createTempDir("changed-list-journal");
+        try {
+            changedList.setMaxInMemory(2);
+            changedList.setMinCompactionOps(1);
+            changedList.startJournal(journalDir);
+            for (int i = 0; i < 5; i++) {
+                changedList.addChangedFile(new File(journalDir, "file-" + i));
+            }
+            changedList.reserve().remove();
+            changedList.persistJournal();
+
+            // Only the journal written since compaction remains
+            String[] journals = journalDir.list();
+            int journalCount = 0;
+            for (String name : journals) {
+                if (name.startsWith(ChangedListJournal.JOURNAL_FILE)) {
+                    journalCount++;
+                }
+            }
+            assertEquals(1, journalCount);
+
+            changedList.addChangedFile(new File(journalDir, "file-5"));
+            changedList.persistJournal();
+
+            changedList.restoreJournal(journalDir,
+                                       Arrays.asList(journalDir.getAbsoluteFile()));
+            assertEquals(5, changedList.getListSize());
+            assertEquals("file-1", changedList.reserve().getFile().getName());
+        } finally {
+            changedList.stopJournal();
+            FileUtils.deleteDirectory(journalDir);
+        }
+    }
+
+    @Test
+    public void testJournalRestore() throws Exception {
+        File journalDir = createTempDir("changed-list-journal");
+        try {
+            changedList.setMaxInMemory(2);
+            for (int i = 0; i < 5; i++) {
+                changedList.addChangedFile(new File(journalDir, "file-" + i));
+            }
+            changedList.startJournal(journalDir);
+
+            // Reserved but not removed, remains in the list
+            changedList.reserve();
+            // Removed, no longer in the list
+            changedList.reserve().remove();
+            // Returned to the list with a sync attempt
+            ChangedFile unreserved = changedList.reserve();
+            unreserved.incrementSyncAttempts();
+            unreserved.unreserve();
+            changedList.addChangedFile(new File(journalDir, "file-5"));
+            changedList.persistJournal();
+
+            // Changes after the journal is persisted are not restored
+            changedList.addChangedFile(new File(journalDir, "file-6"));
+
+            changedList.restoreJournal(journalDir,
+                                       Arrays.asList(journalDir.getAbsoluteFile()));
+            assertEquals(5, changedList.getListSize());
+
+            List<String> names = new ArrayList<>();
+            ChangedFile reserved;
+            while ((reserved = changedList.reserve()) != null) {
+                names.add(reserved.getFile().getName());
+                if (reserved.getFile().getName().equals("file-2")) {
+                    assertEquals(1, reserved.getSyncAttempts());
+                }
+            }
+            assertEquals(5, names.size());
+            assertTrue(names.containsAll(
+                Arrays.asList("file-0", "file-2", "file-3", "file-4", "file-5")));
+        } finally {
+            changedList.stopJournal();
+            FileUtils.deleteDirectory(journalDir);
+        }
+    }
+
+    @Test
+    public void testJournalRestoreAfterClear() throws Exception {
+        File journalDir = createTempDir("changed-list-journal");
+        try {
+            changedList.addChangedFile(changedFile);
+            changedList.startJournal(journalDir);
+            changedList.clear();
+            changedList.persistJournal();
+
+            changedList.restoreJournal(journalDir, null);
+            assertEquals(0, changedList.getListSize());
+        } finally {
+            changedList.stopJournal();
+            FileUtils.deleteDirectory(journalDir);
+        }
+    }
+
 }
@@ -9,11 +9,14 @@ package org.duracloud.sync.mgmt;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.duracloud.error.ContentStoreException;
 import org.duracloud.sync.SyncTestBase;
@@ -58,6 +61,45 @@ public class SyncManagerTest extends SyncTestBase {
         syncManager.endSync();
     }
 
+    @Test
+    public void testFilesInTransfer() throws Exception {
+        File tempDir = new File(System.getProperty("java.io.tmpdir"));
+        List<File> watchDirs = new ArrayList<File>();
+        watchDirs.add(tempDir);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        SyncManager syncManager =
+            new SyncManager(watchDirs, new TestEndpoint() {
+                @Override
+                public SyncResultType syncFileAndReturnDetailedResult(
+                    MonitoredFile monitoredFile, File watchDir) {
+                    try {
+                        latch.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.syncFileAndReturnDetailedResult(monitoredFile,
+                                                                 watchDir);
+                }
+            }, 1, 100);
+
+        // One file is in transfer, the other is queued waiting for a worker
+        File file1 = new File(tempDir, "test-file-1");
+        File file2 = new File(tempDir, "test-file-2");
+        assertTrue(syncManager.handleChangedFile(new ChangedFile(file1)));
+        assertTrue(syncManager.handleChangedFile(new ChangedFile(file2)));
+        assertEquals(2, syncManager.getFilesInTransfer().size());
+
+        latch.countDown();
+        for (int i = 0; i < 100 && !syncManager.getFilesInTransfer().isEmpty(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(syncManager.getFilesInTransfer().isEmpty());
+        assertEquals(2, handledFiles);
+
+        syncManager.endSync();
+    }
+
     private class TestEndpoint implements SyncEndpoint {
         public boolean syncFile(MonitoredFile file, File watchDir) {
             handledFiles++;
@@ -117,6 +117,69 @@ public class DirectoryUpdateMonitorTest extends SyncTestBase {
         monitor.stopMonitor();
     }
 
+    @Test
+    public void testDirectoryUpdateMonitorPolling() throws Exception {
+        List<File> dirs = new ArrayList<File>();
+        dirs.add(tempDir);
+
+        DirectoryUpdateMonitor monitor =
+            new DirectoryUpdateMonitor(dirs, 100, true, false);
+        monitor.startMonitor();
+
+        // Create file
+        File tempFile = File.createTempFile("temp", "file", tempDir);
+        checkFileInChangedList(tempFile);
+
+        // Delete file
+        tempFile.delete();
+        checkFileInChangedList(tempFile);
+
+        monitor.stopMonitor();
+    }
+
+    @Test
+    public void testDirectoryUpdateMonitorNewSubdirectory() throws Exception {
+        List<File> dirs = new ArrayList<File>();
+        dirs.add(tempDir);
+
+        DirectoryUpdateMonitor monitor =
+            new DirectoryUpdateMonitor(dirs, 100, true);
+        monitor.startMonitor();
+
+        // Create file in a new subdirectory
+        File subDir = new File(tempDir, "sub-dir");
+        subDir.mkdir();
+        File tempFile = File.createTempFile("temp", "file", subDir);
+        checkFileInChangedList(tempFile);
+
+        // Update file
+        FileWriter writer = new FileWriter(tempFile);
+        writer.write("test");
+        writer.close();
+        checkFileInChangedList(tempFile);
+
+        monitor.stopMonitor();
+    }
+
+    @Test
+    public void testDirectoryUpdateMonitorRestart() throws Exception {
+        List<File> dirs = new ArrayList<File>();
+        dirs.add(tempDir);
+
+        DirectoryUpdateMonitor monitor =
+            new DirectoryUpdateMonitor(dirs, 100, true);
+        monitor.startMonitor();
+        monitor.stopMonitor();
+
+        // Create file while monitor is stopped
+        File tempFile = File.createTempFile("temp", "file", tempDir);
+
+        monitor.startMonitor();
+        checkFileInChangedList(tempFile);
+
+        monitor.stopMonitor();
+    }
+
     private void checkFileInChangedList(File file) throws Exception {
         Thread.sleep(1000);
         ChangedFile changedFile = changedList.reserve();
@@ -7,6 +7,8 @@
  */
 package org.duracloud.sync.walker;
 
+import static org.junit.Assert.assertTrue;
+
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
@@ -138,4 +140,55 @@ public class DeleteCheckerTest extends SyncTestBase {
         deleteChecker.run();
     }
 
+    /*
+     * Verifies that, across multiple content dirs with nested directories,
+     * only files which exist in none of the content dirs are deleted, both
+     * when the listing is sorted and when items are listed out of order
+     */
+    @Test
+    public void testDeleteCheckerMultipleDirs() throws Exception {
+        File syncDir1 = new File(tempDir, "dir1");
+        File syncDir2 = new File(tempDir, "dir2");
+        FileUtils.touch(new File(syncDir1, "a/b.txt"));
+        FileUtils.touch(new File(syncDir1, "a.txt"));
+        FileUtils.touch(new File(syncDir1, "c"));
+        FileUtils.touch(new File(syncDir2, "a/c.txt"));
+        FileUtils.touch(new File(syncDir2, "a0"));
+
+        List<String> filesList = new ArrayList<>();
+        filesList.add("a");
+        filesList.add("a.txt");
+        filesList.add("a/a.txt");
+        filesList.add("a/b.txt");
+        filesList.add("a/c.txt");
+        filesList.add("a/d.txt");
+        filesList.add("a0");
+        filesList.add("b");
+        filesList.add("c");
+        filesList.add("a/e.txt"); // out of order
+        filesList.add("a.txt"); // out of order
+
+        List<File> syncDirs = new ArrayList<>();
+        syncDirs.add(syncDir1);
+        syncDirs.add(syncDir2);
+
+        EasyMock.expect(syncEndpoint.getFilesList())
+                .andReturn(filesList.iterator());
+        syncEndpoint.deleteContent(spaceId, "a/a.txt");
+        EasyMock.expectLastCall().once();
+        syncEndpoint.deleteContent(spaceId, "a/d.txt");
+        EasyMock.expectLastCall().once();
+        syncEndpoint.deleteContent(spaceId, "b");
+        EasyMock.expectLastCall().once();
+        syncEndpoint.deleteContent(spaceId, "a/e.txt");
+        EasyMock.expectLastCall().once();
+
+        replayMocks();
+
+        DeleteChecker deleteChecker =
+            new DeleteChecker(syncEndpoint, spaceId, syncDirs, null, 2);
+        deleteChecker.run();
+        assertTrue(deleteChecker.checkComplete());
+    }
+
 }
@@ -0,0 +1,68 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ *     http://duracloud.org/license/
+ */
+package org.duracloud.sync.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.duracloud.sync.SyncTestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the SortedFileIterator
+ */
+public class SortedFileIteratorTest extends SyncTestBase {
+
+    private File tempDir;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        tempDir = createTempDir("sorted-files");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Test
+    public void testSortedOrder() throws Exception {
+        List<String> paths = Arrays.asList("a0", "a/b/c", "a.txt", "a/a",
+                                           "a-b", "b", "a/b0", "a/b.txt");
+        for (String path : paths) {
+            FileUtils.touch(new File(tempDir, path));
+        }
+        new File(tempDir, "empty").mkdir();
+
+        List<String> found = new ArrayList<>();
+        SortedFileIterator iterator = new SortedFileIterator(tempDir);
+        while (iterator.hasNext()) {
+            found.add(iterator.next());
+        }
+
+        List<String> expected = new ArrayList<>(paths);
+        expected.sort(null);
+        assertEquals(expected, found);
+    }
+
+    @Test
+    public void testMissingDir() {
+        assertFalse(new SortedFileIterator(new File(tempDir, "none")).hasNext());
+    }
+
+}